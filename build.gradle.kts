@@ -2,6 +2,7 @@ plugins {
     `java-library`
     id("org.springframework.boot") version "3.2.0" apply false
     id("io.spring.dependency-management") version "1.1.4"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "io.thatworked.support"
@@ -32,6 +33,10 @@ dependencies {
     // Spring Boot dependencies (optional since this is a library)
     compileOnly("org.springframework.boot:spring-boot-starter")
     compileOnly("org.springframework.boot:spring-boot-starter-web")
+    compileOnly("org.springframework:spring-webflux")
+    compileOnly("io.micrometer:context-propagation")
+    compileOnly("io.micrometer:micrometer-core")
+    compileOnly("org.springframework.boot:spring-boot-actuator")
     
     // Logging dependencies
     implementation("org.slf4j:slf4j-api")
@@ -56,12 +61,37 @@ dependencies {
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.junit.jupiter:junit-jupiter")
     testImplementation("org.mockito:mockito-core")
+    testImplementation("io.micrometer:micrometer-core")
+    testImplementation("org.springframework.boot:spring-boot-starter-web")
+    testImplementation("org.springframework:spring-webflux")
+    testImplementation("io.projectreactor:reactor-test")
+    testImplementation("io.micrometer:context-propagation")
+    
+    // Benchmarks (servlet/Kafka are compileOnly for the library itself)
+    jmh("org.springframework:spring-context")
+    jmh("org.springframework:spring-web")
+    jmh("org.springframework:spring-test")
+    jmh("jakarta.servlet:jakarta.servlet-api")
+    jmh("org.springframework.kafka:spring-kafka")
 }
 
 tasks.test {
     useJUnitPlatform()
 }
 
+// Benchmarks live in src/jmh/java; run with ./gradlew jmh
+// -PjmhIncludes=<regex> narrows the run, -PjmhResults=<file> keeps results for comparison
+jmh {
+    jmhVersion.set("1.37")
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    resultsFile.set(
+        (project.findProperty("jmhResults") as String?)?.let { layout.projectDirectory.file(it) }
+            ?: layout.buildDirectory.file("reports/jmh/results.json").get()
+    )
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
+
 // Create a normal jar for library
 tasks.jar {
     enabled = true
@@ -0,0 +1,81 @@
+package io.thatworked.support.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of logging calls whose level is disabled (logger set to WARN)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisabledLevelBenchmark {
+    
+    private StructuredLogger log;
+    private Map<String, Object> context;
+    
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(DisabledLevelBenchmark.class)).setLevel(Level.WARN);
+        log = StructuredLogger.getLogger(DisabledLevelBenchmark.class, "benchmark-service");
+        context = Map.of("userId", "user123", "action", "login");
+    }
+    
+    @Benchmark
+    public void info() {
+        log.info("User logged in");
+    }
+    
+    @Benchmark
+    public void infoWithContext() {
+        log.info("User logged in", context);
+    }
+    
+    @Benchmark
+    public void performance() {
+        log.performance("db.query", 12L, context);
+    }
+    
+    @Benchmark
+    public void security() {
+        log.security("LOGIN", "user123", "/api/login", "POST", true);
+    }
+    
+    @Benchmark
+    public void atInfoBuilder() {
+        log.atInfo()
+           .with("userId", "user123")
+           .with("action", "login")
+           .log("User logged in");
+    }
+    
+    @Benchmark
+    public void withBuilderInfo() {
+        // Level-agnostic builder: still allocates, the terminal call is gated
+        log.with("userId", "user123")
+           .with("action", "login")
+           .info("User logged in");
+    }
+    
+    @Benchmark
+    public String measure() throws Exception {
+        return log.measure("noop", () -> "result");
+    }
+}
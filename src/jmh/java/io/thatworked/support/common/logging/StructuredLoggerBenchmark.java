@@ -0,0 +1,117 @@
+package io.thatworked.support.common.logging;
+
+import io.thatworked.support.common.logging.config.StructuredLoggerOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the enabled StructuredLogger hot paths (events are encoded, then dropped by a NOP appender)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructuredLoggerBenchmark {
+    
+    private StructuredLogger log;
+    private StructuredLogger aggregatingLog;
+    private RuntimeException deepException;
+    
+    @State(Scope.Benchmark)
+    public static class ContextState {
+        @Param({"5", "20"})
+        int size;
+        
+        Map<String, Object> context;
+        
+        @Setup
+        public void setUp() {
+            context = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                // Mix of the value types services typically log
+                switch (i % 4) {
+                    case 0 -> context.put("key" + i, "value-" + i);
+                    case 1 -> context.put("key" + i, i);
+                    case 2 -> context.put("key" + i, (long) i * 1000);
+                    default -> context.put("key" + i, i % 2 == 0);
+                }
+            }
+        }
+    }
+    
+    @Setup
+    public void setUp() {
+        log = StructuredLogger.getLogger(StructuredLoggerBenchmark.class, "benchmark-service");
+        aggregatingLog = StructuredLogger.getLogger(StructuredLoggerBenchmark.class, "benchmark-service",
+            StructuredLoggerOptions.builder().performanceAggregationInterval(Duration.ofSeconds(10)).build());
+        deepException = deepException(200);
+    }
+    
+    @Benchmark
+    public void info() {
+        log.info("User logged in");
+    }
+    
+    @Benchmark
+    public void infoWithContext(ContextState state) {
+        log.info("User logged in", state.context);
+    }
+    
+    @Benchmark
+    public void contextBuilderChain() {
+        log.with("userId", "user123")
+           .with("action", "login")
+           .with("ipAddress", "192.168.1.100")
+           .with("attempt", 3)
+           .info("User authentication successful");
+    }
+    
+    @Benchmark
+    public void contextBuilderNumericFields() {
+        log.atInfo()
+           .with("latencyMs", 12L)
+           .with("requestBytes", 5120L)
+           .with("responseBytes", 20480L)
+           .with("cacheHitRatio", 0.82)
+           .with("retried", false)
+           .log("Request completed");
+    }
+    
+    @Benchmark
+    public void errorWithDeepStackTrace() {
+        log.error("Failed to process request", deepException);
+    }
+    
+    @Benchmark
+    public Integer measure() throws Exception {
+        return log.measure("noop.operation", () -> 42);
+    }
+    
+    @Benchmark
+    public Integer measureAggregated() throws Exception {
+        return aggregatingLog.measure("noop.operation", () -> 42);
+    }
+    
+    private static RuntimeException deepException(int depth) {
+        if (depth == 0) {
+            return new RuntimeException("Database connection failed");
+        }
+        return deepException(depth - 1);
+    }
+}
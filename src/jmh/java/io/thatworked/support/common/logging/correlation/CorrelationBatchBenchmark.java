@@ -0,0 +1,87 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.MDC;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A batch listener's correlation handling for one poll: per-record MDC put/remove with a fresh
+ * string per header, against {@link CorrelationBatch} extracting IDs up front and switching per record
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorrelationBatchBenchmark {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    /** Consecutive records sharing an ID, as when one upstream request fans out */
+    @Param({"1", "50"})
+    private int recordsPerId;
+    
+    private List<ConsumerRecord<String, String>> records;
+    
+    @Setup
+    public void setUp() {
+        CorrelationIdGenerator generator = new TimeOrderedIdGenerator();
+        records = new ArrayList<>(BATCH_SIZE);
+        String correlationId = null;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            if (i % recordsPerId == 0) {
+                correlationId = generator.generate();
+            }
+            ConsumerRecord<String, String> record = new ConsumerRecord<>("events", i % 4, i, "key", "value");
+            record.headers().add(CorrelationIdConstants.CORRELATION_ID_HEADER,
+                correlationId.getBytes(StandardCharsets.UTF_8));
+            records.add(record);
+        }
+    }
+    
+    @Benchmark
+    public void mdcPerRecord(Blackhole blackhole) {
+        for (ConsumerRecord<String, String> record : records) {
+            Header header = record.headers().lastHeader(CorrelationIdConstants.CORRELATION_ID_HEADER);
+            MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, new String(header.value(), StandardCharsets.UTF_8));
+            try {
+                blackhole.consume(MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY));
+            } finally {
+                MDC.remove(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+            }
+        }
+    }
+    
+    @Benchmark
+    public void batchForEach(Blackhole blackhole) {
+        CorrelationBatch.of(records).forEach(record -> blackhole.consume(CorrelationContext.current()));
+    }
+    
+    @Benchmark
+    public void batchForEachWithoutMdcBridge(Blackhole blackhole) {
+        CorrelationContext.setMdcBridge(false);
+        try {
+            CorrelationBatch.of(records).forEach(record -> blackhole.consume(CorrelationContext.current()));
+        } finally {
+            CorrelationContext.setMdcBridge(true);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.thatworked.support.common.logging.correlation;
+
+import jakarta.servlet.FilterChain;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Correlation ID handling in the HTTP filter, the Kafka helpers and {@link CorrelationContext}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorrelationIdBenchmark {
+    
+    private static final String CORRELATION_ID = "3f2b9c1e-8a4d-4f7e-9b61-0c2d5e7a9f10";
+    private static final FilterChain NOOP_CHAIN = (request, response) -> { };
+    
+    private CorrelationIdFilter filter;
+    private MockHttpServletRequest requestWithHeader;
+    private MockHttpServletRequest requestWithoutHeader;
+    private MockHttpServletResponse response;
+    private ConsumerRecord<String, String> consumerRecord;
+    private final CorrelationIdProducerInterceptor<String, String> producerInterceptor = new CorrelationIdProducerInterceptor<>();
+    private final CorrelationIdRecordInterceptor recordInterceptor = new CorrelationIdRecordInterceptor();
+    
+    @Setup
+    public void setUp() {
+        filter = new CorrelationIdFilter();
+        requestWithHeader = new MockHttpServletRequest("GET", "/api/devices");
+        requestWithHeader.addHeader(CorrelationIdConstants.CORRELATION_ID_HEADER, CORRELATION_ID);
+        requestWithoutHeader = new MockHttpServletRequest("GET", "/api/devices");
+        response = new MockHttpServletResponse();
+        
+        consumerRecord = new ConsumerRecord<>("events", 0, 0L, "key", "value");
+        consumerRecord.headers().add(CorrelationIdConstants.CORRELATION_ID_HEADER,
+            CORRELATION_ID.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Benchmark
+    public void filterWithIncomingHeader() throws Exception {
+        filter.doFilter(requestWithHeader, response, NOOP_CHAIN);
+    }
+    
+    @Benchmark
+    public void filterGeneratingId() throws Exception {
+        filter.doFilter(requestWithoutHeader, response, NOOP_CHAIN);
+    }
+    
+    @Benchmark
+    public ProducerRecord<String, String> kafkaAddCorrelationId() {
+        return KafkaCorrelationIdInterceptor.addCorrelationId(new ProducerRecord<>("events", "key", "value"));
+    }
+    
+    @Benchmark
+    public void kafkaExtractAndClear() {
+        KafkaCorrelationIdInterceptor.extractCorrelationId(consumerRecord);
+        KafkaCorrelationIdInterceptor.clearCorrelationId();
+    }
+    
+    @Benchmark
+    public ProducerRecord<String, String> kafkaProducerInterceptor() {
+        try (CorrelationContext.Scope ignored = CorrelationContext.open(CORRELATION_ID)) {
+            return producerInterceptor.onSend(new ProducerRecord<>("events", "key", "value"));
+        }
+    }
+    
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void kafkaRecordInterceptor() {
+        ConsumerRecord<Object, Object> record = (ConsumerRecord<Object, Object>) (ConsumerRecord<?, ?>) consumerRecord;
+        recordInterceptor.intercept(record, null);
+        recordInterceptor.afterRecord(record, null);
+    }
+    
+    @Benchmark
+    public void contextRunAndRead(Blackhole blackhole) {
+        CorrelationContext.run(CORRELATION_ID, () -> blackhole.consume(CorrelationContext.current()));
+    }
+    
+    @Benchmark
+    public void contextRunAndReadWithoutMdcBridge(Blackhole blackhole) {
+        CorrelationContext.setMdcBridge(false);
+        try {
+            CorrelationContext.run(CORRELATION_ID, () -> blackhole.consume(CorrelationContext.current()));
+        } finally {
+            CorrelationContext.setMdcBridge(true);
+        }
+    }
+}
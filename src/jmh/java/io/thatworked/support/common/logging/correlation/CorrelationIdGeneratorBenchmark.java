@@ -0,0 +1,46 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Correlation ID generation with every core generating at once, as under request load.
+ * Compare with {@code -t 1} to see how much of the random UUID cost is contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class CorrelationIdGeneratorBenchmark {
+    
+    private final CorrelationIdGenerator timeOrdered = new TimeOrderedIdGenerator(CorrelationIdFormat.UUID);
+    private final CorrelationIdGenerator traceparent = new TimeOrderedIdGenerator(CorrelationIdFormat.TRACEPARENT);
+    
+    @Benchmark
+    public String randomUuid() {
+        return CorrelationIdGenerator.RANDOM_UUID.generate();
+    }
+    
+    @Benchmark
+    public String timeOrderedUuid() {
+        return timeOrdered.generate();
+    }
+    
+    @Benchmark
+    public String timeOrderedTraceparent() {
+        return traceparent.generate();
+    }
+}
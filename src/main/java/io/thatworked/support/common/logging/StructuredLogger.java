@@ -1,18 +1,42 @@
 package io.thatworked.support.common.logging;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.thatworked.support.common.logging.audit.SecurityAuditLog;
+import io.thatworked.support.common.logging.config.LogOutputMode;
 import io.thatworked.support.common.logging.config.LoggingConfiguration;
-import io.thatworked.support.common.logging.correlation.CorrelationIdConstants;
+import io.thatworked.support.common.logging.config.StructuredLoggerOptions;
+import io.thatworked.support.common.logging.correlation.CorrelationContext;
+import io.thatworked.support.common.logging.encoder.StructuredLogEncoder;
+import io.thatworked.support.common.logging.error.ErrorCode;
+import io.thatworked.support.common.logging.error.ErrorIndex;
+import io.thatworked.support.common.logging.error.ErrorRepeatSuppressor;
+import io.thatworked.support.common.logging.level.LogLevelOverrides;
+import io.thatworked.support.common.logging.metrics.LoggingMetrics;
 import io.thatworked.support.common.logging.model.LogContext;
+import io.thatworked.support.common.logging.model.LogContextMarker;
+import io.thatworked.support.common.logging.model.LogFields;
+import io.thatworked.support.common.logging.performance.LatencyHistogram;
+import io.thatworked.support.common.logging.performance.PerformanceAggregator;
+import io.thatworked.support.common.logging.redaction.Redactor;
+import io.thatworked.support.common.logging.sampling.LogSampler;
+import io.thatworked.support.common.logging.sampling.SamplingPolicy;
 import lombok.RequiredArgsConstructor;
+import net.logstash.logback.marker.LogstashMarker;
+import net.logstash.logback.marker.Markers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
+import org.slf4j.Marker;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Structured logger wrapper that ensures consistent log format across all services
@@ -22,13 +46,24 @@ public class StructuredLogger {
     
     private final Logger logger;
     private final String serviceName;
-    private final ObjectMapper objectMapper;
+    private final StructuredLogEncoder encoder;
+    private final StructuredLoggerOptions options;
+    private final LogSampler sampler;
+    private final ContextBuilder noOpBuilder = new NoOpContextBuilder();
     
     public static StructuredLogger getLogger(Class<?> clazz, String serviceName) {
+        return getLogger(clazz, serviceName, StructuredLoggerOptions.defaults());
+    }
+    
+    public static StructuredLogger getLogger(Class<?> clazz, String serviceName, StructuredLoggerOptions options) {
+        Logger logger = LoggerFactory.getLogger(clazz);
+        SamplingPolicy sampling = options.getSampling();
         return new StructuredLogger(
-            LoggerFactory.getLogger(clazz),
+            logger,
             serviceName,
-            LoggingConfiguration.getObjectMapper()
+            LoggingConfiguration.getEncoder(options.getSerializationLimits(), options.getRedactor()),
+            options,
+            sampling == null ? null : sampling.forLogger(logger.getName())
         );
     }
     
@@ -38,7 +73,13 @@ public class StructuredLogger {
     }
     
     public void info(String message, Map<String, Object> context) {
-        log("INFO", message, context, null, null, null);
+        try {
+            if (logger.isInfoEnabled() && sampled("INFO", message, context)) {
+                log("INFO", message, context, null, null, null);
+            }
+        } finally {
+            recycle(context);
+        }
     }
     
     // Error logging
@@ -47,25 +88,102 @@ public class StructuredLogger {
     }
     
     public void error(String message, Map<String, Object> context, Throwable throwable) {
+        try {
+            Object errorCode = context == null ? null : context.get(LogSampler.ERROR_CODE_KEY);
+            String code = errorCode instanceof ErrorCode known ? known.getCode()
+                : errorCode == null ? null : errorCode.toString();
+            index(code, message, throwable);
+            if (logger.isErrorEnabled() && sampled("ERROR", message, context)) {
+                logError(null, message, context, throwable);
+            }
+        } finally {
+            recycle(context);
+        }
+    }
+    
+    // Error logging with a standard code, written to the error's code and severity
+    public void error(ErrorCode errorCode, String message, Throwable throwable) {
+        error(errorCode, message, null, throwable);
+    }
+    
+    public void error(ErrorCode errorCode, String message, Map<String, Object> context, Throwable throwable) {
+        try {
+            index(errorCode.getCode(), message, throwable);
+            if (logger.isErrorEnabled()
+                    && (sampler == null || sampler.allow("ERROR", errorCode, message))) {
+                logError(errorCode, message, context, throwable);
+            }
+        } finally {
+            recycle(context);
+        }
+    }
+    
+    // Every error is indexed, including those disabled or sampled out of the log; an error from a
+    // builder bound to a disabled level has no context kept, so it is indexed without a context code
+    private void index(String code, String message, Throwable throwable) {
+        ErrorIndex errorIndex = options.getErrorIndex();
+        if (errorIndex != null) {
+            errorIndex.record(code, message, throwable, CorrelationContext.current());
+        }
+        LogLevelOverrides levelOverrides = options.getLevelOverrides();
+        if (levelOverrides != null) {
+            levelOverrides.errorLogged(code);
+        }
+    }
+    
+    private void logError(ErrorCode errorCode, String message, Map<String, Object> context, Throwable throwable) {
         LogContext.ErrorInfo errorInfo = null;
         if (throwable != null) {
             errorInfo = LogContext.ErrorInfo.builder()
+                .code(errorCode == null ? null : errorCode.getCode())
                 .type(throwable.getClass().getSimpleName())
                 .message(throwable.getMessage())
-                .stackTrace(getStackTraceHead(throwable))
-                .severity("ERROR")
+                .stackTrace(LoggingConfiguration.getStackTraceCache().render(throwable))
+                .severity(errorCode == null ? "ERROR" : errorCode.getSeverity())
                 .build();
+            
+            if (!options.getErrorRepeatWindow().isZero()) {
+                ErrorRepeatSuppressor repeats = ErrorRepeatSuppressor.forWindow(options.getErrorRepeatWindow());
+                RepeatKey key = new RepeatKey(logger.getName(), errorInfo.getCode(), message, errorInfo.getStackTrace());
+                if (repeats.suppress(key)) {
+                    return;
+                }
+                LogContext.ErrorInfo firstError = errorInfo;
+                // Pooled fields are recycled after this call; the summary needs its own copy
+                Map<String, Object> summaryContext = context instanceof LogFields fields ? fields.copy() : context;
+                repeats.open(key, count -> logRepeatSummary(message, summaryContext, firstError, count));
+            }
+        } else if (errorCode != null) {
+            errorInfo = errorCode.toErrorInfo(message);
         }
         log("ERROR", message, context, errorInfo, null, null);
     }
     
+    // Identical errors: same logger, code, message and rendered stack head (which includes type and message)
+    private record RepeatKey(String logger, String code, String message, String stackTrace) {
+    }
+    
+    private void logRepeatSummary(String message, Map<String, Object> context,
+                                  LogContext.ErrorInfo errorInfo, long repeats) {
+        Map<String, Object> summary = context == null ? new HashMap<>() : new HashMap<>(context);
+        summary.put("repeatCount", repeats);
+        summary.put("repeatWindowMs", options.getErrorRepeatWindow().toMillis());
+        log("ERROR", message, summary, errorInfo, null, null);
+    }
+    
     // Warning logging
     public void warn(String message) {
         warn(message, null);
     }
     
     public void warn(String message, Map<String, Object> context) {
-        log("WARN", message, context, null, null, null);
+        try {
+            if (logger.isWarnEnabled() && sampled("WARN", message, context)) {
+                log("WARN", message, context, null, null, null);
+            }
+        } finally {
+            recycle(context);
+        }
     }
     
     // Debug logging
@@ -74,23 +192,40 @@ public class StructuredLogger {
     }
     
     public void debug(String message, Map<String, Object> context) {
-        if (logger.isDebugEnabled()) {
-            log("DEBUG", message, context, null, null, null);
+        try {
+            if (logger.isDebugEnabled() && sampled("DEBUG", message, context)) {
+                log("DEBUG", message, context, null, null, null);
+            }
+        } finally {
+            recycle(context);
         }
     }
     
-    // Performance logging
+    // Performance logging; rolled up per operation when aggregation is on, otherwise sampled per event
     public void performance(String operation, long duration, Map<String, Object> metrics) {
+        if (!logger.isInfoEnabled() || aggregate(operation, TimeUnit.MILLISECONDS.toNanos(duration), metrics)) {
+            return;
+        }
+        if (sampled("INFO", "Performance metric", null)) {
+            logPerformance("Performance metric", operation, duration, metrics);
+        }
+    }
+    
+    private void logPerformance(String message, String operation, long duration, Map<String, Object> metrics) {
         LogContext.PerformanceInfo perfInfo = LogContext.PerformanceInfo.builder()
             .operation(operation)
             .duration(duration)
             .metrics(metrics)
             .build();
-        log("INFO", "Performance metric", null, null, perfInfo, null);
+        log("INFO", message, null, null, perfInfo, null);
     }
     
-    // Security logging
+    // Security logging; with an audit log, events skip level and sampling checks so none are lost
     public void security(String event, String user, String resource, String action, boolean success) {
+        SecurityAuditLog auditLog = options.getAuditLog();
+        if (auditLog == null && (!logger.isInfoEnabled() || !sampled("INFO", "Security event", null))) {
+            return;
+        }
         LogContext.SecurityInfo securityInfo = LogContext.SecurityInfo.builder()
             .event(event)
             .user(user)
@@ -98,100 +233,461 @@ public class StructuredLogger {
             .action(action)
             .success(success)
             .build();
+        if (auditLog != null && audit(auditLog, securityInfo)) {
+            return;
+        }
+        // No audit log, or its queue is full: the regular log keeps the event
         log("INFO", "Security event", null, null, null, securityInfo);
     }
     
-    // Measure and log operation duration
+    private boolean audit(SecurityAuditLog auditLog, LogContext.SecurityInfo securityInfo) {
+        try {
+            String record = encoder.encode(Instant.now(), "INFO", serviceName, CorrelationContext.current(),
+                "Security event", null, null, null, securityInfo);
+            return auditLog.append(record.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    // Measure and log operation duration, timed with the monotonic nanosecond clock
     public <T> T measure(String operation, Callable<T> callable) throws Exception {
-        long startTime = System.currentTimeMillis();
+        if (!logger.isInfoEnabled()) {
+            return callable.call();
+        }
+        long startTime = System.nanoTime();
         try {
             T result = callable.call();
-            long duration = System.currentTimeMillis() - startTime;
-            performance(operation, duration, Map.of("status", "success"));
+            recordMeasurement(operation, System.nanoTime() - startTime, null);
             return result;
         } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
-            performance(operation, duration, Map.of("status", "failed", "error", e.getMessage()));
+            recordMeasurement(operation, System.nanoTime() - startTime, e);
             throw e;
         }
     }
     
-    // Context builder for fluent API
+    private void recordMeasurement(String operation, long nanos, Exception failure) {
+        LogFields metrics = new LogFields()
+            .with("status", failure == null ? "success" : "failed")
+            .with("durationMicros", nanos / 1_000);
+        if (failure != null) {
+            // Many exceptions carry no message
+            metrics.with("error", failure.getMessage() != null ? failure.getMessage() : failure.getClass().getName());
+        }
+        if (!aggregate(operation, nanos, metrics) && sampled("INFO", "Performance metric", null)) {
+            logPerformance("Performance metric", operation, nanos / 1_000_000, metrics);
+        }
+    }
+    
+    // True if the measurement was taken by the aggregator, which logs a summary per interval instead
+    private boolean aggregate(String operation, long nanos, Map<String, Object> metrics) {
+        Duration interval = options.getPerformanceAggregationInterval();
+        if (interval.isZero()) {
+            return false;
+        }
+        List<String> tagKeys = options.getPerformanceAggregationTags();
+        Object[] tags = new Object[tagKeys.size()];
+        for (int i = 0; i < tags.length && metrics != null; i++) {
+            tags[i] = metrics.get(tagKeys.get(i));
+        }
+        return PerformanceAggregator.forInterval(interval).record(
+            new PerformanceKey(logger.getName(), serviceName, options, operation, Arrays.asList(tags)), nanos,
+            summary -> logPerformanceSummary(operation, tagKeys, tags, summary));
+    }
+    
+    // Options compare by identity, so loggers configured differently keep separate summaries
+    private record PerformanceKey(String logger, String service, StructuredLoggerOptions options,
+                                  String operation, List<Object> tags) {
+    }
+    
+    private void logPerformanceSummary(String operation, List<String> tagKeys, Object[] tags,
+                                       PerformanceAggregator.Summary summary) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        LatencyHistogram.Snapshot latencies = summary.latencies();
+        long median = latencies.valueAtPercentile(50);
+        LogFields metrics = new LogFields();
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] != null) {
+                metrics.with(tagKeys.get(i), tags[i]);
+            }
+        }
+        metrics.with("count", summary.count())
+            .with("meanMicros", summary.meanNanos() / 1_000)
+            .with("minMicros", summary.minNanos() / 1_000)
+            .with("p50Micros", median / 1_000)
+            .with("p99Micros", latencies.valueAtPercentile(99) / 1_000)
+            .with("p999Micros", latencies.valueAtPercentile(99.9) / 1_000)
+            .with("maxMicros", latencies.getMaxNanos() / 1_000)
+            .with("intervalMs", options.getPerformanceAggregationInterval().toMillis());
+        // The event's duration is the interval's median; never sampled, it stands for every measurement
+        logPerformance("Performance summary", operation, median / 1_000_000, metrics);
+    }
+    
+    // Context builder for fluent API; the terminal call decides the level
     public ContextBuilder with(String key, Object value) {
-        return new ContextBuilder().with(key, value);
+        return startBuilder().with(key, value);
+    }
+    
+    public ContextBuilder with(String key, long value) {
+        return startBuilder().with(key, value);
+    }
+    
+    public ContextBuilder with(String key, double value) {
+        return startBuilder().with(key, value);
+    }
+    
+    public ContextBuilder with(String key, boolean value) {
+        return startBuilder().with(key, value);
+    }
+    
+    public ContextBuilder with(String key, CharSequence value) {
+        return startBuilder().with(key, value);
+    }
+    
+    // Computed only if the event is encoded
+    public ContextBuilder withLazy(String key, Supplier<?> value) {
+        return startBuilder().withLazy(key, value);
+    }
+    
+    // Error terminals need a real builder while errors are indexed, so the context's code reaches the index
+    private ContextBuilder startBuilder() {
+        return logger.isErrorEnabled() || indexesErrors() ? new ContextBuilder(null) : noOpBuilder;
     }
     
+    private boolean indexesErrors() {
+        return options.getErrorIndex() != null || options.getLevelOverrides() != null;
+    }
+    
+    // Level-bound builders; a disabled level returns the shared no-op builder
+    public ContextBuilder atInfo() {
+        return logger.isInfoEnabled() ? new ContextBuilder("INFO") : noOpBuilder;
+    }
+    
+    public ContextBuilder atWarn() {
+        return logger.isWarnEnabled() ? new ContextBuilder("WARN") : noOpBuilder;
+    }
+    
+    public ContextBuilder atError() {
+        return logger.isErrorEnabled() || indexesErrors() ? new ContextBuilder("ERROR") : noOpBuilder;
+    }
+    
+    public ContextBuilder atDebug() {
+        return logger.isDebugEnabled() ? new ContextBuilder("DEBUG") : noOpBuilder;
+    }
+    
+    /**
+     * Collects context into pooled {@link LogFields}; the terminal call logs and consumes them. A builder
+     * used again collects into unpooled fields, so each terminal call logs the context added since the
+     * previous one.
+     */
     public class ContextBuilder {
-        private final Map<String, Object> context = new HashMap<>();
+        private final String level;
+        private LogFields fields;
+        private boolean used;
+        
+        private ContextBuilder(String level) {
+            this.level = level;
+        }
         
         public ContextBuilder with(String key, Object value) {
-            context.put(key, value);
+            fields().with(key, value);
             return this;
         }
         
+        public ContextBuilder with(String key, long value) {
+            fields().with(key, value);
+            return this;
+        }
+        
+        public ContextBuilder with(String key, double value) {
+            fields().with(key, value);
+            return this;
+        }
+        
+        public ContextBuilder with(String key, boolean value) {
+            fields().with(key, value);
+            return this;
+        }
+        
+        public ContextBuilder with(String key, CharSequence value) {
+            fields().with(key, value);
+            return this;
+        }
+        
+        public ContextBuilder withLazy(String key, Supplier<?> value) {
+            fields().withLazy(key, value);
+            return this;
+        }
+        
+        // Logs at the level the builder was bound to, INFO if unbound
+        public void log(String message) {
+            switch (level == null ? "INFO" : level) {
+                case "ERROR" -> StructuredLogger.this.error(message, take(), null);
+                case "WARN" -> StructuredLogger.this.warn(message, take());
+                case "DEBUG" -> StructuredLogger.this.debug(message, take());
+                default -> StructuredLogger.this.info(message, take());
+            }
+        }
+        
+        public void info(String message) {
+            StructuredLogger.this.info(message, take());
+        }
+        
+        public void warn(String message) {
+            StructuredLogger.this.warn(message, take());
+        }
+        
+        public void error(String message, Throwable throwable) {
+            StructuredLogger.this.error(message, take(), throwable);
+        }
+        
+        public void error(ErrorCode errorCode, String message, Throwable throwable) {
+            StructuredLogger.this.error(errorCode, message, take(), throwable);
+        }
+        
+        public void debug(String message) {
+            StructuredLogger.this.debug(message, take());
+        }
+        
+        private LogFields fields() {
+            if (fields == null) {
+                // The first event's fields went back to the pool; a reused builder must not share them
+                fields = used ? new LogFields() : LogFields.obtain();
+            }
+            return fields;
+        }
+        
+        // Hands the fields to the logging call, which recycles them if pooled
+        private LogFields take() {
+            used = true;
+            LogFields taken = fields;
+            fields = null;
+            return taken;
+        }
+    }
+    
+    private class NoOpContextBuilder extends ContextBuilder {
+        
+        private NoOpContextBuilder() {
+            super(null);
+        }
+        
+        @Override
+        public ContextBuilder with(String key, Object value) {
+            return this;
+        }
+        
+        @Override
+        public ContextBuilder with(String key, long value) {
+            return this;
+        }
+        
+        @Override
+        public ContextBuilder with(String key, double value) {
+            return this;
+        }
+        
+        @Override
+        public ContextBuilder with(String key, boolean value) {
+            return this;
+        }
+        
+        @Override
+        public ContextBuilder with(String key, CharSequence value) {
+            return this;
+        }
+        
+        @Override
+        public ContextBuilder withLazy(String key, Supplier<?> value) {
+            return this;
+        }
+        
+        @Override
+        public void log(String message) {
+        }
+        
+        @Override
         public void info(String message) {
-            StructuredLogger.this.info(message, context);
         }
         
+        @Override
         public void warn(String message) {
-            StructuredLogger.this.warn(message, context);
         }
         
+        @Override
         public void error(String message, Throwable throwable) {
-            StructuredLogger.this.error(message, context, throwable);
+            index(null, message, throwable);
+        }
+        
+        @Override
+        public void error(ErrorCode errorCode, String message, Throwable throwable) {
+            index(errorCode.getCode(), message, throwable);
         }
         
+        @Override
         public void debug(String message) {
-            StructuredLogger.this.debug(message, context);
         }
     }
     
+    private static void recycle(Map<String, Object> context) {
+        if (context instanceof LogFields fields) {
+            fields.recycle();
+        }
+    }
+    
+    // Rate limits and sampling are decided here, before anything about the event is built
+    private boolean sampled(String level, String message, Map<String, Object> context) {
+        return sampler == null
+            || sampler.allow(level, context == null ? null : context.get(LogSampler.ERROR_CODE_KEY), message);
+    }
+    
     private void log(String level, String message, Map<String, Object> context,
                      LogContext.ErrorInfo error, LogContext.PerformanceInfo performance,
                      LogContext.SecurityInfo security) {
         
-        LogContext logContext = LogContext.builder()
-            .timestamp(Instant.now())
-            .level(level)
-            .service(serviceName)
-            .correlationId(MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY))
-            .message(message)
-            .context(context)
-            .error(error)
-            .performance(performance)
-            .security(security)
-            .build();
+        LoggingMetrics metrics = options.getMetrics();
+        boolean timed = metrics != LoggingMetrics.NOOP;
+        boolean structuredArguments = options.getOutputMode() == LogOutputMode.STRUCTURED_ARGUMENTS;
+        // With metrics, fields are encoded here rather than by the appender, so their cost can be measured
+        if (structuredArguments && !timed && encoder.getRedactor() == null && encoder.getLimits() == null) {
+            // Markers may be serialized later on another thread, after pooled fields are recycled
+            Map<String, Object> markerContext = context instanceof LogFields fields ? fields.copy() : context;
+            write(level, structuredMarker(markerContext, error, performance, security), message);
+            metrics.eventLogged(serviceName, level);
+            return;
+        }
         
         try {
-            String jsonLog = objectMapper.writeValueAsString(logContext);
-            
-            switch (level) {
-                case "ERROR" -> logger.error(jsonLog);
-                case "WARN" -> logger.warn(jsonLog);
-                case "INFO" -> logger.info(jsonLog);
-                case "DEBUG" -> logger.debug(jsonLog);
-                default -> logger.info(jsonLog);
+            long start = timed ? System.nanoTime() : 0;
+            if (structuredArguments) {
+                // Rendered now through the encoder's limits and redaction; raw JSON holds no reference to pooled fields
+                StructuredLogEncoder.EncodedFields fields =
+                    encoder.encodeFields(context, error, performance, security);
+                String encodedMessage = encoder.encodeMessage(message);
+                if (timed) {
+                    metrics.eventEncoded(utf8Length(fields.context()) + utf8Length(fields.error())
+                        + utf8Length(fields.performance()) + utf8Length(fields.security())
+                        + utf8Length(encodedMessage), System.nanoTime() - start);
+                }
+                write(level, encodedMarker(fields), encodedMessage);
+                metrics.eventLogged(serviceName, level);
+                return;
             }
+            // Streams the LogContext shape directly; no LogContext instance is built per event
+            Instant timestamp = Instant.now();
+            String correlationId = CorrelationContext.current();
+            String jsonLog = encoder.encode(timestamp, level, serviceName,
+                correlationId, message, context,
+                error, performance, security);
+            if (timed) {
+                metrics.eventEncoded(utf8Length(jsonLog), System.nanoTime() - start);
+            }
+            
+            write(level, contextMarker(timestamp, level, correlationId, message, context, error, performance,
+                security), jsonLog);
+            metrics.eventLogged(serviceName, level);
         } catch (Exception e) {
             // Fallback to simple logging if JSON serialization fails
+            metrics.serializationFailed(serviceName);
             logger.error("Failed to serialize log context: {}", e.getMessage());
-            logger.info("{} - {} - {}", level, message, context);
+            // Unencoded context would bypass redaction
+            Redactor redactor = options.getRedactor();
+            logger.info("{} - {} - {}", level, redactor == null ? message : redactor.redact(message),
+                redactor == null ? String.valueOf(context) : "[context omitted]");
         }
     }
     
-    private String getStackTraceHead(Throwable throwable) {
-        StackTraceElement[] stackTrace = throwable.getStackTrace();
-        if (stackTrace.length > 0) {
-            StringBuilder sb = new StringBuilder();
-            sb.append(throwable.getClass().getName()).append(": ").append(throwable.getMessage());
-            for (int i = 0; i < Math.min(5, stackTrace.length); i++) {
-                sb.append("\n\tat ").append(stackTrace[i]);
+    // Bytes the text takes as UTF-8, counted without encoding it; an unpaired surrogate encodes as '?'
+    private static int utf8Length(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int length = text.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                continue;
             }
-            if (stackTrace.length > 5) {
-                sb.append("\n\t... ").append(stackTrace.length - 5).append(" more");
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 2;
+                i++;
             }
-            return sb.toString();
         }
-        return throwable.toString();
+        return bytes;
+    }
+    
+    private void write(String level, Marker marker, String message) {
+        switch (level) {
+            case "ERROR" -> logger.error(marker, message);
+            case "WARN" -> logger.warn(marker, message);
+            case "INFO" -> logger.info(marker, message);
+            case "DEBUG" -> logger.debug(marker, message);
+            default -> logger.info(marker, message);
+        }
+    }
+    
+    // Unless a binary encoder is running, or the JSON differs from the fields as logged
+    private Marker contextMarker(Instant timestamp, String level, String correlationId, String message,
+                                 Map<String, Object> context, LogContext.ErrorInfo error,
+                                 LogContext.PerformanceInfo performance, LogContext.SecurityInfo security) {
+        if (!LogContextMarker.isRequested() || encoder.getRedactor() != null || encoder.getLimits() != null) {
+            return null;
+        }
+        return new LogContextMarker(LogContext.builder()
+            .timestamp(timestamp)
+            .level(level)
+            .service(serviceName)
+            .correlationId(correlationId)
+            .message(message)
+            .context(context instanceof LogFields fields ? fields.copy() : context)
+            .error(error)
+            .performance(performance)
+            .security(security)
+            .build());
+    }
+    
+    // Fields are serialized once, by the LogstashEncoder, as top-level JSON fields
+    private static Marker structuredMarker(Map<String, Object> context, LogContext.ErrorInfo error,
+                                           LogContext.PerformanceInfo performance,
+                                           LogContext.SecurityInfo security) {
+        LogstashMarker marker = null;
+        marker = appendField(marker, "context", context);
+        marker = appendField(marker, "error", error);
+        marker = appendField(marker, "performance", performance);
+        marker = appendField(marker, "security", security);
+        return marker;
+    }
+    
+    private static Marker encodedMarker(StructuredLogEncoder.EncodedFields fields) {
+        LogstashMarker marker = null;
+        marker = appendRawField(marker, "context", fields.context());
+        marker = appendRawField(marker, "error", fields.error());
+        marker = appendRawField(marker, "performance", fields.performance());
+        marker = appendRawField(marker, "security", fields.security());
+        return marker;
+    }
+    
+    private static LogstashMarker appendRawField(LogstashMarker marker, String fieldName, String json) {
+        if (json == null) {
+            return marker;
+        }
+        LogstashMarker field = Markers.appendRaw(fieldName, json);
+        return marker == null ? field : marker.and(field);
+    }
+    
+    private static LogstashMarker appendField(LogstashMarker marker, String fieldName, Object value) {
+        if (value == null) {
+            return marker;
+        }
+        LogstashMarker field = Markers.append(fieldName, value);
+        return marker == null ? field : marker.and(field);
     }
 }
\ No newline at end of file
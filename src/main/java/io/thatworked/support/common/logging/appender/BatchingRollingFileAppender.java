@@ -0,0 +1,252 @@
+package io.thatworked.support.common.logging.appender;
+
+import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rolling file appender that group-commits encoded events.
+ * <p>
+ * Encoded events are gathered in a direct {@link ByteBuffer} and written to the file's
+ * {@link FileChannel} in one call when the batch fills, when {@code flushInterval} passes,
+ * before every rollover and on stop. {@code forceInterval} optionally adds a periodic
+ * {@code force()} for durability. Rolling and retention stay with the configured rolling policy.
+ * <p>
+ * Writing to the channel bypasses {@link ResilientFileOutputStream}'s recovery, so the appender
+ * recovers the same way itself: a failed write drops its batch, reports once, and the file is
+ * reopened on the next write after a backoff that doubles up to a minute. Events are dropped while
+ * the file is failing; the appender keeps running instead of stopping on the first I/O error.
+ */
+public class BatchingRollingFileAppender<E> extends RollingFileAppender<E> {
+
+    public static final FileSize DEFAULT_BATCH_SIZE = new FileSize(256 * FileSize.KB_COEFFICIENT);
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.buildByMilliseconds(1000);
+
+    private static final long MIN_REOPEN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long MAX_REOPEN_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ReentrantLock batchLock = new ReentrantLock();
+
+    private FileSize batchSize = DEFAULT_BATCH_SIZE;
+    private Duration flushInterval = DEFAULT_FLUSH_INTERVAL;
+    private Duration forceInterval;
+
+    private ByteBuffer batch;
+    private ScheduledFuture<?> flushTask;
+    private long lastForceNanos;
+    private boolean dirtySinceForce;
+    // Guarded by batchLock
+    private boolean failing;
+    private long reopenBackoffNanos = MIN_REOPEN_BACKOFF_NANOS;
+    private long reopenAtNanos;
+
+    @Override
+    public void start() {
+        if (isPrudent()) {
+            addError("Prudent mode is not supported by " + getClass().getSimpleName());
+            return;
+        }
+        long capacity = batchSize.getSize();
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE) {
+            addError("Invalid batch size [" + batchSize + "]");
+            return;
+        }
+        batch = ByteBuffer.allocateDirect((int) capacity);
+        lastForceNanos = System.nanoTime();
+        super.start();
+        if (isStarted()) {
+            long period = flushInterval.getMilliseconds();
+            flushTask = getContext().getScheduledExecutorService()
+                .scheduleAtFixedRate(this::timedFlush, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        batchLock.lock();
+        try {
+            flushBatch(true);
+        } catch (IOException e) {
+            addError("Failed to flush log batch on stop", e);
+        } finally {
+            batchLock.unlock();
+        }
+        super.stop();
+    }
+
+    @Override
+    protected void writeOut(E event) throws IOException {
+        if (!(getEncoder() instanceof SequentialEncoder)) {
+            batchBytes(getEncoder().encode(event));
+            return;
+        }
+        // Output refers to earlier events, so encode and batch in one order
+        batchLock.lock();
+        try {
+            batchBytes(getEncoder().encode(event));
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void batchBytes(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        batchLock.lock();
+        try {
+            if (bytes.length > batch.remaining()) {
+                flushBatch(false);
+            }
+            if (bytes.length > batch.capacity()) {
+                // Larger than a whole batch: write it straight through
+                write(ByteBuffer.wrap(bytes));
+            } else {
+                batch.put(bytes);
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    @Override
+    public void rollover() {
+        batchLock.lock();
+        try {
+            // Everything encoded so far belongs to the file being rolled; holding the lock
+            // through the roll keeps later events out until the new file's header is written
+            try {
+                flushBatch(false);
+            } catch (IOException e) {
+                addError("Failed to flush log batch before rollover", e);
+            }
+            super.rollover();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void timedFlush() {
+        if (!batchLock.tryLock()) {
+            // A writer holds the lock and will flush when the batch fills
+            return;
+        }
+        try {
+            boolean force = forceInterval != null && dirtySinceForce
+                && System.nanoTime() - lastForceNanos >= TimeUnit.MILLISECONDS.toNanos(forceInterval.getMilliseconds());
+            flushBatch(force);
+        } catch (IOException e) {
+            addError("Failed to flush log batch", e);
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    // Callers hold batchLock
+    private void flushBatch(boolean force) throws IOException {
+        if (batch.position() > 0) {
+            batch.flip();
+            write(batch);
+            batch.clear();
+        }
+        if (force && dirtySinceForce && !failing) {
+            FileChannel channel = channel();
+            if (channel != null) {
+                channel.force(false);
+            }
+            dirtySinceForce = false;
+            lastForceNanos = System.nanoTime();
+        }
+    }
+
+    // Callers hold batchLock; drops the bytes while the file is failing
+    private void write(ByteBuffer bytes) {
+        long now = System.nanoTime();
+        if (failing && now - reopenAtNanos < 0) {
+            return;
+        }
+        try {
+            if (failing) {
+                openFile(getFile());
+            }
+            writeFully(bytes);
+            if (failing) {
+                addInfo("Writing to [" + getFile() + "] again after reopening it");
+                failing = false;
+                reopenBackoffNanos = MIN_REOPEN_BACKOFF_NANOS;
+            }
+        } catch (IOException e) {
+            if (!failing) {
+                addError("Failed to write log batch to [" + getFile() + "]; dropping events until it reopens", e);
+                failing = true;
+            } else {
+                reopenBackoffNanos = Math.min(reopenBackoffNanos * 2, MAX_REOPEN_BACKOFF_NANOS);
+            }
+            reopenAtNanos = now + reopenBackoffNanos;
+        }
+    }
+
+    // Overridden by tests to simulate a failing disk
+    void writeFully(ByteBuffer bytes) throws IOException {
+        FileChannel channel = channel();
+        if (channel == null) {
+            throw new IOException("Log file is not open");
+        }
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        dirtySinceForce = true;
+    }
+
+    private FileChannel channel() throws IOException {
+        OutputStream out = getOutputStream();
+        if (!(out instanceof ResilientFileOutputStream fileOut)) {
+            return null;
+        }
+        // Anything the encoder wrote through the stream (e.g. header bytes) must land first
+        fileOut.flush();
+        return fileOut.getChannel();
+    }
+
+    public void setBatchSize(FileSize batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public FileSize getBatchSize() {
+        return batchSize;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * How often to force() written data to disk; unset means leave it to the OS
+     */
+    public void setForceInterval(Duration forceInterval) {
+        this.forceInterval = forceInterval;
+    }
+
+    public Duration getForceInterval() {
+        return forceInterval;
+    }
+}
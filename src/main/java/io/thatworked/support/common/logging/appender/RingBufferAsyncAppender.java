@@ -0,0 +1,305 @@
+package io.thatworked.support.common.logging.appender;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import io.thatworked.support.common.logging.concurrent.MpscRingBuffer;
+import io.thatworked.support.common.logging.concurrent.WaitStrategy;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous appender backed by a preallocated lock-free ring buffer and a single consumer thread.
+ * <p>
+ * Drop-in replacement for logback's {@code AsyncAppender}: request threads publish with a CAS instead
+ * of contending on an {@code ArrayBlockingQueue} lock, and the worker drains events in batches into the
+ * attached appender. What happens when the buffer is full is set by {@link OverflowPolicy}.
+ */
+public class RingBufferAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
+
+    /**
+     * What producers do when the ring buffer is full
+     */
+    public enum OverflowPolicy {
+        /** Wait for space; never loses events */
+        BLOCK,
+        /** Drop events at or below the drop threshold, wait for the rest */
+        DROP_BY_LEVEL,
+        /** Keep one in {@code sampleRate} events at or below the drop threshold, wait for the rest */
+        SAMPLE
+    }
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final Consumer<ILoggingEvent> dispatcher = appenders::appendLoopOnAppenders;
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
+    private int sampleRate = 10;
+    private int dropThreshold = Level.INFO_INT;
+    private boolean includeCallerData;
+    private WaitStrategy waitStrategy = WaitStrategy.PARK;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    private MpscRingBuffer<ILoggingEvent> buffer;
+    private Thread worker;
+    private volatile boolean workerParked;
+    private int appenderCount;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (appenderCount == 0) {
+            addError("No attached appender found for [" + getName() + "]");
+            return;
+        }
+        if (batchSize < 1) {
+            addError("Invalid batch size [" + batchSize + "]");
+            return;
+        }
+        buffer = new MpscRingBuffer<>(bufferSize);
+        worker = new Thread(this::drainLoop, "RingBufferAsyncAppender-Worker-" + getName());
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+        addInfo("Ring buffer of " + buffer.capacity() + " slots, " + waitStrategy + " wait, "
+            + overflowPolicy + " on overflow");
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        // Producers stop publishing, then the worker drains what is left
+        super.stop();
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushTime);
+            if (worker.isAlive()) {
+                addWarn("Max flush time (" + maxFlushTime + " ms) elapsed with " + buffer.size()
+                    + " queued events not flushed");
+                worker.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addError("Interrupted while waiting for the worker to flush", e);
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!isStarted()) {
+            return;
+        }
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        if (!buffer.offer(event) && !handleOverflow(event)) {
+            droppedEvents.increment();
+            return;
+        }
+        if (workerParked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    // Returns true once the event was published, false if the policy dropped it
+    private boolean handleOverflow(ILoggingEvent event) {
+        if (overflowPolicy != OverflowPolicy.BLOCK && event.getLevel().toInt() <= dropThreshold) {
+            if (overflowPolicy == OverflowPolicy.DROP_BY_LEVEL
+                    || sampleCounter.incrementAndGet() % sampleRate != 0) {
+                return false;
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            while (!buffer.offer(event)) {
+                if (!isStarted()) {
+                    return false;
+                }
+                LockSupport.unpark(worker);
+                waitStrategy.idle();
+            }
+            return true;
+        } finally {
+            blockedNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void drainLoop() {
+        while (isStarted()) {
+            if (buffer.drain(dispatcher, batchSize) == 0) {
+                idle();
+            }
+        }
+        // Flush what was published before stop()
+        while (!Thread.currentThread().isInterrupted()
+                && buffer.drain(dispatcher, batchSize) > 0) {
+            // keep draining
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    private void idle() {
+        if (waitStrategy != WaitStrategy.PARK) {
+            waitStrategy.idle();
+            return;
+        }
+        // Announce the park, then re-check so a concurrent publish is never missed
+        workerParked = true;
+        if (buffer.isEmpty() && isStarted()) {
+            LockSupport.parkNanos(this, 10_000_000L);
+        }
+        workerParked = false;
+    }
+
+    // Metrics
+
+    public int getQueueDepth() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    public int getQueueCapacity() {
+        return buffer == null ? 0 : buffer.capacity();
+    }
+
+    public long getDroppedCount() {
+        return droppedEvents.sum();
+    }
+
+    public long getBlockedNanos() {
+        return blockedNanos.sum();
+    }
+
+    // Configuration (set from logback XML)
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Highest level that DROP_BY_LEVEL / SAMPLE may discard (default INFO)
+     */
+    public void setDropThreshold(String level) {
+        this.dropThreshold = Level.toLevel(level, Level.INFO).toInt();
+    }
+
+    public String getDropThreshold() {
+        return Level.toLevel(dropThreshold).toString();
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    // AppenderAttachable
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        if (appenderCount == 0) {
+            appenderCount++;
+            addInfo("Attaching appender named [" + newAppender.getName() + "] to " + getName());
+            appenders.addAppender(newAppender);
+        } else {
+            addWarn("One and only one appender may be attached to " + getName()
+                + ", ignoring [" + newAppender.getName() + "]");
+        }
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,12 @@
+package io.thatworked.support.common.logging.appender;
+
+/**
+ * Marker for encoders whose output for one event refers to events encoded before it,
+ * for example through a per-file string dictionary.
+ * <p>
+ * Appenders must write such output in exactly the order it was encoded and must not let
+ * events encoded before a new file header land after it. {@link BatchingRollingFileAppender}
+ * does this by encoding under its batch lock.
+ */
+public interface SequentialEncoder {
+}
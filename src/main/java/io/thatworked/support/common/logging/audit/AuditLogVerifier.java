@@ -0,0 +1,160 @@
+package io.thatworked.support.common.logging.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Checks the hash chain of a {@link SecurityAuditLog} file.
+ * <p>
+ * Each batch's seal must carry the next batch number, the previous seal's hash, its record count
+ * and the SHA-256 of the previous hash followed by the batch's record lines. Any edited, inserted,
+ * removed or reordered record breaks the batch it is in. Records after the last seal (a crash before
+ * sealing) are reported as unsealed; the log seals them when it is next opened.
+ * <p>
+ * Usage: {@code AuditLogVerifier <file>}; exits with status 1 if the file fails verification.
+ */
+public final class AuditLogVerifier {
+
+    static final String SEAL_PREFIX = "{\"auditBatch\":";
+    static final int HASH_LENGTH = 32;
+
+    private static final byte[] SEAL_PREFIX_BYTES = SEAL_PREFIX.getBytes(StandardCharsets.US_ASCII);
+    private static final HexFormat HEX = HexFormat.of();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private AuditLogVerifier() {
+    }
+
+    /**
+     * Outcome of a verification
+     *
+     * @param intact          whether every seal matched
+     * @param batches         number of the last seal, 0 if there is none
+     * @param records         records in sealed batches
+     * @param unsealedRecords records after the last seal
+     * @param lastHash        hash recorded in the last seal, where the chain continues
+     * @param sealedLength    file offset just past the last seal
+     * @param problem         first mismatch found, null if intact
+     */
+    public record Result(boolean intact, long batches, long records, long unsealedRecords,
+                         byte[] lastHash, long sealedLength, String problem) {
+    }
+
+    public static Result verify(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new Result(true, 0, 0, 0, new byte[HASH_LENGTH], 0, null);
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            return verify(in);
+        }
+    }
+
+    public static Result verify(InputStream in) throws IOException {
+        MessageDigest digest = SecurityAuditLog.newDigest();
+        byte[] previous = new byte[HASH_LENGTH];
+        digest.update(previous);
+        String problem = null;
+        long batches = 0;
+        long records = 0;
+        long pending = 0;
+        long offset = 0;
+        long sealedLength = 0;
+        long lineNumber = 0;
+        ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+        while (readLine(in, line)) {
+            byte[] bytes = line.toByteArray();
+            offset += bytes.length;
+            lineNumber++;
+            if (!isSeal(bytes)) {
+                digest.update(bytes);
+                pending++;
+                continue;
+            }
+            byte[] computed = digest.digest();
+            byte[] claimed;
+            try {
+                JsonNode seal = MAPPER.readTree(bytes);
+                claimed = HEX.parseHex(seal.path("hash").asText());
+                String mismatch = checkSeal(seal, batches, pending, previous, claimed, computed);
+                if (mismatch != null && problem == null) {
+                    problem = "Line " + lineNumber + ": " + mismatch;
+                }
+                batches = seal.path("auditBatch").asLong();
+            } catch (IOException | IllegalArgumentException e) {
+                if (problem == null) {
+                    problem = "Line " + lineNumber + ": unreadable seal";
+                }
+                claimed = computed;
+                batches++;
+            }
+            records += pending;
+            pending = 0;
+            previous = claimed;
+            sealedLength = offset;
+            digest.update(previous);
+        }
+        return new Result(problem == null, batches, records, pending, previous, sealedLength, problem);
+    }
+
+    private static String checkSeal(JsonNode seal, long previousBatch, long records, byte[] previousHash,
+                                    byte[] claimed, byte[] computed) {
+        long batch = seal.path("auditBatch").asLong();
+        if (batch != previousBatch + 1) {
+            return "batch " + batch + " follows batch " + previousBatch;
+        }
+        if (seal.path("records").asLong() != records) {
+            return "batch " + batch + " claims " + seal.path("records").asLong() + " records but has " + records;
+        }
+        if (!Arrays.equals(HEX.parseHex(seal.path("prevHash").asText()), previousHash)) {
+            return "batch " + batch + " doesn't chain to the previous seal";
+        }
+        if (!Arrays.equals(claimed, computed)) {
+            return "batch " + batch + " records don't match its hash";
+        }
+        return null;
+    }
+
+    static boolean isSeal(byte[] line) {
+        return line.length >= SEAL_PREFIX_BYTES.length
+            && Arrays.equals(line, 0, SEAL_PREFIX_BYTES.length, SEAL_PREFIX_BYTES, 0, SEAL_PREFIX_BYTES.length);
+    }
+
+    // Reads one line including its '\n' (absent on a torn last line); false at end of input
+    private static boolean readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        int b;
+        while ((b = in.read()) != -1) {
+            line.write(b);
+            if (b == '\n') {
+                return true;
+            }
+        }
+        return line.size() > 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: AuditLogVerifier <file>");
+            System.exit(2);
+        }
+        Result result = verify(Path.of(args[0]));
+        System.out.printf("%d batches, %d records, %d unsealed%n",
+            result.batches(), result.records(), result.unsealedRecords());
+        if (!result.intact()) {
+            System.out.println("FAILED: " + result.problem());
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+}
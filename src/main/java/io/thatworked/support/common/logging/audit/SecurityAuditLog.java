@@ -0,0 +1,333 @@
+package io.thatworked.support.common.logging.audit;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import io.thatworked.support.common.logging.concurrent.MpscRingBuffer;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dedicated, tamper-evident channel for security audit events.
+ * <p>
+ * Records are single JSON lines. {@link #append} publishes to this log's own bounded ring buffer
+ * and never blocks; when the buffer is full it returns false and counts the rejection, so the
+ * caller can log the event elsewhere. One writer thread group-commits whatever has queued: it
+ * writes the records and a seal line, then forces the file once per batch. Each seal holds the
+ * SHA-256 of the previous seal's hash followed by the batch's records, chaining every batch to
+ * the ones before it; {@link AuditLogVerifier} checks the chain.
+ * <p>
+ * Reopening a file continues its chain. Records a crash left unsealed are sealed on open, in a
+ * batch marked {@code "recovered":true}.
+ * <p>
+ * Problems are reported as logback status messages, once per run of failed writes, rather than through
+ * the log itself.
+ */
+public class SecurityAuditLog extends ContextAwareBase implements Closeable {
+
+    public static final int DEFAULT_QUEUE_SIZE = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 512;
+    public static final int DEFAULT_MAX_FLUSH_TIME = 5000;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MpscRingBuffer<byte[]> queue;
+    private final int batchSize;
+    private final MessageDigest digest = newDigest();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder unsealed = new LongAdder();
+    private final Thread writer;
+
+    private volatile boolean closed;
+    private volatile boolean writerParked;
+
+    // Writer thread only, after construction
+    private byte[] chainHash;
+    private long batchNumber;
+    private long failedAttempts;
+
+    public SecurityAuditLog(Path file) throws IOException {
+        this(file, DEFAULT_QUEUE_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public SecurityAuditLog(Path file, int queueSize, int batchSize) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.file = file;
+        this.queue = new MpscRingBuffer<>(queueSize);
+        this.batchSize = batchSize;
+        if (LoggerFactory.getILoggerFactory() instanceof Context context) {
+            setContext(context);
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            resume();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.writer = new Thread(this::writeLoop, "security-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue one record, a JSON object on a single line; false if the queue is full or the log closed
+     */
+    public boolean append(byte[] record) {
+        if (AuditLogVerifier.isSeal(record)) {
+            throw new IllegalArgumentException("Record looks like a seal line");
+        }
+        for (byte b : record) {
+            if (b == '\n') {
+                throw new IllegalArgumentException("Record spans more than one line");
+            }
+        }
+        if (closed || !queue.offer(record)) {
+            rejected.increment();
+            return false;
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Write and seal everything queued, then stop the writer
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(DEFAULT_MAX_FLUSH_TIME);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Metrics
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.capacity();
+    }
+
+    /**
+     * Records refused because the queue was full or the log closed
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Batch writes that failed and are being retried
+     */
+    public long getWriteFailureCount() {
+        return writeFailures.sum();
+    }
+
+    /**
+     * Records still unwritten when the log closed because writes kept failing
+     */
+    public long getUnsealedCount() {
+        return unsealed.sum();
+    }
+
+    // Continue the existing chain, sealing records a crash left behind
+    private void resume() throws IOException {
+        AuditLogVerifier.Result existing = AuditLogVerifier.verify(file);
+        if (!existing.intact()) {
+            // Refusing to start would stop the service from auditing at all; the break stays detectable
+            addWarn("Audit log " + file + " fails verification (" + existing.problem()
+                + "); appending to its chain");
+        }
+        chainHash = existing.lastHash();
+        batchNumber = existing.batches();
+        long size = channel.size();
+        channel.position(size);
+        if (size == existing.sealedLength()) {
+            return;
+        }
+        ByteBuffer tail = ByteBuffer.allocate((int) (size - existing.sealedLength()));
+        while (tail.hasRemaining() && channel.read(tail, existing.sealedLength() + tail.position()) >= 0) {
+            // read fully
+        }
+        List<byte[]> records = new ArrayList<>();
+        int start = 0;
+        byte[] bytes = tail.array();
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                records.add(Arrays.copyOfRange(bytes, start, i));
+                start = i + 1;
+            }
+        }
+        if (start < bytes.length) {
+            // A torn last line: terminate it so it is hashed as the verifier will read it
+            writeFully(ByteBuffer.wrap(new byte[] {'\n'}));
+            records.add(Arrays.copyOfRange(bytes, start, bytes.length));
+        }
+        writeFully(ByteBuffer.wrap(seal(records, true)));
+        channel.force(false);
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>(batchSize);
+        while (true) {
+            queue.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                if (closed && queue.isEmpty()) {
+                    return;
+                }
+                idle();
+                continue;
+            }
+            while (!commit(batch)) {
+                if (closed) {
+                    long lost = batch.size() + queue.size();
+                    unsealed.add(lost);
+                    addError("Audit log " + file + " closed with " + lost + " records unwritten");
+                    return;
+                }
+                // The queue keeps filling and rejecting meanwhile; retrying keeps the chain intact
+                LockSupport.parkNanos(this, 1_000_000_000L);
+            }
+            batch.clear();
+        }
+    }
+
+    // Writes the batch and its seal in one go and forces it; on failure the file is cut back
+    private boolean commit(List<byte[]> batch) {
+        byte[] previousHash = chainHash;
+        long previousBatch = batchNumber;
+        long position = 0;
+        try {
+            position = channel.position();
+            byte[] seal = seal(batch, false);
+            int length = seal.length;
+            for (byte[] record : batch) {
+                length += record.length + 1;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            for (byte[] record : batch) {
+                buffer.put(record).put((byte) '\n');
+            }
+            buffer.put(seal).flip();
+            writeFully(buffer);
+            channel.force(false);
+            written.add(batch.size());
+            batches.increment();
+            if (failedAttempts > 0) {
+                addInfo("Audit log " + file + " written again after " + failedAttempts + " failed attempts");
+                failedAttempts = 0;
+            }
+            return true;
+        } catch (IOException e) {
+            writeFailures.increment();
+            // Retried every second until it succeeds; only the first failure of a run is reported
+            if (failedAttempts++ == 0) {
+                addError("Audit log write to " + file + " failed; retrying", e);
+            }
+            chainHash = previousHash;
+            batchNumber = previousBatch;
+            try {
+                channel.truncate(position);
+                channel.position(position);
+            } catch (IOException truncateFailure) {
+                if (failedAttempts == 1) {
+                    addError("Audit log " + file + " could not be cut back", truncateFailure);
+                }
+            }
+            return false;
+        }
+    }
+
+    // Seal line for the records, advancing the chain
+    private byte[] seal(List<byte[]> records, boolean recovered) {
+        digest.reset();
+        digest.update(chainHash);
+        for (byte[] record : records) {
+            digest.update(record);
+            digest.update((byte) '\n');
+        }
+        byte[] hash = digest.digest();
+        String seal = AuditLogVerifier.SEAL_PREFIX + (batchNumber + 1)
+            + ",\"records\":" + records.size()
+            + ",\"prevHash\":\"" + HEX.formatHex(chainHash)
+            + "\",\"hash\":\"" + HEX.formatHex(hash) + "\""
+            + (recovered ? ",\"recovered\":true" : "") + "}\n";
+        chainHash = hash;
+        batchNumber++;
+        return seal.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Overridden by tests to simulate a failing disk
+    void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void idle() {
+        // Announce the park, then re-check so a concurrent append is never missed
+        writerParked = true;
+        if (queue.isEmpty() && !closed) {
+            LockSupport.parkNanos(this, 10_000_000L);
+        }
+        writerParked = false;
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java runtime", e);
+        }
+    }
+}
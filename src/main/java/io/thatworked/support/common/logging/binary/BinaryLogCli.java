@@ -0,0 +1,64 @@
+package io.thatworked.support.common.logging.binary;
+
+import io.thatworked.support.common.logging.config.LoggingConfiguration;
+import io.thatworked.support.common.logging.encoder.StructuredLogEncoder;
+import io.thatworked.support.common.logging.model.LogContext;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Converts binary logs back into JSON lines in the {@link LogContext} shape.
+ * <p>
+ * Usage: {@code BinaryLogCli <input> [output]}. Inputs ending in {@code .gz} are decompressed;
+ * output goes to stdout when no file is given.
+ */
+public final class BinaryLogCli {
+
+    private BinaryLogCli() {
+    }
+
+    /**
+     * Decode every event from {@code in} and write it to {@code out} as one JSON line; returns the event count
+     */
+    public static long convert(InputStream in, Writer out) throws IOException {
+        StructuredLogEncoder jsonEncoder = LoggingConfiguration.getEncoder();
+        BinaryLogDecoder decoder = new BinaryLogDecoder(in, LoggingConfiguration.getObjectMapper());
+        long count = 0;
+        LogContext event;
+        while ((event = decoder.next()) != null) {
+            out.write(jsonEncoder.encode(event));
+            out.write('\n');
+            count++;
+        }
+        if (decoder.isTruncated()) {
+            System.err.println("Input ends with an incomplete record; it was skipped");
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: BinaryLogCli <input> [output]");
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]);
+        InputStream file = new BufferedInputStream(Files.newInputStream(input), 64 * 1024);
+        boolean compressed = input.getFileName().toString().endsWith(".gz");
+        try (InputStream in = compressed ? new GZIPInputStream(file, 64 * 1024) : file;
+             Writer out = args.length > 1
+                 ? Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)
+                 : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024)) {
+            long count = convert(in, out);
+            System.err.printf("Converted %d events%n", count);
+        }
+    }
+}
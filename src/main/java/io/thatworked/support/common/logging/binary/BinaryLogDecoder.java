@@ -0,0 +1,303 @@
+package io.thatworked.support.common.logging.binary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.thatworked.support.common.logging.model.LogContext;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.thatworked.support.common.logging.binary.BinaryLogFormat.*;
+
+/**
+ * Streaming decoder for binary logs written with {@link BinaryLogEncoder}.
+ * <p>
+ * Events are read one at a time with {@link #next()}. Headers met mid-stream (a file re-opened in
+ * append mode) reset the dictionary as they did when written. A record cut short by a crash ends
+ * the stream and is reported by {@link #isTruncated()}.
+ */
+public class BinaryLogDecoder implements Closeable {
+
+    private final InputStream in;
+    private final ObjectMapper objectMapper;
+    private final List<String> entries = new ArrayList<>();
+    private long lastEpochSecond;
+    private boolean headerSeen;
+    private boolean truncated;
+
+    // Cursor over the current record body
+    private byte[] body = new byte[512];
+    private int position;
+    private int limit;
+
+    public BinaryLogDecoder(InputStream in, ObjectMapper objectMapper) {
+        this.in = in;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Next event in the stream, or null at the end
+     */
+    public LogContext next() throws IOException {
+        while (true) {
+            int frame = in.read();
+            if (frame < 0) {
+                return null;
+            }
+            try {
+                if (frame == FRAME_HEADER) {
+                    readHeader();
+                } else if (frame == FRAME_RECORD) {
+                    if (!headerSeen) {
+                        throw new IOException("Binary log record before stream header");
+                    }
+                    readFrame();
+                    return readBody();
+                } else {
+                    throw new IOException("Unknown binary log frame type " + frame);
+                }
+            } catch (EOFException e) {
+                truncated = true;
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Whether the stream ended part way through a record
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        int magic = 0;
+        for (int i = 0; i < 4; i++) {
+            magic = (magic << 8) | readStreamByte();
+        }
+        int version = readStreamByte();
+        if (magic != MAGIC) {
+            throw new IOException("Not a binary log stream");
+        }
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary log version " + version);
+        }
+        entries.clear();
+        lastEpochSecond = 0;
+        headerSeen = true;
+    }
+
+    private void readFrame() throws IOException {
+        long length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = readStreamByte();
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            if (shift > 28) {
+                throw new IOException("Malformed record length");
+            }
+        }
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Record length " + length + " too large");
+        }
+        if (length > body.length) {
+            body = new byte[(int) Math.max(length, body.length * 2L)];
+        }
+        int read = in.readNBytes(body, 0, (int) length);
+        if (read < length) {
+            throw new EOFException();
+        }
+        position = 0;
+        limit = (int) length;
+    }
+
+    private int readStreamByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private LogContext readBody() throws IOException {
+        int flags = readByte();
+        LogContext.LogContextBuilder event = LogContext.builder();
+        if ((flags & HAS_TIMESTAMP) != 0) {
+            long epochSecond = lastEpochSecond + readZigzag();
+            event.timestamp(Instant.ofEpochSecond(epochSecond, readVarint()));
+            lastEpochSecond = epochSecond;
+        }
+        event.level(readString());
+        event.service(readString());
+        if ((flags & UUID_CORRELATION_ID) != 0) {
+            event.correlationId(new UUID(readLong(), readLong()).toString());
+        } else {
+            event.correlationId(readString());
+        }
+        event.message(readString());
+        if ((flags & HAS_CONTEXT) != 0) {
+            event.context(readMap());
+        }
+        if ((flags & HAS_ERROR) != 0) {
+            event.error(LogContext.ErrorInfo.builder()
+                .code(readString())
+                .type(readString())
+                .message(readString())
+                .stackTrace(readString())
+                .severity(readString())
+                .build());
+        }
+        if ((flags & HAS_PERFORMANCE) != 0) {
+            Object duration = readValue();
+            event.performance(LogContext.PerformanceInfo.builder()
+                .duration(duration == null ? null : ((Number) duration).longValue())
+                .operation(readString())
+                .metrics(asMap(readValue()))
+                .build());
+        }
+        if ((flags & HAS_SECURITY) != 0) {
+            event.security(LogContext.SecurityInfo.builder()
+                .event(readString())
+                .user(readString())
+                .resource(readString())
+                .action(readString())
+                .success((Boolean) readValue())
+                .build());
+        }
+        if (position != limit) {
+            throw new IOException("Record has " + (limit - position) + " unread bytes");
+        }
+        return event.build();
+    }
+
+    private Object readValue() throws IOException {
+        int tag = readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> readString();
+            case TRUE -> Boolean.TRUE;
+            case FALSE -> Boolean.FALSE;
+            case INT -> (int) readZigzag();
+            case LONG -> readZigzag();
+            case DOUBLE -> Double.longBitsToDouble(readLong());
+            case FLOAT -> Float.intBitsToFloat(readInt());
+            case MAP -> readMap();
+            case LIST -> {
+                int size = readSize();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue());
+                }
+                yield list;
+            }
+            case JSON -> objectMapper.readTree(readString());
+            default -> throw new IOException("Unknown value tag " + tag);
+        };
+    }
+
+    private Map<String, Object> readMap() throws IOException {
+        int size = readSize();
+        Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 4 / 3 + 1));
+        for (int i = 0; i < size; i++) {
+            String key = readString();
+            map.put(key, readValue());
+        }
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) throws IOException {
+        if (value == null || value instanceof Map) {
+            return (Map<String, Object>) value;
+        }
+        throw new IOException("Expected a map, found " + value.getClass().getSimpleName());
+    }
+
+    private String readString() throws IOException {
+        long header = readVarint();
+        if (header == 0) {
+            return null;
+        }
+        if ((header & 1) == 1) {
+            long id = header >>> 1;
+            if (id >= entries.size()) {
+                throw new IOException("Undefined dictionary entry " + id);
+            }
+            return entries.get((int) id);
+        }
+        boolean define = (header & 3) == 2;
+        long length = define ? header >>> 2 : (header >>> 2) - 1;
+        if (length > limit - position) {
+            throw new IOException("String length " + length + " exceeds record");
+        }
+        String value = new String(body, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        if (define) {
+            entries.add(value);
+        }
+        return value;
+    }
+
+    private int readSize() throws IOException {
+        long size = readVarint();
+        if (size > limit - position) {
+            throw new IOException("Collection size " + size + " exceeds record");
+        }
+        return (int) size;
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Record ended unexpectedly");
+        }
+        return body[position++] & 0xFF;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private long readZigzag() throws IOException {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    private long readLong() throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,291 @@
+package io.thatworked.support.common.logging.binary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.thatworked.support.common.logging.model.LazyValue;
+import io.thatworked.support.common.logging.model.LogContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.thatworked.support.common.logging.binary.BinaryLogFormat.*;
+
+/**
+ * Encodes {@link LogContext} events into the compact binary stream described in {@link BinaryLogFormat}.
+ * <p>
+ * The encoder carries the stream's string dictionary and timestamp base, so one instance belongs to
+ * one output stream: write {@link #header()} when the stream starts, then every record in the order
+ * it was encoded. Instances are not thread-safe.
+ */
+public class BinaryLogEncoder {
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> entries = new ArrayList<>();
+    private final ByteSink body = new ByteSink();
+    private final ByteSink frame = new ByteSink();
+    private long lastEpochSecond;
+
+    public BinaryLogEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Start a new stream: resets the dictionary and returns the header bytes to write first
+     */
+    public byte[] header() {
+        dictionary.clear();
+        entries.clear();
+        lastEpochSecond = 0;
+        frame.reset();
+        frame.write(FRAME_HEADER);
+        frame.writeInt(MAGIC);
+        frame.write(VERSION);
+        return frame.toByteArray();
+    }
+
+    /**
+     * Encode one event as a record frame
+     */
+    public byte[] encode(LogContext event) throws IOException {
+        int dictionaryMark = entries.size();
+        long epochSecondMark = lastEpochSecond;
+        try {
+            body.reset();
+            writeBody(event);
+            frame.reset();
+            frame.write(FRAME_RECORD);
+            frame.writeVarint(body.size());
+            frame.write(body);
+            return frame.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            // Nothing from this record is written, so forget what it added to the stream state
+            for (int i = entries.size() - 1; i >= dictionaryMark; i--) {
+                dictionary.remove(entries.remove(i));
+            }
+            lastEpochSecond = epochSecondMark;
+            throw e;
+        }
+    }
+
+    private void writeBody(LogContext event) throws IOException {
+        UUID correlationUuid = asUuid(event.getCorrelationId());
+        int flags = 0;
+        if (event.getTimestamp() != null) flags |= HAS_TIMESTAMP;
+        if (event.getContext() != null) flags |= HAS_CONTEXT;
+        if (event.getError() != null) flags |= HAS_ERROR;
+        if (event.getPerformance() != null) flags |= HAS_PERFORMANCE;
+        if (event.getSecurity() != null) flags |= HAS_SECURITY;
+        if (correlationUuid != null) flags |= UUID_CORRELATION_ID;
+        body.write(flags);
+
+        if (event.getTimestamp() != null) {
+            Instant timestamp = event.getTimestamp();
+            body.writeZigzag(timestamp.getEpochSecond() - lastEpochSecond);
+            body.writeVarint(timestamp.getNano());
+            lastEpochSecond = timestamp.getEpochSecond();
+        }
+        writeInterned(event.getLevel());
+        writeInterned(event.getService());
+        if (correlationUuid != null) {
+            body.writeLong(correlationUuid.getMostSignificantBits());
+            body.writeLong(correlationUuid.getLeastSignificantBits());
+        } else {
+            writeLiteral(event.getCorrelationId());
+        }
+        writeInterned(event.getMessage());
+        if (event.getContext() != null) {
+            writeMap(event.getContext());
+        }
+        if (event.getError() != null) {
+            LogContext.ErrorInfo error = event.getError();
+            writeInterned(error.getCode());
+            writeInterned(error.getType());
+            writeLiteral(error.getMessage());
+            writeLiteral(error.getStackTrace());
+            writeInterned(error.getSeverity());
+        }
+        if (event.getPerformance() != null) {
+            LogContext.PerformanceInfo performance = event.getPerformance();
+            writeValue(performance.getDuration());
+            writeInterned(performance.getOperation());
+            writeValue(performance.getMetrics());
+        }
+        if (event.getSecurity() != null) {
+            LogContext.SecurityInfo security = event.getSecurity();
+            writeInterned(security.getEvent());
+            writeInterned(security.getUser());
+            writeInterned(security.getResource());
+            writeInterned(security.getAction());
+            writeValue(security.getSuccess());
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            body.write(NULL);
+        } else if (value instanceof String s) {
+            body.write(STRING);
+            writeInterned(s);
+        } else if (value instanceof Boolean b) {
+            body.write(b ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            body.write(INT);
+            body.writeZigzag(((Number) value).intValue());
+        } else if (value instanceof Long l) {
+            body.write(LONG);
+            body.writeZigzag(l);
+        } else if (value instanceof Double d) {
+            body.write(DOUBLE);
+            body.writeLong(Double.doubleToRawLongBits(d));
+        } else if (value instanceof Float f) {
+            body.write(FLOAT);
+            body.writeInt(Float.floatToRawIntBits(f));
+        } else if (value instanceof LazyValue lazy) {
+            writeValue(lazy.get());
+        } else if (value instanceof Map<?, ?> map) {
+            body.write(MAP);
+            writeMap(map);
+        } else if (value instanceof Collection<?> collection) {
+            body.write(LIST);
+            body.writeVarint(collection.size());
+            for (Object element : collection) {
+                writeValue(element);
+            }
+        } else {
+            // Anything else is kept as the JSON the mapper would have produced
+            body.write(JSON);
+            writeLiteral(objectMapper.writeValueAsString(value));
+        }
+    }
+
+    private void writeMap(Map<?, ?> map) throws IOException {
+        body.writeVarint(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getKey() == null) {
+                throw new IOException("Null key for a Map not allowed in JSON");
+            }
+            writeInterned(entry.getKey().toString());
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeInterned(String value) {
+        if (value == null) {
+            body.writeVarint(0);
+            return;
+        }
+        Integer id = dictionary.get(value);
+        if (id != null) {
+            body.writeVarint(((long) id << 1) | 1);
+            return;
+        }
+        if (value.length() > MAX_INTERNED_LENGTH || entries.size() >= MAX_DICTIONARY_SIZE) {
+            writeLiteral(value);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        dictionary.put(value, entries.size());
+        entries.add(value);
+        body.writeVarint(((long) utf8.length << 2) | 2);
+        body.write(utf8, 0, utf8.length);
+    }
+
+    private void writeLiteral(String value) {
+        if (value == null) {
+            body.writeVarint(0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        body.writeVarint((long) (utf8.length + 1) << 2);
+        body.write(utf8, 0, utf8.length);
+    }
+
+    // Only canonical lowercase UUIDs are packed, so decoding gives back the identical string
+    private static UUID asUuid(String value) {
+        if (value == null || value.length() != 36 || value.charAt(8) != '-') {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Growable byte buffer with the varint and fixed-width writes the format needs
+     */
+    private static final class ByteSink {
+        private byte[] bytes = new byte[512];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void write(int b) {
+            ensureCapacity(size + 1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] source, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        void write(ByteSink other) {
+            write(other.bytes, 0, other.size);
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(size + 10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(size + 4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(size + 8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length << 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.thatworked.support.common.logging.binary;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.encoder.EncoderBase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.thatworked.support.common.logging.appender.SequentialEncoder;
+import io.thatworked.support.common.logging.config.LoggingConfiguration;
+import io.thatworked.support.common.logging.correlation.CorrelationIdConstants;
+import io.thatworked.support.common.logging.model.LogContext;
+import io.thatworked.support.common.logging.model.LogContextMarker;
+import org.slf4j.Marker;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Logback encoder that writes events in the binary log format.
+ * <p>
+ * Events logged by {@code StructuredLogger} in {@code JSON_MESSAGE} mode carry their {@link LogContext}
+ * in a {@link LogContextMarker} while this encoder runs; a structured message without one (redacted or
+ * limited events, other writers) is parsed back instead, and any other event is mapped from its level,
+ * message, MDC correlation ID and throwable. Every file starts with a header that resets the
+ * dictionary, so each rolled file decodes on its own. Use it with {@code BatchingRollingFileAppender},
+ * which keeps encoding and write order identical, or behind the async appender's single writer thread.
+ */
+public class BinaryLogEventEncoder extends EncoderBase<ILoggingEvent> implements SequentialEncoder {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final String STRUCTURED_MESSAGE_PREFIX = "{\"timestamp\"";
+    private static final int STACK_TRACE_DEPTH = 5;
+
+    private final ObjectMapper objectMapper = LoggingConfiguration.getObjectMapper();
+    private final BinaryLogEncoder encoder = new BinaryLogEncoder(objectMapper);
+
+    private String service;
+
+    @Override
+    public void start() {
+        if (!isStarted()) {
+            LogContextMarker.register();
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (isStarted()) {
+            LogContextMarker.unregister();
+        }
+        super.stop();
+    }
+
+    @Override
+    public synchronized byte[] headerBytes() {
+        return encoder.header();
+    }
+
+    @Override
+    public synchronized byte[] encode(ILoggingEvent event) {
+        try {
+            return encoder.encode(toLogContext(event));
+        } catch (IOException | RuntimeException e) {
+            addError("Failed to encode event in binary format", e);
+            return EMPTY;
+        }
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private LogContext toLogContext(ILoggingEvent event) {
+        List<Marker> markers = event.getMarkerList();
+        if (markers != null) {
+            for (Marker marker : markers) {
+                if (marker instanceof LogContextMarker attached) {
+                    return attached.getLogContext();
+                }
+            }
+        }
+        String message = event.getFormattedMessage();
+        if (message != null && message.startsWith(STRUCTURED_MESSAGE_PREFIX)) {
+            try {
+                return objectMapper.readValue(message, LogContext.class);
+            } catch (IOException e) {
+                // Looked like a structured event but wasn't; keep it as plain text
+            }
+        }
+        return LogContext.builder()
+            .timestamp(event.getInstant())
+            .level(event.getLevel().toString())
+            .service(service)
+            .correlationId(event.getMDCPropertyMap().get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY))
+            .message(message)
+            .error(toErrorInfo(event.getThrowableProxy()))
+            .build();
+    }
+
+    private static LogContext.ErrorInfo toErrorInfo(IThrowableProxy throwable) {
+        if (throwable == null) {
+            return null;
+        }
+        String className = throwable.getClassName();
+        StringBuilder stackTrace = new StringBuilder(className).append(": ").append(throwable.getMessage());
+        StackTraceElementProxy[] frames = throwable.getStackTraceElementProxyArray();
+        for (int i = 0; i < Math.min(STACK_TRACE_DEPTH, frames.length); i++) {
+            stackTrace.append("\n\tat ").append(frames[i].getStackTraceElement());
+        }
+        if (frames.length > STACK_TRACE_DEPTH) {
+            stackTrace.append("\n\t... ").append(frames.length - STACK_TRACE_DEPTH).append(" more");
+        }
+        return LogContext.ErrorInfo.builder()
+            .type(className.substring(className.lastIndexOf('.') + 1))
+            .message(throwable.getMessage())
+            .stackTrace(stackTrace.toString())
+            .severity("ERROR")
+            .build();
+    }
+
+    /**
+     * Service name for events that don't carry one, e.g. {@code ${spring.application.name}}
+     */
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public String getService() {
+        return service;
+    }
+}
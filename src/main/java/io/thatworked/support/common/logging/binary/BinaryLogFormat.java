@@ -0,0 +1,54 @@
+package io.thatworked.support.common.logging.binary;
+
+/**
+ * Layout of the binary log stream shared by {@link BinaryLogEncoder} and {@link BinaryLogDecoder}.
+ * <pre>
+ * stream  := (header | record)*
+ * header  := 0x00 magic:int32 version:byte                  resets dictionary and timestamp base
+ * record  := 0x01 length:varint body:byte[length]
+ * body    := flags:byte [seconds:zigzag nanos:varint] level service correlationId message
+ *            [context:map] [error] [performance] [security]
+ * string  := 0 (null) | id &lt;&lt; 1 | 1 (dictionary reference)
+ *          | len &lt;&lt; 2 | 2 utf8 (define next dictionary entry) | (len + 1) &lt;&lt; 2 utf8 (literal)
+ * value   := tag:byte payload
+ * </pre>
+ * Timestamps are stored as the zigzag difference in epoch seconds from the previous record.
+ * Low-cardinality strings (levels, services, keys, messages, short values) are written once per
+ * stream and referenced by id afterwards. All multi-byte integers are big-endian.
+ */
+final class BinaryLogFormat {
+
+    static final int MAGIC = 0x5457424C; // "TWBL"
+    static final int VERSION = 1;
+
+    static final int FRAME_HEADER = 0x00;
+    static final int FRAME_RECORD = 0x01;
+
+    // Record flags
+    static final int HAS_TIMESTAMP = 1;
+    static final int HAS_CONTEXT = 1 << 1;
+    static final int HAS_ERROR = 1 << 2;
+    static final int HAS_PERFORMANCE = 1 << 3;
+    static final int HAS_SECURITY = 1 << 4;
+    static final int UUID_CORRELATION_ID = 1 << 5;
+
+    // Value tags
+    static final int NULL = 0;
+    static final int STRING = 1;
+    static final int TRUE = 2;
+    static final int FALSE = 3;
+    static final int INT = 4;
+    static final int LONG = 5;
+    static final int DOUBLE = 6;
+    static final int FLOAT = 7;
+    static final int MAP = 8;
+    static final int LIST = 9;
+    static final int JSON = 10;
+
+    // Dictionary limits; anything beyond them is written literally
+    static final int MAX_DICTIONARY_SIZE = 16_384;
+    static final int MAX_INTERNED_LENGTH = 128;
+
+    private BinaryLogFormat() {
+    }
+}
@@ -0,0 +1,51 @@
+package io.thatworked.support.common.logging.concurrent;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single daemon thread shared by the library's periodic housekeeping: summaries, sweeps and flushes.
+ * <p>
+ * Tasks must be short and must not block; a task that throws is reported as a logback status error
+ * and keeps its schedule.
+ */
+public final class LoggingScheduler {
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "support-logging-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ContextAwareBase STATUS = new ContextAwareBase();
+
+    private LoggingScheduler() {
+    }
+
+    public static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+        long nanos = period.toNanos();
+        return EXECUTOR.scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                // Logging from here could feed back into the task; report and carry on
+                reportFailure(t);
+            }
+        }, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static void reportFailure(Throwable t) {
+        // Bound on the first failure rather than at class load, so scheduling never initializes logging
+        if (STATUS.getContext() == null && LoggerFactory.getILoggerFactory() instanceof Context context) {
+            STATUS.setContext(context);
+        }
+        STATUS.addError("Logging housekeeping task failed", t);
+    }
+}
@@ -0,0 +1,43 @@
+package io.thatworked.support.common.logging.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits for a ring buffer to become non-empty (consumer) or non-full (producer)
+ */
+public enum WaitStrategy {
+    
+    /**
+     * Busy-spin; lowest latency, burns a core while idle
+     */
+    SPIN {
+        @Override
+        public void idle() {
+            Thread.onSpinWait();
+        }
+    },
+    
+    /**
+     * Yield the CPU between checks
+     */
+    YIELD {
+        @Override
+        public void idle() {
+            Thread.yield();
+        }
+    },
+    
+    /**
+     * Park briefly between checks; consumers are also woken explicitly when work arrives
+     */
+    PARK {
+        @Override
+        public void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+    
+    static final long PARK_NANOS = 50_000L;
+    
+    public abstract void idle();
+}
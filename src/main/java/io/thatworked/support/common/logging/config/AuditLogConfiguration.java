@@ -0,0 +1,39 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.audit.SecurityAuditLog;
+import io.thatworked.support.common.logging.metrics.AuditLogMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Sends {@code StructuredLogger.security(...)} events to a dedicated {@link SecurityAuditLog}
+ * when {@code support.logging.audit.enabled} is true
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "support.logging.audit", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(AuditLogProperties.class)
+public class AuditLogConfiguration {
+    
+    @Bean(destroyMethod = "close")
+    public SecurityAuditLog securityAuditLog(AuditLogProperties properties) throws IOException {
+        return new SecurityAuditLog(Path.of(properties.getFile()), properties.getQueueSize(),
+            properties.getBatchSize());
+    }
+    
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    @ConditionalOnProperty(prefix = "support.logging.metrics", name = "enabled", matchIfMissing = true)
+    static class AuditLogMetricsConfiguration {
+        
+        @Bean
+        public AuditLogMetrics auditLogMetrics(SecurityAuditLog auditLog) {
+            return new AuditLogMetrics(auditLog);
+        }
+    }
+}
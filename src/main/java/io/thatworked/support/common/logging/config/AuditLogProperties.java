@@ -0,0 +1,23 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.audit.SecurityAuditLog;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Security audit log settings bound from {@code support.logging.audit.*}
+ */
+@Data
+@ConfigurationProperties(prefix = "support.logging.audit")
+public class AuditLogProperties {
+    
+    private boolean enabled;
+    
+    private String file = "logs/audit.log";
+    
+    /** Events that may wait for the writer; further events are rejected and logged normally */
+    private int queueSize = SecurityAuditLog.DEFAULT_QUEUE_SIZE;
+    
+    /** Most events written and forced to disk under one seal */
+    private int batchSize = SecurityAuditLog.DEFAULT_BATCH_SIZE;
+}
@@ -0,0 +1,34 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.error.ErrorIndex;
+import io.thatworked.support.common.logging.error.ErrorIndexEndpoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Counts every error logged through StructuredLogger in an {@link ErrorIndex}, exposed as the
+ * {@code errors} actuator endpoint when actuator is on the classpath
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "support.logging.error-index", name = "enabled", matchIfMissing = true)
+public class ErrorIndexConfiguration {
+    
+    @Bean
+    public ErrorIndex errorIndex(
+            @Value("${support.logging.error-index.max-entries:" + ErrorIndex.DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        return new ErrorIndex(maxEntries);
+    }
+    
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class ErrorIndexEndpointConfiguration {
+        
+        @Bean
+        public ErrorIndexEndpoint errorIndexEndpoint(ErrorIndex errorIndex) {
+            return new ErrorIndexEndpoint(errorIndex);
+        }
+    }
+}
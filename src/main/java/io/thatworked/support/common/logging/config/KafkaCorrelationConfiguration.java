@@ -0,0 +1,72 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.correlation.CorrelationIdBatchInterceptor;
+import io.thatworked.support.common.logging.correlation.CorrelationIdProducerInterceptor;
+import io.thatworked.support.common.logging.correlation.CorrelationIdRecordInterceptor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers the correlation ID interceptors with Spring Boot's Kafka producers and listener containers.
+ * Boot applies a single {@code RecordInterceptor}/{@code BatchInterceptor} bean to its container
+ * factory, so an application defining its own keeps it and can delegate to these.
+ */
+@Configuration
+@ConditionalOnClass(name = "org.springframework.kafka.listener.RecordInterceptor")
+@ConditionalOnProperty(prefix = "support.logging.kafka", name = "enabled", matchIfMissing = true)
+public class KafkaCorrelationConfiguration {
+    
+    @Bean
+    @ConditionalOnMissingBean(type = "org.springframework.kafka.listener.RecordInterceptor")
+    public CorrelationIdRecordInterceptor correlationIdRecordInterceptor() {
+        return new CorrelationIdRecordInterceptor();
+    }
+    
+    @Bean
+    @ConditionalOnMissingBean(type = "org.springframework.kafka.listener.BatchInterceptor")
+    public CorrelationIdBatchInterceptor correlationIdBatchInterceptor() {
+        return new CorrelationIdBatchInterceptor();
+    }
+    
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer correlationIdProducerFactoryCustomizer() {
+        return producerFactory -> producerFactory.updateConfigs(Map.of(
+            ProducerConfig.INTERCEPTOR_CLASSES_CONFIG,
+            withInterceptor(producerFactory.getConfigurationProperties().get(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG))));
+    }
+    
+    /**
+     * Append our interceptor to whatever {@code interceptor.classes} already holds
+     */
+    static List<Object> withInterceptor(Object configured) {
+        List<Object> interceptors = new ArrayList<>();
+        if (configured instanceof String names) {
+            Arrays.stream(names.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .forEach(interceptors::add);
+        } else if (configured instanceof Collection<?> values) {
+            interceptors.addAll(values);
+        } else if (configured != null) {
+            interceptors.add(configured);
+        }
+        boolean present = interceptors.stream().anyMatch(interceptor ->
+            interceptor == CorrelationIdProducerInterceptor.class
+                || CorrelationIdProducerInterceptor.class.getName().equals(interceptor));
+        if (!present) {
+            interceptors.add(CorrelationIdProducerInterceptor.class.getName());
+        }
+        return interceptors;
+    }
+}
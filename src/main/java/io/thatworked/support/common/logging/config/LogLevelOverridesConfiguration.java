@@ -0,0 +1,45 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.level.DebugOverrideTurboFilter;
+import io.thatworked.support.common.logging.level.LogLevelOverrides;
+import io.thatworked.support.common.logging.level.LogLevelOverridesEndpoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Runtime DEBUG overrides through {@link LogLevelOverrides}, applied by a logback turbo filter and
+ * managed through the {@code logoverrides} actuator endpoint when actuator is on the classpath
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "support.logging.level-overrides", name = "enabled", matchIfMissing = true)
+public class LogLevelOverridesConfiguration {
+
+    @Bean
+    public LogLevelOverrides logLevelOverrides(
+            @Value("${support.logging.level-overrides.default-ttl:10m}") Duration defaultTtl,
+            @Value("${support.logging.level-overrides.max-ttl:1h}") Duration maxTtl,
+            @Value("${support.logging.level-overrides.max-correlation-ids:"
+                + LogLevelOverrides.DEFAULT_MAX_CORRELATION_IDS + "}") int maxCorrelationIds) {
+        return new LogLevelOverrides(defaultTtl, maxTtl, maxCorrelationIds);
+    }
+
+    @Bean
+    public DebugOverrideTurboFilter debugOverrideTurboFilter(LogLevelOverrides logLevelOverrides) {
+        return DebugOverrideTurboFilter.install(logLevelOverrides);
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class LogLevelOverridesEndpointConfiguration {
+
+        @Bean
+        public LogLevelOverridesEndpoint logLevelOverridesEndpoint(LogLevelOverrides logLevelOverrides) {
+            return new LogLevelOverridesEndpoint(logLevelOverrides);
+        }
+    }
+}
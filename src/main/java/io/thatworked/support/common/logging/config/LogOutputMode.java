@@ -0,0 +1,19 @@
+package io.thatworked.support.common.logging.config;
+
+/**
+ * How structured fields are handed to the logging backend
+ */
+public enum LogOutputMode {
+    
+    /**
+     * The whole LogContext is serialized to a JSON string and logged as the message
+     */
+    JSON_MESSAGE,
+    
+    /**
+     * The message is logged as-is and context, error, performance and security are attached
+     * as logstash markers, so the LogstashEncoder writes them once as top-level fields.
+     * Service and correlation ID come from the encoder's customFields and MDC provider.
+     */
+    STRUCTURED_ARGUMENTS
+}
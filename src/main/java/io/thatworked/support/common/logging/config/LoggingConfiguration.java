@@ -3,27 +3,78 @@ package io.thatworked.support.common.logging.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import io.thatworked.support.common.logging.correlation.CorrelationIdFilter;
+import io.thatworked.support.common.logging.correlation.CorrelationContext;
+import io.thatworked.support.common.logging.correlation.CorrelationIdFormat;
+import io.thatworked.support.common.logging.correlation.CorrelationIdGenerator;
 import io.thatworked.support.common.logging.correlation.KafkaCorrelationIdInterceptor;
+import io.thatworked.support.common.logging.correlation.TimeOrderedIdGenerator;
+import io.thatworked.support.common.logging.encoder.SerializationLimits;
+import io.thatworked.support.common.logging.encoder.StructuredLogEncoder;
+import io.thatworked.support.common.logging.error.StackTraceCache;
 import io.thatworked.support.common.logging.factory.StructuredLoggerFactory;
+import io.thatworked.support.common.logging.redaction.Redactor;
 import lombok.Getter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Auto-configuration for standardized logging
  */
 @Configuration
 @ConditionalOnClass(name = "org.springframework.boot.autoconfigure.SpringBootApplication")
-@Import({CorrelationIdFilter.class, KafkaCorrelationIdInterceptor.class})
+@Import({WebCorrelationConfiguration.class, KafkaCorrelationIdInterceptor.class, KafkaCorrelationConfiguration.class,
+    LoggingMetricsConfiguration.class, AuditLogConfiguration.class, ErrorIndexConfiguration.class,
+    LogLevelOverridesConfiguration.class})
+@EnableConfigurationProperties({SamplingProperties.class, SerializationProperties.class, RedactionProperties.class})
 public class LoggingConfiguration {
     
     @Getter
     private static final ObjectMapper objectMapper = createObjectMapper();
     
+    @Getter
+    private static final StructuredLogEncoder encoder = new StructuredLogEncoder(objectMapper);
+    
+    private static final Map<EncoderSettings, StructuredLogEncoder> configuredEncoders = new ConcurrentHashMap<>();
+    
+    @Getter
+    private static final StackTraceCache stackTraceCache = new StackTraceCache();
+    
+    /**
+     * Shared encoder applying the given limits and redaction; with neither, the default encoder
+     */
+    public static StructuredLogEncoder getEncoder(SerializationLimits limits, Redactor redactor) {
+        if (limits == null && redactor == null) {
+            return encoder;
+        }
+        return configuredEncoders.computeIfAbsent(new EncoderSettings(limits, redactor),
+            settings -> new StructuredLogEncoder(objectMapper, settings.limits(), settings.redactor()));
+    }
+    
+    private record EncoderSettings(SerializationLimits limits, Redactor redactor) {
+    }
+    
+    @Autowired
+    public void configureCorrelation(@Value("${support.logging.correlation.mdc-bridge:true}") boolean mdcBridge,
+                                     @Value("${support.logging.correlation.id-format:UUID}") CorrelationIdFormat idFormat,
+                                     @Value("${support.logging.correlation.node-id:-1}") int nodeId,
+                                     ObjectProvider<CorrelationIdGenerator> idGenerator) {
+        CorrelationContext.setMdcBridge(mdcBridge);
+        // A CorrelationIdGenerator bean replaces the built-in generator
+        CorrelationContext.setIdGenerator(idGenerator.getIfAvailable(() -> nodeId < 0
+            ? new TimeOrderedIdGenerator(idFormat)
+            : new TimeOrderedIdGenerator(idFormat, nodeId)));
+    }
+    
     @Bean
     @ConditionalOnMissingBean
     public StructuredLoggerFactory structuredLoggerFactory() {
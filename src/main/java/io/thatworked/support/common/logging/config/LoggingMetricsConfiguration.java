@@ -0,0 +1,31 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.metrics.LogbackAppenderMetrics;
+import io.thatworked.support.common.logging.metrics.LoggingMetrics;
+import io.thatworked.support.common.logging.metrics.MicrometerLoggingMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reports logging's own cost through Micrometer when it is on the classpath. Both beans are
+ * {@code MeterBinder}s, bound by Spring Boot's metrics auto-configuration to the application's registry.
+ */
+@Configuration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+@ConditionalOnProperty(prefix = "support.logging.metrics", name = "enabled", matchIfMissing = true)
+public class LoggingMetricsConfiguration {
+    
+    @Bean
+    @ConditionalOnMissingBean(LoggingMetrics.class)
+    public MicrometerLoggingMetrics structuredLoggingMetrics() {
+        return new MicrometerLoggingMetrics();
+    }
+    
+    @Bean
+    public LogbackAppenderMetrics logbackAppenderMetrics() {
+        return new LogbackAppenderMetrics();
+    }
+}
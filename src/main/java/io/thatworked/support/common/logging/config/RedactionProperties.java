@@ -0,0 +1,35 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.redaction.Redactor;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redaction rules bound from {@code support.logging.redaction.*}
+ */
+@Data
+@ConfigurationProperties(prefix = "support.logging.redaction")
+public class RedactionProperties {
+    
+    private boolean enabled;
+    
+    /** Field name fragments, matched case-insensitively anywhere in the name */
+    private List<String> keys = new ArrayList<>(Redactor.DEFAULT_KEYS);
+    
+    /** Token prefixes looked for in string values; lower case ones match in any case, others exactly */
+    private List<String> tokenPrefixes = new ArrayList<>(Redactor.DEFAULT_TOKEN_PREFIXES);
+    
+    private boolean emails = true;
+    
+    private boolean cardNumbers = true;
+    
+    /**
+     * The configured redactor, or null when not {@code enabled}
+     */
+    public Redactor toRedactor() {
+        return enabled ? new Redactor(keys, tokenPrefixes, emails, cardNumbers) : null;
+    }
+}
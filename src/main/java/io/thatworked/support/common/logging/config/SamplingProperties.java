@@ -0,0 +1,50 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.sampling.SamplingPolicy;
+import io.thatworked.support.common.logging.sampling.SamplingRule;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limit and sampling rules bound from {@code support.logging.sampling.*}
+ */
+@Data
+@ConfigurationProperties(prefix = "support.logging.sampling")
+public class SamplingProperties {
+    
+    private Duration summaryInterval = SamplingPolicy.DEFAULT_SUMMARY_INTERVAL;
+    
+    /** Evaluated in order; the first matching rule decides */
+    private List<Rule> rules = new ArrayList<>();
+    
+    @Data
+    public static class Rule {
+        private String logger;
+        private String level;
+        private String errorCode;
+        private String message;
+        private double rate;
+        private Integer burst;
+        private double sample = 1.0;
+    }
+    
+    public SamplingPolicy toPolicy(String serviceName) {
+        List<SamplingRule> compiled = new ArrayList<>();
+        for (Rule rule : rules) {
+            compiled.add(SamplingRule.builder()
+                .logger(rule.getLogger())
+                .level(rule.getLevel())
+                .errorCode(rule.getErrorCode())
+                .message(rule.getMessage())
+                .ratePerSecond(rule.getRate())
+                .burst(rule.getBurst())
+                .sampleRate(rule.getSample())
+                .build());
+        }
+        return new SamplingPolicy(compiled, summaryInterval, serviceName);
+    }
+}
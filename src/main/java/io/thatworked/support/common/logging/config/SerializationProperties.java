@@ -0,0 +1,35 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.encoder.SerializationLimits;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Serialization limits bound from {@code support.logging.serialization.*}; sizes are in characters
+ */
+@Data
+@ConfigurationProperties(prefix = "support.logging.serialization")
+public class SerializationProperties {
+    
+    /** Off by default: context is written in full */
+    private boolean enabled;
+    
+    private int maxEventSize = SerializationLimits.DEFAULT_MAX_EVENT_SIZE;
+    
+    private int maxFieldSize = SerializationLimits.DEFAULT_MAX_FIELD_SIZE;
+    
+    private int maxStringLength = SerializationLimits.DEFAULT_MAX_STRING_LENGTH;
+    
+    private int maxDepth = SerializationLimits.DEFAULT_MAX_DEPTH;
+    
+    private int maxCollectionSize = SerializationLimits.DEFAULT_MAX_COLLECTION_SIZE;
+    
+    /**
+     * The configured limits, or null when not {@code enabled}
+     */
+    public SerializationLimits toLimits() {
+        return enabled
+            ? new SerializationLimits(maxEventSize, maxFieldSize, maxStringLength, maxDepth, maxCollectionSize)
+            : null;
+    }
+}
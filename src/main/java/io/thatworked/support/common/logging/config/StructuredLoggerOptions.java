@@ -0,0 +1,86 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.audit.SecurityAuditLog;
+import io.thatworked.support.common.logging.encoder.SerializationLimits;
+import io.thatworked.support.common.logging.error.ErrorIndex;
+import io.thatworked.support.common.logging.level.LogLevelOverrides;
+import io.thatworked.support.common.logging.metrics.LoggingMetrics;
+import io.thatworked.support.common.logging.redaction.Redactor;
+import io.thatworked.support.common.logging.sampling.SamplingPolicy;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Behavioural options shared by structured loggers
+ */
+@Getter
+@Builder(toBuilder = true)
+public class StructuredLoggerOptions {
+    
+    private static final StructuredLoggerOptions DEFAULTS = StructuredLoggerOptions.builder().build();
+    
+    @Builder.Default
+    private final LogOutputMode outputMode = LogOutputMode.JSON_MESSAGE;
+    
+    /**
+     * Window in which identical errors are merged into one summary event; zero disables merging
+     */
+    @Builder.Default
+    private final Duration errorRepeatWindow = Duration.ZERO;
+    
+    /**
+     * Interval at which performance measurements are reported as one summary per operation and tags
+     * instead of one event each; zero logs every measurement
+     */
+    @Builder.Default
+    private final Duration performanceAggregationInterval = Duration.ZERO;
+    
+    /**
+     * Metric keys whose values split an operation's measurements into separate summaries
+     */
+    @Builder.Default
+    private final List<String> performanceAggregationTags = List.of("status");
+    
+    /**
+     * Size, depth and collection limits for encoded events; null writes context in full
+     */
+    private final SerializationLimits serializationLimits;
+    
+    /**
+     * Secrets and personal data replaced while events are encoded; null writes fields as logged
+     */
+    private final Redactor redactor;
+    
+    /**
+     * Rate limits and sampling applied before events are built; null logs everything
+     */
+    private final SamplingPolicy sampling;
+    
+    /**
+     * Where the cost of logging is reported; encoding is only timed when this isn't the no-op
+     */
+    @Builder.Default
+    private final LoggingMetrics metrics = LoggingMetrics.NOOP;
+    
+    /**
+     * Dedicated log for security events; null sends them through the regular log
+     */
+    private final SecurityAuditLog auditLog;
+    
+    /**
+     * Index that every error is counted in, logged or not; null disables indexing
+     */
+    private final ErrorIndex errorIndex;
+    
+    /**
+     * Runtime DEBUG overrides, told about every error so error code overrides can trace its request
+     */
+    private final LogLevelOverrides levelOverrides;
+    
+    public static StructuredLoggerOptions defaults() {
+        return DEFAULTS;
+    }
+}
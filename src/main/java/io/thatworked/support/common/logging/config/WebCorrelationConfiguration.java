@@ -0,0 +1,56 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.correlation.CorrelationIdFilter;
+import io.thatworked.support.common.logging.correlation.CorrelationIdThreadLocalAccessor;
+import io.thatworked.support.common.logging.correlation.ReactiveCorrelationIdFilter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import reactor.core.publisher.Hooks;
+
+/**
+ * Registers the correlation ID filter for the application's web stack: the servlet filter for
+ * Spring MVC, or the {@code WebFilter} plus Reactor context propagation for WebFlux
+ */
+@Configuration
+public class WebCorrelationConfiguration {
+    
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @Import(CorrelationIdFilter.class)
+    static class ServletCorrelationConfiguration {
+    }
+    
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnClass(name = "org.springframework.web.server.WebFilter")
+    static class ReactiveCorrelationConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactiveCorrelationIdFilter reactiveCorrelationIdFilter() {
+            return new ReactiveCorrelationIdFilter();
+        }
+    }
+    
+    /**
+     * Restores the Reactor Context correlation ID on every operator's thread
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnClass(name = "io.micrometer.context.ContextRegistry")
+    @ConditionalOnProperty(prefix = "support.logging.reactive", name = "context-propagation", matchIfMissing = true)
+    static class ReactorContextPropagationConfiguration implements InitializingBean {
+        
+        @Override
+        public void afterPropertiesSet() {
+            CorrelationIdThreadLocalAccessor.register();
+            Hooks.enableAutomaticContextPropagation();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Correlation IDs of a consumed batch, extracted once up front.
+ * <p>
+ * IDs are held in an array parallel to the records; repeated IDs share one string through
+ * {@link CorrelationHeaderCache}, and records without one get a new ID. Processing binds each
+ * record's ID only while that record is handled and restores the previous binding afterwards,
+ * even when the action throws, so there is nothing to clear:
+ * <pre>{@code
+ * public void onEvents(List<ConsumerRecord<String, Event>> records) {
+ *     CorrelationBatch.of(records).forEach(record -> handle(record.value()));
+ * }
+ * }</pre>
+ */
+public final class CorrelationBatch<K, V> {
+
+    private final List<ConsumerRecord<K, V>> records;
+    private final String[] correlationIds;
+
+    private CorrelationBatch(List<ConsumerRecord<K, V>> records, String[] correlationIds) {
+        this.records = records;
+        this.correlationIds = correlationIds;
+    }
+
+    public static <K, V> CorrelationBatch<K, V> of(List<ConsumerRecord<K, V>> records) {
+        String[] correlationIds = new String[records.size()];
+        for (int i = 0; i < correlationIds.length; i++) {
+            correlationIds[i] = KafkaCorrelationIdInterceptor.correlationIdOf(records.get(i).headers());
+        }
+        return new CorrelationBatch<>(records, correlationIds);
+    }
+
+    public static <K, V> CorrelationBatch<K, V> of(ConsumerRecords<K, V> records) {
+        List<ConsumerRecord<K, V>> list = new ArrayList<>(records.count());
+        records.forEach(list::add);
+        return of(list);
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    public ConsumerRecord<K, V> record(int index) {
+        return records.get(index);
+    }
+
+    public String correlationId(int index) {
+        return correlationIds[index];
+    }
+
+    /**
+     * Process records in order on this thread, each with its own correlation ID bound
+     */
+    public void forEach(Consumer<? super ConsumerRecord<K, V>> action) {
+        try (CorrelationContext.Cursor cursor = CorrelationContext.cursor()) {
+            for (int i = 0; i < correlationIds.length; i++) {
+                cursor.switchTo(correlationIds[i]);
+                action.accept(records.get(i));
+            }
+        }
+    }
+
+    /**
+     * Process records on the common fork-join pool, each with its own correlation ID bound
+     */
+    public void parallelForEach(Consumer<? super ConsumerRecord<K, V>> action) {
+        IntStream.range(0, correlationIds.length).parallel().forEach(i ->
+            CorrelationContext.run(correlationIds[i], () -> action.accept(records.get(i))));
+    }
+
+    /**
+     * Split by partition, keeping record order within each, for per-partition parallel processing
+     */
+    public Map<TopicPartition, CorrelationBatch<K, V>> byPartition() {
+        Map<TopicPartition, List<ConsumerRecord<K, V>>> partitionRecords = new LinkedHashMap<>();
+        Map<TopicPartition, List<String>> partitionIds = new LinkedHashMap<>();
+        for (int i = 0; i < correlationIds.length; i++) {
+            ConsumerRecord<K, V> record = records.get(i);
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            partitionRecords.computeIfAbsent(partition, p -> new ArrayList<>()).add(record);
+            partitionIds.computeIfAbsent(partition, p -> new ArrayList<>()).add(correlationIds[i]);
+        }
+        Map<TopicPartition, CorrelationBatch<K, V>> partitions = new LinkedHashMap<>();
+        partitionRecords.forEach((partition, list) -> partitions.put(partition,
+            new CorrelationBatch<>(list, partitionIds.get(partition).toArray(new String[0]))));
+        return partitions;
+    }
+}
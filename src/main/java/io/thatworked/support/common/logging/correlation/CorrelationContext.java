@@ -0,0 +1,366 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.slf4j.MDC;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Correlation ID of the current unit of work, independent of the SLF4J MDC.
+ * <p>
+ * {@link #run} and {@link #call} bind the ID with a {@code ScopedValue} when the runtime supports
+ * one (so it is inherited by {@code StructuredTaskScope} forks and costs nothing to unbind), and with
+ * a {@link ThreadLocal} otherwise. {@link #open} covers code that cannot wrap its work in a lambda.
+ * The wrappers capture the ID where a task is submitted and restore it where it runs, for executors
+ * and {@code CompletableFuture} stages.
+ * <p>
+ * While the MDC bridge is on (the default), every binding is mirrored into the MDC so logback's
+ * MDC-based output keeps its {@code correlationId} field. IDs put straight into the MDC by older
+ * code are still seen by {@link #current()}.
+ */
+public final class CorrelationContext {
+
+    private static final ThreadLocal<String> LOCAL = new ThreadLocal<>();
+    private static final String NOT_BRIDGED = new String("not-bridged");
+    private static final String NOT_SWITCHED = new String("not-switched");
+
+    private static volatile boolean mdcBridge = true;
+    private static volatile CorrelationIdGenerator idGenerator = new TimeOrderedIdGenerator();
+
+    private CorrelationContext() {
+        // Utility class
+    }
+
+    /**
+     * Correlation ID of the current unit of work, or null if there is none
+     */
+    public static String current() {
+        String correlationId = LOCAL.get();
+        if (correlationId != null) {
+            return correlationId;
+        }
+        if (ScopedBinding.SUPPORTED) {
+            correlationId = ScopedBinding.get();
+            if (correlationId != null) {
+                return correlationId;
+            }
+        }
+        return MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+    }
+
+    /**
+     * Run a task with the given correlation ID bound
+     */
+    public static void run(String correlationId, Runnable task) {
+        String previousMdc = bridgeIn(correlationId);
+        String outer = LOCAL.get();
+        boolean scoped = ScopedBinding.SUPPORTED;
+        try {
+            if (scoped) {
+                // A thread-local binding would shadow the scoped one inside the task
+                if (outer != null) {
+                    LOCAL.set(null);
+                }
+                ScopedBinding.run(correlationId, task);
+            } else {
+                LOCAL.set(correlationId);
+                task.run();
+            }
+        } finally {
+            if (outer != null || !scoped) {
+                LOCAL.set(outer);
+            }
+            bridgeOut(previousMdc);
+        }
+    }
+
+    /**
+     * Call a task with the given correlation ID bound
+     */
+    public static <T> T call(String correlationId, Callable<T> task) throws Exception {
+        Object[] result = new Object[1];
+        Exception[] failure = new Exception[1];
+        run(correlationId, () -> {
+            try {
+                result[0] = task.call();
+            } catch (Exception e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    /**
+     * Bind the ID until the returned scope is closed, for code that can't use {@link #run}
+     */
+    public static Scope open(String correlationId) {
+        String outer = LOCAL.get();
+        String previousMdc = bridgeIn(correlationId);
+        LOCAL.set(correlationId);
+        return () -> {
+            LOCAL.set(outer);
+            bridgeOut(previousMdc);
+        };
+    }
+
+    /**
+     * Scope whose ID can be switched cheaply, for loops that process records with different IDs
+     */
+    public static Cursor cursor() {
+        return new Cursor(LOCAL.get(), mdcBridge ? MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY) : NOT_BRIDGED);
+    }
+
+    /**
+     * Bind the ID on this thread until {@link #clear()}, for callbacks split into before/after hooks
+     */
+    public static void set(String correlationId) {
+        LOCAL.set(correlationId);
+        if (mdcBridge) {
+            MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, correlationId);
+        }
+    }
+
+    public static void clear() {
+        LOCAL.remove();
+        if (mdcBridge) {
+            MDC.remove(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+        }
+    }
+
+    // Propagation wrappers: capture the current ID now, bind it when the task runs
+
+    public static Runnable wrap(Runnable task) {
+        String correlationId = current();
+        return correlationId == null ? task : () -> run(correlationId, task);
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        String correlationId = current();
+        return correlationId == null ? task : () -> call(correlationId, task);
+    }
+
+    public static <T> Supplier<T> wrapSupplier(Supplier<T> supplier) {
+        String correlationId = current();
+        if (correlationId == null) {
+            return supplier;
+        }
+        return () -> {
+            Object[] result = new Object[1];
+            run(correlationId, () -> result[0] = supplier.get());
+            @SuppressWarnings("unchecked")
+            T value = (T) result[0];
+            return value;
+        };
+    }
+
+    /**
+     * Executor that runs each task with the correlation ID current when it was submitted,
+     * e.g. {@code CompletableFuture.supplyAsync(supplier, CorrelationContext.wrap(executor))}
+     */
+    public static Executor wrap(Executor executor) {
+        return command -> executor.execute(wrap(command));
+    }
+
+    /**
+     * New correlation ID from the configured generator
+     */
+    public static String newId() {
+        return idGenerator.generate();
+    }
+
+    /**
+     * Replace the generator behind {@link #newId()}; defaults to {@link TimeOrderedIdGenerator}
+     */
+    public static void setIdGenerator(CorrelationIdGenerator generator) {
+        idGenerator = Objects.requireNonNull(generator, "generator");
+    }
+
+    public static CorrelationIdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    /**
+     * Whether bindings use {@code ScopedValue} rather than a thread local
+     */
+    public static boolean isScopedValueBacked() {
+        return ScopedBinding.SUPPORTED;
+    }
+
+    /**
+     * Mirror bindings into the SLF4J MDC so MDC-based log output keeps the correlation ID
+     */
+    public static void setMdcBridge(boolean enabled) {
+        mdcBridge = enabled;
+    }
+
+    public static boolean isMdcBridge() {
+        return mdcBridge;
+    }
+
+    private static String bridgeIn(String correlationId) {
+        if (!mdcBridge) {
+            return NOT_BRIDGED;
+        }
+        String previous = MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+        if (correlationId == null) {
+            MDC.remove(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+        } else {
+            MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, correlationId);
+        }
+        return previous;
+    }
+
+    private static void bridgeOut(String previous) {
+        if (previous == NOT_BRIDGED) {
+            return;
+        }
+        if (previous == null) {
+            MDC.remove(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+        } else {
+            MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, previous);
+        }
+    }
+
+    /**
+     * A correlation ID binding that must be closed on the thread that opened it
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * A binding switched in place by {@link #switchTo}; closing it restores what was bound before.
+     * Switching to the ID that is already bound does nothing, so runs of records with one ID cost
+     * a single comparison each.
+     */
+    public static final class Cursor implements Scope {
+        private final String outer;
+        private final String previousMdc;
+        private String current = NOT_SWITCHED;
+
+        private Cursor(String outer, String previousMdc) {
+            this.outer = outer;
+            this.previousMdc = previousMdc;
+        }
+
+        public void switchTo(String correlationId) {
+            if (current != NOT_SWITCHED && Objects.equals(correlationId, current)) {
+                return;
+            }
+            current = correlationId;
+            LOCAL.set(correlationId);
+            if (previousMdc != NOT_BRIDGED) {
+                if (correlationId == null) {
+                    MDC.remove(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+                } else {
+                    MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, correlationId);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            LOCAL.set(outer);
+            bridgeOut(previousMdc);
+        }
+    }
+
+    /**
+     * {@code java.lang.ScopedValue} accessed reflectively, so the library runs on runtimes where it is
+     * missing or still a preview feature that hasn't been enabled. The handles are static finals so
+     * the JIT can inline them.
+     */
+    private static final class ScopedBinding {
+        private static final Object SCOPED_VALUE;
+        private static final MethodHandle WHERE;
+        private static final MethodHandle RUN;
+        private static final MethodHandle OR_ELSE;
+        static final boolean SUPPORTED;
+
+        static {
+            Object scopedValue = null;
+            MethodHandle where = null;
+            MethodHandle run = null;
+            MethodHandle orElse = null;
+            try {
+                Class<?> type = Class.forName("java.lang.ScopedValue");
+                Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                scopedValue = lookup.findStatic(type, "newInstance", MethodType.methodType(type)).invoke();
+                where = lookup.findStatic(type, "where", MethodType.methodType(carrier, type, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+                run = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+                orElse = lookup.findVirtual(type, "orElse", MethodType.methodType(Object.class, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            } catch (Throwable t) {
+                scopedValue = null;
+            }
+            SCOPED_VALUE = scopedValue;
+            WHERE = where;
+            RUN = run;
+            OR_ELSE = orElse;
+            SUPPORTED = scopedValue != null && probe();
+        }
+
+        private ScopedBinding() {
+        }
+
+        /**
+         * Preview APIs may exist but refuse to run; only use them if a binding really works
+         */
+        private static boolean probe() {
+            try {
+                String[] seen = new String[1];
+                Object bound = (Object) WHERE.invokeExact(SCOPED_VALUE, (Object) "probe");
+                RUN.invokeExact(bound, (Runnable) () -> {
+                    try {
+                        seen[0] = (String) (Object) OR_ELSE.invokeExact(SCOPED_VALUE, (Object) null);
+                    } catch (Throwable t) {
+                        seen[0] = null;
+                    }
+                });
+                return "probe".equals(seen[0]);
+            } catch (Throwable t) {
+                return false;
+            }
+        }
+
+        static String get() {
+            try {
+                return (String) (Object) OR_ELSE.invokeExact(SCOPED_VALUE, (Object) null);
+            } catch (Throwable t) {
+                throw new IllegalStateException("ScopedValue lookup failed", t);
+            }
+        }
+
+        static void run(String correlationId, Runnable task) {
+            Object bound;
+            try {
+                bound = (Object) WHERE.invokeExact(SCOPED_VALUE, (Object) correlationId);
+            } catch (Throwable t) {
+                throw new IllegalStateException("ScopedValue binding failed", t);
+            }
+            try {
+                RUN.invokeExact(bound, task);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                // Runnable can't throw checked exceptions; anything else is the binding itself failing
+                throw new IllegalStateException("ScopedValue run failed", t);
+            }
+        }
+    }
+}
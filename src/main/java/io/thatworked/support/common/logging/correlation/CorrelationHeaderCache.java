@@ -0,0 +1,65 @@
+package io.thatworked.support.common.logging.correlation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Per-thread caches between correlation IDs and their UTF-8 header bytes.
+ * <p>
+ * Consecutive records mostly carry the same few IDs, so producers reuse the encoded bytes and
+ * consumers reuse the decoded string instead of allocating one per record. Each thread has a small
+ * direct-mapped table, so lookups take no locks. Encoded arrays are shared between records and
+ * must not be modified.
+ */
+public final class CorrelationHeaderCache {
+
+    private static final int SLOTS = 64;
+    private static final int MAX_CACHED_LENGTH = 256;
+    private static final ThreadLocal<Table> TABLES = ThreadLocal.withInitial(Table::new);
+
+    private CorrelationHeaderCache() {
+        // Utility class
+    }
+
+    public static byte[] encode(String correlationId) {
+        if (correlationId.length() > MAX_CACHED_LENGTH) {
+            return correlationId.getBytes(StandardCharsets.UTF_8);
+        }
+        Table table = TABLES.get();
+        int slot = slot(correlationId.hashCode());
+        if (correlationId.equals(table.encodedIds[slot])) {
+            return table.encoded[slot];
+        }
+        byte[] bytes = correlationId.getBytes(StandardCharsets.UTF_8);
+        table.encodedIds[slot] = correlationId;
+        table.encoded[slot] = bytes;
+        return bytes;
+    }
+
+    public static String decode(byte[] value) {
+        if (value.length > MAX_CACHED_LENGTH) {
+            return new String(value, StandardCharsets.UTF_8);
+        }
+        Table table = TABLES.get();
+        int slot = slot(Arrays.hashCode(value));
+        if (Arrays.equals(value, table.decodedValues[slot])) {
+            return table.decoded[slot];
+        }
+        String correlationId = new String(value, StandardCharsets.UTF_8);
+        // Copied: the caller's array may be reused once the record is done with
+        table.decodedValues[slot] = value.clone();
+        table.decoded[slot] = correlationId;
+        return correlationId;
+    }
+
+    private static int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & (SLOTS - 1);
+    }
+
+    private static final class Table {
+        final String[] encodedIds = new String[SLOTS];
+        final byte[][] encoded = new byte[SLOTS][];
+        final byte[][] decodedValues = new byte[SLOTS][];
+        final String[] decoded = new String[SLOTS];
+    }
+}
@@ -0,0 +1,55 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.springframework.kafka.listener.BatchInterceptor;
+
+import java.util.Objects;
+
+/**
+ * Correlation handling for batch listeners.
+ * <p>
+ * While the listener runs, the batch's correlation ID is bound if every record carries the same one
+ * (a new one if none do), and nothing is bound for mixed batches. Listeners that want each record's
+ * own ID process the batch through {@link CorrelationBatch}. Repeated IDs decode through
+ * {@link CorrelationHeaderCache}, so a poll of records from one upstream request allocates no strings.
+ */
+public class CorrelationIdBatchInterceptor implements BatchInterceptor<Object, Object> {
+    
+    @Override
+    public ConsumerRecords<Object, Object> intercept(ConsumerRecords<Object, Object> records,
+                                                     Consumer<Object, Object> consumer) {
+        String shared = null;
+        boolean first = true;
+        boolean mixed = false;
+        for (ConsumerRecord<Object, Object> record : records) {
+            String correlationId = KafkaCorrelationIdInterceptor.headerValue(record.headers());
+            if (first) {
+                shared = correlationId;
+                first = false;
+            } else if (!Objects.equals(shared, correlationId)) {
+                mixed = true;
+                break;
+            }
+        }
+        if (mixed) {
+            CorrelationContext.clear();
+        } else {
+            // No record carries an ID: the batch gets a new one, as a single record would
+            CorrelationContext.set(shared != null ? shared : CorrelationContext.newId());
+        }
+        return records;
+    }
+    
+    @Override
+    public void success(ConsumerRecords<Object, Object> records, Consumer<Object, Object> consumer) {
+        CorrelationContext.clear();
+    }
+    
+    @Override
+    public void failure(ConsumerRecords<Object, Object> records, Exception exception,
+                        Consumer<Object, Object> consumer) {
+        CorrelationContext.clear();
+    }
+}
@@ -6,6 +6,8 @@ package io.thatworked.support.common.logging.correlation;
 public class CorrelationIdConstants {
     public static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
     public static final String CORRELATION_ID_MDC_KEY = "correlationId";
+    /** Reactor Context key; matches the MDC key so context propagation maps one onto the other */
+    public static final String CORRELATION_ID_CONTEXT_KEY = CORRELATION_ID_MDC_KEY;
     
     private CorrelationIdConstants() {
         // Utility class
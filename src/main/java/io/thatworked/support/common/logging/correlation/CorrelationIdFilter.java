@@ -5,7 +5,6 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.MDC;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -22,9 +21,6 @@ import java.io.IOException;
 @Slf4j
 public class CorrelationIdFilter extends OncePerRequestFilter {
     
-    // TODO: Implement CorrelationIdService or replace with direct MDC operations
-    // private final CorrelationIdService correlationIdService;
-    
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                     HttpServletResponse response, 
@@ -32,20 +28,21 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
         
         String correlationId = extractCorrelationId(request);
         
+        // Add to response header
+        response.setHeader(CorrelationIdConstants.CORRELATION_ID_HEADER, correlationId);
+        
+        // Bound as a scoped value where supported, so StructuredTaskScope forks see it too;
+        // restored (and removed from MDC) when the request completes
         try {
-            // Add to MDC for logging
-            MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, correlationId);
-            
-            // Add to response header
-            response.setHeader(CorrelationIdConstants.CORRELATION_ID_HEADER, correlationId);
-            
-            log.debug("Processing request with correlation ID: {}", correlationId);
-            
-            filterChain.doFilter(request, response);
-            
-        } finally {
-            // Clean up MDC
-            MDC.remove(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+            CorrelationContext.call(correlationId, () -> {
+                log.debug("Processing request with correlation ID: {}", correlationId);
+                filterChain.doFilter(request, response);
+                return null;
+            });
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
         }
     }
     
@@ -55,7 +52,7 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
         
         if (!StringUtils.hasText(correlationId)) {
             // Generate new one if not present
-            correlationId = java.util.UUID.randomUUID().toString();
+            correlationId = CorrelationContext.newId();
             log.debug("Generated new correlation ID: {}", correlationId);
         } else {
             log.debug("Using existing correlation ID: {}", correlationId);
@@ -0,0 +1,18 @@
+package io.thatworked.support.common.logging.correlation;
+
+/**
+ * String format of generated correlation IDs
+ */
+public enum CorrelationIdFormat {
+    
+    /**
+     * Canonical 36-character UUID, e.g. {@code 0190b6c4-3a5e-7d21-8f04-6b1e2c9d7a30}
+     */
+    UUID,
+    
+    /**
+     * W3C Trace Context {@code traceparent} value, e.g.
+     * {@code 00-0190b6c43a5e7d218f046b1e2c9d7a30-5c1f0e9b2d7a4386-01}
+     */
+    TRACEPARENT
+}
@@ -0,0 +1,17 @@
+package io.thatworked.support.common.logging.correlation;
+
+import java.util.UUID;
+
+/**
+ * Source of new correlation IDs, used when a request or message arrives without one
+ */
+@FunctionalInterface
+public interface CorrelationIdGenerator {
+
+    /**
+     * Random (version 4) UUIDs from {@link UUID#randomUUID()}, the previous default
+     */
+    CorrelationIdGenerator RANDOM_UUID = () -> UUID.randomUUID().toString();
+
+    String generate();
+}
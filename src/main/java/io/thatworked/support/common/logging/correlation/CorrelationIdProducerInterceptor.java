@@ -0,0 +1,55 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Adds the current correlation ID header to every record a producer sends.
+ * <p>
+ * Registered through the producer's {@code interceptor.classes}; Kafka calls it on the sending
+ * thread, so the sender's {@link CorrelationContext} applies. Records that already carry the header
+ * (e.g. when forwarding) are left alone.
+ */
+public class CorrelationIdProducerInterceptor<K, V> implements ProducerInterceptor<K, V> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CorrelationIdProducerInterceptor.class);
+    
+    @Override
+    public ProducerRecord<K, V> onSend(ProducerRecord<K, V> record) {
+        try {
+            Headers headers = record.headers();
+            if (headers.lastHeader(CorrelationIdConstants.CORRELATION_ID_HEADER) == null) {
+                String correlationId = CorrelationContext.current();
+                if (correlationId == null) {
+                    correlationId = CorrelationContext.newId();
+                }
+                headers.add(CorrelationIdConstants.CORRELATION_ID_HEADER, CorrelationHeaderCache.encode(correlationId));
+            }
+        } catch (IllegalStateException e) {
+            // Read-only headers: the record was already sent once
+            logger.warn("Could not add correlation ID to Kafka record for topic {}: {}", record.topic(), e.toString());
+        }
+        return record;
+    }
+    
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+        // Nothing to do
+    }
+    
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+    
+    @Override
+    public void configure(Map<String, ?> configs) {
+        // No configuration
+    }
+}
@@ -0,0 +1,23 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * Binds the correlation ID of each consumed record while its listener runs
+ */
+public class CorrelationIdRecordInterceptor implements RecordInterceptor<Object, Object> {
+    
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record,
+                                                    Consumer<Object, Object> consumer) {
+        CorrelationContext.set(KafkaCorrelationIdInterceptor.correlationIdOf(record.headers()));
+        return record;
+    }
+    
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        CorrelationContext.clear();
+    }
+}
@@ -0,0 +1,45 @@
+package io.thatworked.support.common.logging.correlation;
+
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.context.ThreadLocalAccessor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maps the Reactor {@code Context} correlation ID onto {@link CorrelationContext} (and, through its
+ * bridge, the MDC) for context-propagation, so thread-bound logging sees the right ID on any
+ * scheduler thread.
+ */
+public class CorrelationIdThreadLocalAccessor implements ThreadLocalAccessor<String> {
+    
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+    
+    /**
+     * Register with the global {@link ContextRegistry}; later calls do nothing
+     */
+    public static void register() {
+        if (REGISTERED.compareAndSet(false, true)) {
+            ContextRegistry.getInstance().registerThreadLocalAccessor(new CorrelationIdThreadLocalAccessor());
+        }
+    }
+    
+    @Override
+    public Object key() {
+        return CorrelationIdConstants.CORRELATION_ID_CONTEXT_KEY;
+    }
+    
+    @Override
+    public String getValue() {
+        return CorrelationContext.current();
+    }
+    
+    @Override
+    public void setValue(String value) {
+        CorrelationContext.set(value);
+    }
+    
+    @Override
+    public void setValue() {
+        CorrelationContext.clear();
+    }
+}
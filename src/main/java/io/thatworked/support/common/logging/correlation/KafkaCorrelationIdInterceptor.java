@@ -3,16 +3,17 @@ package io.thatworked.support.common.logging.correlation;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
-import java.util.UUID;
-
 /**
- * Kafka interceptor to propagate correlation ID through events
+ * Kafka interceptor to propagate correlation ID through events.
+ * <p>
+ * These static helpers are for hand-written producers and consumers; {@link CorrelationIdProducerInterceptor},
+ * {@link CorrelationIdRecordInterceptor} and {@link CorrelationIdBatchInterceptor} apply the same handling
+ * automatically.
  */
 @Component
 public class KafkaCorrelationIdInterceptor {
@@ -23,7 +24,7 @@ public class KafkaCorrelationIdInterceptor {
      * Add correlation ID to outgoing Kafka messages
      */
     public static <K, V> ProducerRecord<K, V> addCorrelationId(ProducerRecord<K, V> record) {
-        String correlationId = MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+        String correlationId = CorrelationContext.current();
         
         if (correlationId == null) {
             correlationId = generateCorrelationId();
@@ -31,7 +32,7 @@ public class KafkaCorrelationIdInterceptor {
         
         record.headers().add(
             CorrelationIdConstants.CORRELATION_ID_HEADER,
-            correlationId.getBytes(StandardCharsets.UTF_8)
+            CorrelationHeaderCache.encode(correlationId)
         );
         
         return record;
@@ -39,34 +40,52 @@ public class KafkaCorrelationIdInterceptor {
     
     /**
      * Extract correlation ID from incoming Kafka messages
+     *
+     * @deprecated leaves the ID bound until {@link #clearCorrelationId()}; use {@link CorrelationBatch}
+     * or {@link CorrelationIdRecordInterceptor}, which restore the previous binding themselves
      */
+    @Deprecated
     public static void extractCorrelationId(ConsumerRecord<?, ?> record) {
-        try {
-            Header correlationIdHeader = record.headers().lastHeader(CorrelationIdConstants.CORRELATION_ID_HEADER);
-            
-            if (correlationIdHeader != null && correlationIdHeader.value() != null) {
-                String correlationId = new String(correlationIdHeader.value(), StandardCharsets.UTF_8);
-                MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, correlationId);
-            } else {
-                // Generate new one if not present
-                String correlationId = generateCorrelationId();
-                MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, correlationId);
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to extract correlation ID from Kafka message, generating new one", e);
-            String correlationId = generateCorrelationId();
-            MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, correlationId);
-        }
+        CorrelationContext.set(correlationIdOf(record.headers()));
     }
     
     /**
-     * Clean up MDC after processing
+     * Clean up the correlation context after processing
+     *
+     * @deprecated see {@link #extractCorrelationId(ConsumerRecord)}
      */
+    @Deprecated
     public static void clearCorrelationId() {
-        MDC.remove(CorrelationIdConstants.CORRELATION_ID_MDC_KEY);
+        CorrelationContext.clear();
+    }
+    
+    /**
+     * Correlation ID carried in the headers, or a new one if there is none
+     */
+    static String correlationIdOf(Headers headers) {
+        String correlationId = headerValue(headers);
+        // Generate new one if not present
+        return correlationId != null ? correlationId : generateCorrelationId();
+    }
+    
+    /**
+     * Correlation ID carried in the headers, or null
+     */
+    static String headerValue(Headers headers) {
+        try {
+            Header correlationIdHeader = headers.lastHeader(CorrelationIdConstants.CORRELATION_ID_HEADER);
+            
+            if (correlationIdHeader != null && correlationIdHeader.value() != null) {
+                return CorrelationHeaderCache.decode(correlationIdHeader.value());
+            }
+        } catch (RuntimeException e) {
+            // A stack trace per record would flood the log; the message says enough
+            logger.warn("Failed to extract correlation ID from Kafka message, generating new one: {}", e.toString());
+        }
+        return null;
     }
     
     private static String generateCorrelationId() {
-        return UUID.randomUUID().toString();
+        return CorrelationContext.newId();
     }
-}
\ No newline at end of file
+}
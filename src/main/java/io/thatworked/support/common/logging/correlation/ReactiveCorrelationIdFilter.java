@@ -0,0 +1,52 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link CorrelationIdFilter}.
+ * <p>
+ * The correlation ID is stored in the Reactor {@code Context} under
+ * {@link CorrelationIdConstants#CORRELATION_ID_CONTEXT_KEY} rather than in a thread local, so it
+ * survives scheduler hops. With automatic context propagation enabled, {@link CorrelationIdThreadLocalAccessor}
+ * restores it into {@link CorrelationContext} on whichever thread runs an operator.
+ */
+public class ReactiveCorrelationIdFilter implements WebFilter, Ordered {
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        // Don't filter actuator endpoints
+        if (request.getPath().value().startsWith("/actuator/")) {
+            return chain.filter(exchange);
+        }
+        
+        String correlationId = request.getHeaders().getFirst(CorrelationIdConstants.CORRELATION_ID_HEADER);
+        if (!StringUtils.hasText(correlationId)) {
+            correlationId = CorrelationContext.newId();
+        }
+        exchange.getResponse().getHeaders().set(CorrelationIdConstants.CORRELATION_ID_HEADER, correlationId);
+        
+        String boundId = correlationId;
+        return chain.filter(exchange)
+            .contextWrite(context -> context.put(CorrelationIdConstants.CORRELATION_ID_CONTEXT_KEY, boundId));
+    }
+    
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+    
+    /**
+     * Correlation ID of the subscribing request, for reactive code that needs the value itself
+     */
+    public static Mono<String> currentCorrelationId() {
+        return Mono.deferContextual(context ->
+            Mono.justOrEmpty(context.<String>getOrEmpty(CorrelationIdConstants.CORRELATION_ID_CONTEXT_KEY)));
+    }
+}
@@ -0,0 +1,104 @@
+package io.thatworked.support.common.logging.correlation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time-ordered correlation IDs in the UUIDv7 layout, generated without locks or blocking.
+ * <p>
+ * The top 48 bits are the Unix time in milliseconds, so IDs sort roughly by creation time. The rest
+ * holds a 16-bit node ID and 58 bits from {@link ThreadLocalRandom}; unlike {@link UUID#randomUUID()}
+ * there is no shared {@code SecureRandom} to contend on or to wait for entropy at startup. These IDs
+ * are unique, not unguessable, and must not be used as secrets.
+ */
+public final class TimeOrderedIdGenerator implements CorrelationIdGenerator {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC_4122 = 0x8000_0000_0000_0000L;
+    private static final int NODE_SHIFT = 46;
+    private static final long RANDOM_MASK = (1L << NODE_SHIFT) - 1;
+
+    private final CorrelationIdFormat format;
+    private final long nodeBits;
+
+    public TimeOrderedIdGenerator() {
+        this(CorrelationIdFormat.UUID);
+    }
+
+    public TimeOrderedIdGenerator(CorrelationIdFormat format) {
+        this(format, defaultNodeId());
+    }
+
+    /**
+     * @param nodeId 0-65535, distinct per instance to rule out collisions between instances
+     */
+    public TimeOrderedIdGenerator(CorrelationIdFormat format, int nodeId) {
+        if (nodeId < 0 || nodeId > 0xFFFF) {
+            throw new IllegalArgumentException("nodeId must be between 0 and 65535: " + nodeId);
+        }
+        this.format = Objects.requireNonNull(format, "format");
+        this.nodeBits = (long) nodeId << NODE_SHIFT;
+    }
+
+    @Override
+    public String generate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long bits = random.nextLong();
+        long msb = (System.currentTimeMillis() << 16) | VERSION_7 | (bits & 0xFFFL);
+        long lsb = VARIANT_RFC_4122 | nodeBits | ((bits >>> 12) & RANDOM_MASK);
+        if (format == CorrelationIdFormat.UUID) {
+            return new UUID(msb, lsb).toString();
+        }
+        long parentId = random.nextLong();
+        return traceparent(msb, lsb, parentId == 0 ? 1 : parentId);
+    }
+
+    public CorrelationIdFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * {@code 00-<trace-id>-<parent-id>-01}: version 00, sampled flag set
+     */
+    private static String traceparent(long traceHigh, long traceLow, long parentId) {
+        byte[] out = new byte[55];
+        out[0] = '0';
+        out[1] = '0';
+        out[2] = '-';
+        writeHex(out, 3, traceHigh);
+        writeHex(out, 19, traceLow);
+        out[35] = '-';
+        writeHex(out, 36, parentId);
+        out[52] = '-';
+        out[53] = '0';
+        out[54] = '1';
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeHex(byte[] out, int offset, long value) {
+        for (int i = 15; i >= 0; i--) {
+            out[offset + i] = HEX[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Node ID derived from the host name, process ID and start time; no entropy source is consulted
+     */
+    static int defaultNodeId() {
+        long seed = System.nanoTime();
+        seed = seed * 31 + ProcessHandle.current().pid();
+        seed = seed * 31 + Objects.hashCode(System.getenv("HOSTNAME"));
+        seed = seed * 31 + System.currentTimeMillis();
+        // MurmurHash3 finalizer, so every input bit affects the 16 kept
+        seed ^= seed >>> 33;
+        seed *= 0xff51afd7ed558ccdL;
+        seed ^= seed >>> 33;
+        seed *= 0xc4ceb9fe1a85ec53L;
+        seed ^= seed >>> 33;
+        return (int) (seed & 0xFFFF);
+    }
+}
@@ -0,0 +1,465 @@
+package io.thatworked.support.common.logging.encoder;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.function.IntSupplier;
+
+import static io.thatworked.support.common.logging.encoder.SerializationLimits.TRUNCATED;
+
+/**
+ * Generator that applies {@link SerializationLimits} to one context value at a time, as Jackson's
+ * serializers stream it.
+ * <p>
+ * Containers nested too deeply and elements past the collection limit are swallowed, leaving a
+ * {@value SerializationLimits#TRUNCATED} marker; long strings are cut. When the value's output passes
+ * its budget, the next write throws; {@link #abandon} then closes whatever the value left open, so the
+ * output stays valid JSON and nothing past the budget is ever produced. Serializers still walk swallowed
+ * content (which also catches cycles), so skipping is bounded by the field budget too.
+ */
+final class BoundedJsonGenerator extends JsonGeneratorDelegate {
+
+    private final SerializationLimits limits;
+    private final IntSupplier flushed;
+    private final boolean[] arrays;
+    private final int[] counts;
+    private final boolean[] overflowed;
+
+    private int eventLimit;
+    private int fieldLimit;
+    private int depth;
+    private int skipDepth;
+    private int skipped;
+    private boolean started;
+    private boolean pendingName;
+    private boolean exceeded;
+
+    BoundedJsonGenerator(JsonGenerator delegate, SerializationLimits limits, IntSupplier flushed) {
+        // Not delegating copy methods, so writeObject and writeTree serialize through this generator
+        super(delegate, false);
+        this.limits = limits;
+        this.flushed = flushed;
+        this.arrays = new boolean[limits.maxDepth() + 1];
+        this.counts = new int[limits.maxDepth() + 1];
+        this.overflowed = new boolean[limits.maxDepth() + 1];
+    }
+
+    /**
+     * Start an event whose output so far is {@code position} characters
+     */
+    void beginEvent(int position) {
+        eventLimit = position + limits.maxEventSize();
+    }
+
+    boolean eventFull() {
+        return position() >= eventLimit;
+    }
+
+    /**
+     * Start a context value; its field name has been written to the underlying generator
+     */
+    void beginValue() {
+        fieldLimit = (int) Math.min((long) position() + limits.maxFieldSize(), eventLimit);
+        depth = 0;
+        skipDepth = 0;
+        skipped = 0;
+        counts[0] = 0;
+        overflowed[0] = false;
+        started = false;
+        pendingName = false;
+        exceeded = false;
+    }
+
+    /**
+     * Close what a value that failed or ran over its budget left open, writing a marker where a value
+     * is missing
+     */
+    void abandon(Object value) throws IOException {
+        if (depth == 0 ? !started : pendingName) {
+            delegate.writeString(exceeded || value == null ? TRUNCATED
+                : "[unserializable: " + value.getClass().getName() + "]");
+        }
+        for (; depth > 0; depth--) {
+            if (arrays[depth]) {
+                delegate.writeEndArray();
+            } else {
+                delegate.writeEndObject();
+            }
+        }
+        skipDepth = 0;
+        pendingName = false;
+    }
+
+    private int position() {
+        return flushed.getAsInt() + delegate.getOutputBuffered();
+    }
+
+    private void checkBudget() {
+        if (position() > fieldLimit) {
+            exceeded = true;
+            throw new LimitExceededException();
+        }
+    }
+
+    // Whether a value (scalar or container start) is written or swallowed here
+    private boolean beforeValue() throws IOException {
+        if (skipDepth > 0 || overflowed[depth]) {
+            skip();
+            return false;
+        }
+        checkBudget();
+        if (depth > 0 && arrays[depth] && ++counts[depth] > limits.maxCollectionSize()) {
+            overflowed[depth] = true;
+            delegate.writeString(TRUNCATED);
+            return false;
+        }
+        started = true;
+        pendingName = false;
+        return true;
+    }
+
+    private void skip() {
+        if (++skipped > limits.maxFieldSize()) {
+            // Walking swallowed content costs as much as writing it; a cycle would never end
+            exceeded = true;
+            throw new LimitExceededException();
+        }
+    }
+
+    private boolean enter(boolean array) throws IOException {
+        if (!beforeValue()) {
+            skipDepth++;
+            return false;
+        }
+        if (depth == limits.maxDepth()) {
+            delegate.writeString(TRUNCATED);
+            skipDepth++;
+            return false;
+        }
+        depth++;
+        arrays[depth] = array;
+        counts[depth] = 0;
+        overflowed[depth] = false;
+        return true;
+    }
+
+    private boolean exit() {
+        if (skipDepth > 0) {
+            skipDepth--;
+            return false;
+        }
+        depth--;
+        return true;
+    }
+
+    // Containers
+
+    @Override
+    public void writeStartArray() throws IOException {
+        if (enter(true)) {
+            delegate.writeStartArray();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void writeStartArray(int size) throws IOException {
+        if (enter(true)) {
+            delegate.writeStartArray(size);
+        }
+    }
+
+    @Override
+    public void writeStartArray(Object forValue) throws IOException {
+        if (enter(true)) {
+            delegate.writeStartArray(forValue);
+        }
+    }
+
+    @Override
+    public void writeStartArray(Object forValue, int size) throws IOException {
+        if (enter(true)) {
+            delegate.writeStartArray(forValue, size);
+        }
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        if (exit()) {
+            delegate.writeEndArray();
+        }
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+        if (enter(false)) {
+            delegate.writeStartObject();
+        }
+    }
+
+    @Override
+    public void writeStartObject(Object forValue) throws IOException {
+        if (enter(false)) {
+            delegate.writeStartObject(forValue);
+        }
+    }
+
+    @Override
+    public void writeStartObject(Object forValue, int size) throws IOException {
+        if (enter(false)) {
+            delegate.writeStartObject(forValue, size);
+        }
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        if (exit()) {
+            delegate.writeEndObject();
+        }
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        if (skipDepth > 0 || overflowed[depth]) {
+            skip();
+            return;
+        }
+        checkBudget();
+        if (++counts[depth] > limits.maxCollectionSize()) {
+            overflowed[depth] = true;
+            delegate.writeFieldName(TRUNCATED);
+            delegate.writeBoolean(true);
+            return;
+        }
+        delegate.writeFieldName(name);
+        pendingName = true;
+    }
+
+    @Override
+    public void writeFieldName(SerializableString name) throws IOException {
+        writeFieldName(name.getValue());
+    }
+
+    @Override
+    public void writeFieldId(long id) throws IOException {
+        writeFieldName(Long.toString(id));
+    }
+
+    @Override
+    public void writeArray(int[] array, int offset, int length) throws IOException {
+        writeStartArray(array, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
+    @Override
+    public void writeArray(long[] array, int offset, int length) throws IOException {
+        writeStartArray(array, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
+    @Override
+    public void writeArray(double[] array, int offset, int length) throws IOException {
+        writeStartArray(array, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
+    @Override
+    public void writeArray(String[] array, int offset, int length) throws IOException {
+        writeStartArray(array, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            writeString(array[i]);
+        }
+        writeEndArray();
+    }
+
+    // Text, cut at the string limit or whatever is left of the field's budget
+
+    @Override
+    public void writeString(String text) throws IOException {
+        if (text == null) {
+            writeNull();
+        } else if (beforeValue()) {
+            int room = Math.min(limits.maxStringLength(), Math.max(0, fieldLimit - position()));
+            if (text.length() <= room) {
+                delegate.writeString(text);
+            } else {
+                delegate.writeString(text.substring(0, room) + "..." + TRUNCATED);
+            }
+        }
+    }
+
+    @Override
+    public void writeString(char[] text, int offset, int length) throws IOException {
+        writeString(new String(text, offset, length));
+    }
+
+    @Override
+    public void writeString(SerializableString text) throws IOException {
+        writeString(text.getValue());
+    }
+
+    @Override
+    public void writeString(Reader reader, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeString(reader, length);
+        }
+    }
+
+    @Override
+    public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeRawUTF8String(text, offset, length);
+        }
+    }
+
+    @Override
+    public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeUTF8String(text, offset, length);
+        }
+    }
+
+    @Override
+    public void writeRawValue(String text) throws IOException {
+        if (beforeValue()) {
+            delegate.writeRawValue(text);
+        }
+    }
+
+    @Override
+    public void writeRawValue(String text, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeRawValue(text, offset, length);
+        }
+    }
+
+    @Override
+    public void writeRawValue(char[] text, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeRawValue(text, offset, length);
+        }
+    }
+
+    @Override
+    public void writeBinary(Base64Variant variant, byte[] data, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeBinary(variant, data, offset, length);
+        }
+    }
+
+    @Override
+    public int writeBinary(Base64Variant variant, InputStream data, int length) throws IOException {
+        return beforeValue() ? delegate.writeBinary(variant, data, length) : 0;
+    }
+
+    // Scalars
+
+    @Override
+    public void writeNumber(short value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(int value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(long value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(BigInteger value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(double value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(float value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(BigDecimal value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(String encodedValue) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(encodedValue);
+        }
+    }
+
+    @Override
+    public void writeNumber(char[] encodedValue, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(encodedValue, offset, length);
+        }
+    }
+
+    @Override
+    public void writeBoolean(boolean state) throws IOException {
+        if (beforeValue()) {
+            delegate.writeBoolean(state);
+        }
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        if (beforeValue()) {
+            delegate.writeNull();
+        }
+    }
+
+    @Override
+    public void writeEmbeddedObject(Object object) throws IOException {
+        if (beforeValue()) {
+            delegate.writeEmbeddedObject(object);
+        }
+    }
+
+    /**
+     * Thrown to stop a serializer once its value is over budget; carries no stack trace
+     */
+    static final class LimitExceededException extends RuntimeException {
+        LimitExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.thatworked.support.common.logging.encoder;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Garbage-free ISO-8601 instant formatting, identical to {@link Instant#toString()}
+ * for years 0000-9999. The date/time prefix is cached per second.
+ */
+final class IsoInstantFormat {
+
+    private static final long MIN_SECOND = -62167219200L; // 0000-01-01T00:00:00Z
+    private static final long MAX_SECOND = 253402300799L; // 9999-12-31T23:59:59Z
+
+    final char[] chars = new char[30];
+    private long cachedSecond = Long.MIN_VALUE;
+
+    /**
+     * Format into {@link #chars}, returning the length or -1 if the instant is out of range
+     */
+    int format(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        if (seconds < MIN_SECOND || seconds > MAX_SECOND) {
+            return -1;
+        }
+        if (seconds != cachedSecond) {
+            formatDateTime(seconds);
+            cachedSecond = seconds;
+        }
+        int pos = 19;
+        int nano = instant.getNano();
+        if (nano != 0) {
+            chars[pos++] = '.';
+            if (nano % 1_000_000 == 0) {
+                pos = writeDigits(nano / 1_000_000, 3, pos);
+            } else if (nano % 1_000 == 0) {
+                pos = writeDigits(nano / 1_000, 6, pos);
+            } else {
+                pos = writeDigits(nano, 9, pos);
+            }
+        }
+        chars[pos++] = 'Z';
+        return pos;
+    }
+
+    private void formatDateTime(long seconds) {
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+        writeDigits(dateTime.getYear(), 4, 0);
+        chars[4] = '-';
+        writeDigits(dateTime.getMonthValue(), 2, 5);
+        chars[7] = '-';
+        writeDigits(dateTime.getDayOfMonth(), 2, 8);
+        chars[10] = 'T';
+        writeDigits(dateTime.getHour(), 2, 11);
+        chars[13] = ':';
+        writeDigits(dateTime.getMinute(), 2, 14);
+        chars[16] = ':';
+        writeDigits(dateTime.getSecond(), 2, 17);
+    }
+
+    private int writeDigits(int value, int digits, int pos) {
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+}
@@ -0,0 +1,353 @@
+package io.thatworked.support.common.logging.encoder;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import io.thatworked.support.common.logging.redaction.Redactor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static io.thatworked.support.common.logging.redaction.Redactor.REDACTED;
+
+/**
+ * Generator that applies a {@link Redactor} to context values as Jackson's serializers stream them:
+ * the value of a field with a sensitive name is replaced, whatever its type, and every string is
+ * scanned. Nested maps and objects are covered the same way as top-level fields.
+ */
+final class RedactingJsonGenerator extends JsonGeneratorDelegate {
+
+    private final Redactor redactor;
+
+    private int skipDepth;
+    private boolean redactNext;
+
+    RedactingJsonGenerator(JsonGenerator delegate, Redactor redactor) {
+        // Not delegating copy methods, so writeObject and writeTree serialize through this generator
+        super(delegate, false);
+        this.redactor = redactor;
+    }
+
+    /**
+     * Start a context value, forgetting whatever a failed previous value left behind
+     */
+    void beginValue() {
+        skipDepth = 0;
+        redactNext = false;
+    }
+
+    // Whether a value (scalar or container start) is written, or replaced or swallowed here
+    private boolean beforeValue() throws IOException {
+        if (skipDepth > 0) {
+            return false;
+        }
+        if (redactNext) {
+            redactNext = false;
+            delegate.writeString(REDACTED);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean enter() throws IOException {
+        if (!beforeValue()) {
+            skipDepth++;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean exit() {
+        if (skipDepth > 0) {
+            skipDepth--;
+            return false;
+        }
+        return true;
+    }
+
+    // Containers
+
+    @Override
+    public void writeStartArray() throws IOException {
+        if (enter()) {
+            delegate.writeStartArray();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void writeStartArray(int size) throws IOException {
+        if (enter()) {
+            delegate.writeStartArray(size);
+        }
+    }
+
+    @Override
+    public void writeStartArray(Object forValue) throws IOException {
+        if (enter()) {
+            delegate.writeStartArray(forValue);
+        }
+    }
+
+    @Override
+    public void writeStartArray(Object forValue, int size) throws IOException {
+        if (enter()) {
+            delegate.writeStartArray(forValue, size);
+        }
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        if (exit()) {
+            delegate.writeEndArray();
+        }
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+        if (enter()) {
+            delegate.writeStartObject();
+        }
+    }
+
+    @Override
+    public void writeStartObject(Object forValue) throws IOException {
+        if (enter()) {
+            delegate.writeStartObject(forValue);
+        }
+    }
+
+    @Override
+    public void writeStartObject(Object forValue, int size) throws IOException {
+        if (enter()) {
+            delegate.writeStartObject(forValue, size);
+        }
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        if (exit()) {
+            delegate.writeEndObject();
+        }
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        if (skipDepth > 0) {
+            return;
+        }
+        delegate.writeFieldName(name);
+        redactNext = redactor.isSensitiveKey(name);
+    }
+
+    @Override
+    public void writeFieldName(SerializableString name) throws IOException {
+        writeFieldName(name.getValue());
+    }
+
+    @Override
+    public void writeFieldId(long id) throws IOException {
+        writeFieldName(Long.toString(id));
+    }
+
+    @Override
+    public void writeArray(int[] array, int offset, int length) throws IOException {
+        writeStartArray(array, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
+    @Override
+    public void writeArray(long[] array, int offset, int length) throws IOException {
+        writeStartArray(array, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
+    @Override
+    public void writeArray(double[] array, int offset, int length) throws IOException {
+        writeStartArray(array, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
+    @Override
+    public void writeArray(String[] array, int offset, int length) throws IOException {
+        writeStartArray(array, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            writeString(array[i]);
+        }
+        writeEndArray();
+    }
+
+    // Text, scanned for secrets
+
+    @Override
+    public void writeString(String text) throws IOException {
+        if (text == null) {
+            writeNull();
+        } else if (beforeValue()) {
+            delegate.writeString(redactor.redact(text));
+        }
+    }
+
+    @Override
+    public void writeString(char[] text, int offset, int length) throws IOException {
+        writeString(new String(text, offset, length));
+    }
+
+    @Override
+    public void writeString(SerializableString text) throws IOException {
+        writeString(text.getValue());
+    }
+
+    @Override
+    public void writeString(Reader reader, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeString(reader, length);
+        }
+    }
+
+    @Override
+    public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeRawUTF8String(text, offset, length);
+        }
+    }
+
+    @Override
+    public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeUTF8String(text, offset, length);
+        }
+    }
+
+    @Override
+    public void writeRawValue(String text) throws IOException {
+        if (beforeValue()) {
+            delegate.writeRawValue(text);
+        }
+    }
+
+    @Override
+    public void writeRawValue(String text, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeRawValue(text, offset, length);
+        }
+    }
+
+    @Override
+    public void writeRawValue(char[] text, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeRawValue(text, offset, length);
+        }
+    }
+
+    @Override
+    public void writeBinary(Base64Variant variant, byte[] data, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeBinary(variant, data, offset, length);
+        }
+    }
+
+    @Override
+    public int writeBinary(Base64Variant variant, InputStream data, int length) throws IOException {
+        return beforeValue() ? delegate.writeBinary(variant, data, length) : 0;
+    }
+
+    // Scalars, replaced only under a sensitive name
+
+    @Override
+    public void writeNumber(short value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(int value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(long value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(BigInteger value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(double value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(float value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(BigDecimal value) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(String encodedValue) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(encodedValue);
+        }
+    }
+
+    @Override
+    public void writeNumber(char[] encodedValue, int offset, int length) throws IOException {
+        if (beforeValue()) {
+            delegate.writeNumber(encodedValue, offset, length);
+        }
+    }
+
+    @Override
+    public void writeBoolean(boolean state) throws IOException {
+        if (beforeValue()) {
+            delegate.writeBoolean(state);
+        }
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        if (beforeValue()) {
+            delegate.writeNull();
+        }
+    }
+
+    @Override
+    public void writeEmbeddedObject(Object object) throws IOException {
+        if (beforeValue()) {
+            delegate.writeEmbeddedObject(object);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.thatworked.support.common.logging.encoder;
+
+/**
+ * Bounds on how much of an event's context {@link StructuredLogEncoder} writes. Sizes are in
+ * characters of JSON output, checked against the encoder's buffer as it streams; that is bytes for
+ * ASCII and at most three bytes per character in UTF-8 otherwise.
+ *
+ * @param maxEventSize      output after which the remaining context and metrics fields are dropped
+ * @param maxFieldSize      output one context field may take before the rest of its value is cut
+ * @param maxStringLength   longest string value, including the message, written in full
+ * @param maxDepth          nesting of objects and arrays within a context value
+ * @param maxCollectionSize elements of an array, or fields of an object, within a context value
+ */
+public record SerializationLimits(int maxEventSize, int maxFieldSize, int maxStringLength,
+                                  int maxDepth, int maxCollectionSize) {
+
+    public static final int DEFAULT_MAX_EVENT_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_FIELD_SIZE = 16 * 1024;
+    public static final int DEFAULT_MAX_STRING_LENGTH = 8 * 1024;
+    public static final int DEFAULT_MAX_DEPTH = 8;
+    public static final int DEFAULT_MAX_COLLECTION_SIZE = 100;
+
+    /**
+     * Written in place of whatever a limit cut off
+     */
+    public static final String TRUNCATED = "[truncated]";
+
+    public SerializationLimits {
+        if (maxEventSize < 1 || maxFieldSize < 1 || maxStringLength < 0 || maxDepth < 0 || maxCollectionSize < 0) {
+            throw new IllegalArgumentException("Serialization limits must not be negative, sizes at least 1");
+        }
+    }
+
+    public static SerializationLimits defaults() {
+        return new SerializationLimits(DEFAULT_MAX_EVENT_SIZE, DEFAULT_MAX_FIELD_SIZE, DEFAULT_MAX_STRING_LENGTH,
+            DEFAULT_MAX_DEPTH, DEFAULT_MAX_COLLECTION_SIZE);
+    }
+}
@@ -0,0 +1,540 @@
+package io.thatworked.support.common.logging.encoder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.thatworked.support.common.logging.model.LazyValue;
+import io.thatworked.support.common.logging.model.LogContext;
+import io.thatworked.support.common.logging.model.LogFields;
+import io.thatworked.support.common.logging.redaction.Redactor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Streaming JSON encoder for structured log events.
+ * <p>
+ * Produces exactly the document {@code ObjectMapper.writeValueAsString(LogContext)} would,
+ * but writes the fields straight through a reused {@link JsonGenerator} into a reused buffer,
+ * so no {@link LogContext}, serializer lookup or intermediate writer is created per event.
+ * Generators are confined to their platform thread; virtual threads borrow them from a small pool.
+ * <p>
+ * With {@link SerializationLimits}, the message and each context and metrics value are written
+ * through a {@link BoundedJsonGenerator}: oversized values are cut as they stream, so they are never
+ * fully serialized, and a value that fails to serialize (a cycle, a throwing getter) is replaced by a
+ * marker instead of failing the event.
+ * <p>
+ * With a {@link Redactor}, sensitive fields and findings in strings are replaced while the event is
+ * written, through a {@link RedactingJsonGenerator}, so no second pass over the JSON is needed.
+ * Context and metrics values, the message, the error's message and stack trace and the security
+ * event's user are covered.
+ */
+public class StructuredLogEncoder {
+
+    private static final int MAX_RETAINED_CHARS = 64 * 1024;
+    private static final int MAX_POOLED_STATES = 64;
+
+    private final ObjectMapper objectMapper;
+    private final SerializationLimits limits;
+    private final Redactor redactor;
+    private final ThreadLocal<EncoderState> threadState;
+    private final ArrayBlockingQueue<EncoderState> virtualThreadPool = new ArrayBlockingQueue<>(MAX_POOLED_STATES);
+
+    public StructuredLogEncoder(ObjectMapper objectMapper) {
+        this(objectMapper, null, null);
+    }
+
+    public StructuredLogEncoder(ObjectMapper objectMapper, SerializationLimits limits) {
+        this(objectMapper, limits, null);
+    }
+
+    /**
+     * Encoder applying the given limits and redaction; null for either writes everything as is
+     */
+    public StructuredLogEncoder(ObjectMapper objectMapper, SerializationLimits limits, Redactor redactor) {
+        this.objectMapper = objectMapper;
+        this.limits = limits;
+        this.redactor = redactor;
+        this.threadState = ThreadLocal.withInitial(EncoderState::new);
+    }
+
+    public SerializationLimits getLimits() {
+        return limits;
+    }
+
+    public Redactor getRedactor() {
+        return redactor;
+    }
+
+    /**
+     * Encode an existing log context
+     */
+    public String encode(LogContext logContext) throws IOException {
+        return encode(logContext.getTimestamp(), logContext.getLevel(), logContext.getService(),
+            logContext.getCorrelationId(), logContext.getMessage(), logContext.getContext(),
+            logContext.getError(), logContext.getPerformance(), logContext.getSecurity());
+    }
+
+    /**
+     * Encode a log event from its individual fields
+     */
+    public String encode(Instant timestamp, String level, String service, String correlationId,
+                         String message, Map<String, Object> context, LogContext.ErrorInfo error,
+                         LogContext.PerformanceInfo performance, LogContext.SecurityInfo security) throws IOException {
+        EncoderState state = acquire();
+        boolean completed = false;
+        try {
+            JsonGenerator gen = state.generator;
+            BoundedJsonGenerator bounded = state.bounded;
+            if (bounded != null) {
+                bounded.beginEvent(0);
+            }
+            gen.writeStartObject();
+            gen.writeFieldName("timestamp");
+            writeTimestamp(gen, state, timestamp);
+            gen.writeStringField("level", level);
+            gen.writeStringField("service", service);
+            gen.writeStringField("correlationId", correlationId);
+            gen.writeFieldName("message");
+            if (bounded == null) {
+                gen.writeString(redact(message));
+            } else {
+                bounded.beginValue();
+                bounded.writeString(redact(message));
+            }
+            gen.writeFieldName("context");
+            writeMap(gen, state, context);
+            gen.writeFieldName("error");
+            writeError(gen, error);
+            gen.writeFieldName("performance");
+            writePerformance(gen, state, performance);
+            gen.writeFieldName("security");
+            writeSecurity(gen, security);
+            gen.writeEndObject();
+            gen.flush();
+            String json = state.buffer.toString();
+            completed = true;
+            return json;
+        } finally {
+            release(state, completed);
+        }
+    }
+
+    /**
+     * An event's context, error, performance and security as separate JSON values, limited and redacted
+     * as {@link #encode} would, for output that serializes fields elsewhere (logstash markers); null fields
+     * stay null
+     */
+    public EncodedFields encodeFields(Map<String, Object> context, LogContext.ErrorInfo error,
+                                      LogContext.PerformanceInfo performance,
+                                      LogContext.SecurityInfo security) throws IOException {
+        EncoderState state = acquire();
+        boolean completed = false;
+        try {
+            JsonGenerator gen = state.generator;
+            if (state.bounded != null) {
+                state.bounded.beginEvent(0);
+            }
+            // Root values are written back to back; each is cut out of the buffer after it is flushed
+            String contextJson = null;
+            if (context != null) {
+                int start = state.buffer.length();
+                writeMap(gen, state, context);
+                contextJson = since(gen, state, start);
+            }
+            String errorJson = null;
+            if (error != null) {
+                int start = state.buffer.length();
+                writeError(gen, error);
+                errorJson = since(gen, state, start);
+            }
+            String performanceJson = null;
+            if (performance != null) {
+                int start = state.buffer.length();
+                writePerformance(gen, state, performance);
+                performanceJson = since(gen, state, start);
+            }
+            String securityJson = null;
+            if (security != null) {
+                int start = state.buffer.length();
+                writeSecurity(gen, security);
+                securityJson = since(gen, state, start);
+            }
+            completed = true;
+            return new EncodedFields(contextJson, errorJson, performanceJson, securityJson);
+        } finally {
+            release(state, completed);
+        }
+    }
+
+    /**
+     * The message as {@link #encode} writes it, for output that writes it elsewhere
+     */
+    public String encodeMessage(String message) {
+        String redacted = redact(message);
+        if (limits == null || redacted == null || redacted.length() <= limits.maxStringLength()) {
+            return redacted;
+        }
+        return redacted.substring(0, limits.maxStringLength()) + "..." + SerializationLimits.TRUNCATED;
+    }
+
+    /**
+     * JSON values of an event's fields; each null if the field is
+     */
+    public record EncodedFields(String context, String error, String performance, String security) {
+    }
+
+    private static String since(JsonGenerator gen, EncoderState state, int start) throws IOException {
+        gen.flush();
+        return state.buffer.substring(start);
+    }
+
+    private void writeTimestamp(JsonGenerator gen, EncoderState state, Instant timestamp) throws IOException {
+        if (timestamp == null) {
+            gen.writeNull();
+            return;
+        }
+        int length = state.timestampFormat.format(timestamp);
+        if (length < 0) {
+            // Outside the four digit year range, defer to the configured serializer
+            objectMapper.writeValue(gen, timestamp);
+        } else {
+            gen.writeString(state.timestampFormat.chars, 0, length);
+        }
+    }
+
+    private void writeError(JsonGenerator gen, LogContext.ErrorInfo error) throws IOException {
+        if (error == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeStringField("code", error.getCode());
+        gen.writeStringField("type", error.getType());
+        gen.writeStringField("message", redact(error.getMessage()));
+        gen.writeStringField("stackTrace", redact(error.getStackTrace()));
+        gen.writeStringField("severity", error.getSeverity());
+        gen.writeEndObject();
+    }
+
+    private void writePerformance(JsonGenerator gen, EncoderState state,
+                                  LogContext.PerformanceInfo performance) throws IOException {
+        if (performance == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeFieldName("duration");
+        if (performance.getDuration() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(performance.getDuration());
+        }
+        gen.writeStringField("operation", performance.getOperation());
+        gen.writeFieldName("metrics");
+        writeMap(gen, state, performance.getMetrics());
+        gen.writeEndObject();
+    }
+
+    private void writeSecurity(JsonGenerator gen, LogContext.SecurityInfo security) throws IOException {
+        if (security == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeStringField("event", security.getEvent());
+        gen.writeStringField("user", redact(security.getUser()));
+        gen.writeStringField("resource", security.getResource());
+        gen.writeStringField("action", security.getAction());
+        gen.writeFieldName("success");
+        if (security.getSuccess() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeBoolean(security.getSuccess());
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeMap(JsonGenerator gen, EncoderState state, Map<?, ?> map) throws IOException {
+        if (map == null) {
+            gen.writeNull();
+            return;
+        }
+        if (state.values != gen) {
+            writeFilteredMap(gen, state, map);
+            return;
+        }
+        if (map instanceof LogFields fields) {
+            writeFields(gen, fields);
+            return;
+        }
+        gen.writeStartObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object key = entry.getKey();
+            if (key == null) {
+                throw new IOException("Null key for a Map not allowed in JSON");
+            }
+            gen.writeFieldName(key.toString());
+            writeValue(gen, entry.getValue());
+        }
+        gen.writeEndObject();
+    }
+
+    // Typed fields are written by their stored type, without boxing or type checks
+    private void writeFields(JsonGenerator gen, LogFields fields) throws IOException {
+        gen.writeStartObject();
+        for (int i = 0, size = fields.size(); i < size; i++) {
+            gen.writeFieldName(fields.key(i));
+            writeField(gen, fields, i);
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeField(JsonGenerator gen, LogFields fields, int index) throws IOException {
+        switch (fields.type(index)) {
+            case LogFields.LONG -> gen.writeNumber(fields.longAt(index));
+            case LogFields.DOUBLE -> gen.writeNumber(fields.doubleAt(index));
+            case LogFields.BOOLEAN -> gen.writeBoolean(fields.booleanAt(index));
+            case LogFields.STRING -> writeText(gen, (CharSequence) fields.referenceAt(index));
+            default -> writeValue(gen, fields.referenceAt(index));
+        }
+    }
+
+    // Each value is redacted and written within its budget; once the event is full the remaining fields are dropped
+    private void writeFilteredMap(JsonGenerator gen, EncoderState state, Map<?, ?> map) throws IOException {
+        BoundedJsonGenerator bounded = state.bounded;
+        gen.writeStartObject();
+        if (map instanceof LogFields fields) {
+            for (int i = 0, size = fields.size(); i < size && hasRoom(gen, bounded); i++) {
+                if (writeKey(gen, state, fields.key(i))) {
+                    try {
+                        writeField(state.values, fields, i);
+                    } catch (IOException | RuntimeException e) {
+                        if (bounded == null) {
+                            throw e;
+                        }
+                        bounded.abandon(fields.referenceAt(i));
+                    }
+                }
+            }
+        } else {
+            Iterator<? extends Map.Entry<?, ?>> entries = map.entrySet().iterator();
+            while (entries.hasNext() && hasRoom(gen, bounded)) {
+                Map.Entry<?, ?> entry = entries.next();
+                if (entry.getKey() == null) {
+                    throw new IOException("Null key for a Map not allowed in JSON");
+                }
+                if (writeKey(gen, state, entry.getKey().toString())) {
+                    try {
+                        writeValue(state.values, entry.getValue());
+                    } catch (IOException | RuntimeException e) {
+                        if (bounded == null) {
+                            throw e;
+                        }
+                        bounded.abandon(entry.getValue());
+                    }
+                }
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    // Writes the field name; false if the value has been redacted by it and must not be written
+    private boolean writeKey(JsonGenerator gen, EncoderState state, String key) throws IOException {
+        gen.writeFieldName(key);
+        if (redactor != null && redactor.isSensitiveKey(key)) {
+            gen.writeString(Redactor.REDACTED);
+            return false;
+        }
+        if (state.bounded != null) {
+            state.bounded.beginValue();
+        }
+        if (state.redacting != null) {
+            state.redacting.beginValue();
+        }
+        return true;
+    }
+
+    private static boolean hasRoom(JsonGenerator gen, BoundedJsonGenerator bounded) throws IOException {
+        if (bounded == null || !bounded.eventFull()) {
+            return true;
+        }
+        gen.writeFieldName(SerializationLimits.TRUNCATED);
+        gen.writeBoolean(true);
+        return false;
+    }
+
+    private String redact(String text) {
+        return redactor == null ? text : redactor.redact(text);
+    }
+
+    private static void writeText(JsonGenerator gen, CharSequence text) throws IOException {
+        if (text instanceof String s) {
+            gen.writeString(s);
+        } else {
+            gen.writeString(text.toString());
+        }
+    }
+
+    private void writeValue(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof String s) {
+            gen.writeString(s);
+        } else if (value instanceof Integer i) {
+            gen.writeNumber(i);
+        } else if (value instanceof Long l) {
+            gen.writeNumber(l);
+        } else if (value instanceof Boolean b) {
+            gen.writeBoolean(b);
+        } else if (value instanceof Double d) {
+            gen.writeNumber(d);
+        } else if (value instanceof LazyValue lazy) {
+            writeValue(gen, lazy.get());
+        } else {
+            // Anything else goes through the mapper so its serializers and settings still apply
+            objectMapper.writeValue(gen, value);
+        }
+    }
+
+    private EncoderState acquire() throws IOException {
+        EncoderState state;
+        if (Thread.currentThread().isVirtual()) {
+            state = virtualThreadPool.poll();
+            if (state == null) {
+                state = new EncoderState();
+            }
+        } else {
+            state = threadState.get();
+            if (state.inUse) {
+                // Re-entrant call (e.g. a context value that logs from toString)
+                state = new EncoderState();
+            }
+        }
+        state.begin(objectMapper, limits, redactor);
+        return state;
+    }
+
+    private void release(EncoderState state, boolean completed) {
+        state.inUse = false;
+        if (!completed) {
+            // The generator may be left inside an unfinished object
+            state.discardGenerator();
+        }
+        if (state.buffer.capacity() > MAX_RETAINED_CHARS) {
+            // Don't let one oversized event pin a large buffer to the thread
+            state.buffer.shrink();
+        }
+        if (Thread.currentThread().isVirtual()) {
+            virtualThreadPool.offer(state);
+        }
+    }
+
+    /**
+     * Per-thread generator, output buffer and timestamp scratch space
+     */
+    private static final class EncoderState {
+        private final ReusableCharBuffer buffer = new ReusableCharBuffer();
+        private final IsoInstantFormat timestampFormat = new IsoInstantFormat();
+        private JsonGenerator generator;
+        private BoundedJsonGenerator bounded;
+        private RedactingJsonGenerator redacting;
+        // Context values go through redaction, then limits, then the generator
+        private JsonGenerator values;
+        private boolean inUse;
+
+        void begin(ObjectMapper objectMapper, SerializationLimits limits, Redactor redactor) throws IOException {
+            inUse = true;
+            buffer.reset();
+            if (generator == null) {
+                generator = objectMapper.getFactory().createGenerator(buffer);
+                generator.setRootValueSeparator(null);
+                bounded = limits == null ? null : new BoundedJsonGenerator(generator, limits, buffer::length);
+                values = bounded == null ? generator : bounded;
+                redacting = redactor == null ? null : new RedactingJsonGenerator(values, redactor);
+                values = redacting == null ? values : redacting;
+            }
+        }
+
+        void discardGenerator() {
+            generator = null;
+            bounded = null;
+            redacting = null;
+            values = null;
+        }
+    }
+
+    /**
+     * Unsynchronized writer over a reusable character array
+     */
+    private static final class ReusableCharBuffer extends Writer {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private char[] chars = new char[INITIAL_CAPACITY];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        int capacity() {
+            return chars.length;
+        }
+
+        int length() {
+            return length;
+        }
+
+        void shrink() {
+            chars = new char[INITIAL_CAPACITY];
+            length = 0;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            ensureCapacity(length + len);
+            System.arraycopy(cbuf, off, chars, length, len);
+            length += len;
+        }
+
+        @Override
+        public void write(int c) {
+            ensureCapacity(length + 1);
+            chars[length++] = (char) c;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            ensureCapacity(length + len);
+            str.getChars(off, off + len, chars, length);
+            length += len;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(required, chars.length << 1));
+            }
+        }
+
+        String substring(int start) {
+            return new String(chars, start, length - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.thatworked.support.common.logging.error;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory index of logged errors by error code and exception fingerprint, for answering
+ * "what is failing most right now" without searching logs.
+ * <p>
+ * The fingerprint hashes the exception type and its top stack frames, or the message when there is
+ * no exception, so one bug thrown from one place is one entry however its message varies. Each entry
+ * keeps a total, first and last occurrence, the most recent correlation ID and per-10-second counts
+ * for the last {@link #MAX_WINDOW}, so {@link #top} sums at most 90 slots per entry. Recording is a
+ * map lookup and a CAS. Beyond {@code maxEntries} fingerprints, new ones of any code are counted
+ * under one {@value #OVERFLOW_FINGERPRINT} entry with no code, so the index never grows past that.
+ */
+public class ErrorIndex {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final Duration MAX_WINDOW = Duration.ofMinutes(15);
+    public static final String OVERFLOW_FINGERPRINT = "other";
+
+    private static final int FINGERPRINT_FRAMES = 5;
+    private static final long SLOT_MILLIS = 10_000;
+    private static final int SLOTS = (int) (MAX_WINDOW.toMillis() / SLOT_MILLIS);
+    // A slot packs its 10-second epoch above a 24-bit count
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Key OVERFLOW = new Key(null, OVERFLOW_FINGERPRINT);
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public ErrorIndex() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public ErrorIndex(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Count one logged error; the code and correlation ID may be null
+     */
+    public void record(String code, String message, Throwable throwable, String correlationId) {
+        record(code, message, throwable, correlationId, System.currentTimeMillis());
+    }
+
+    void record(String code, String message, Throwable throwable, String correlationId, long now) {
+        Key key = new Key(code, fingerprint(message, throwable));
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= maxEntries) {
+                // Mixes unrelated errors, so it keeps no type or message
+                entry = entries.computeIfAbsent(OVERFLOW, k -> new Entry(null, null, now));
+            } else {
+                String type = throwable == null ? null : throwable.getClass().getName();
+                entry = entries.computeIfAbsent(key, k -> new Entry(type, message, now));
+            }
+        }
+        entry.record(correlationId, now);
+    }
+
+    /**
+     * The most frequent errors within a window (capped at {@link #MAX_WINDOW}), most frequent first
+     */
+    public List<ErrorStats> top(int limit, Duration window) {
+        return top(limit, window, System.currentTimeMillis());
+    }
+
+    List<ErrorStats> top(int limit, Duration window, long now) {
+        long newestEpoch = now / SLOT_MILLIS;
+        long slots = Math.max(1, Math.min(SLOTS, (window.toMillis() + SLOT_MILLIS - 1) / SLOT_MILLIS));
+        long oldestEpoch = newestEpoch - slots + 1;
+        List<ErrorStats> matches = new ArrayList<>();
+        entries.forEach((key, entry) -> {
+            long count = entry.countSince(oldestEpoch, newestEpoch);
+            if (count > 0) {
+                matches.add(entry.stats(key, count));
+            }
+        });
+        matches.sort(Comparator.comparingLong(ErrorStats::count).reversed()
+            .thenComparing(ErrorStats::lastSeen, Comparator.reverseOrder()));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Hash of the exception type and top frames, or of the message when there is no exception
+     */
+    public static String fingerprint(String message, Throwable throwable) {
+        long hash;
+        if (throwable == null) {
+            hash = message == null ? 0 : message.hashCode();
+        } else {
+            hash = throwable.getClass().getName().hashCode();
+            StackTraceElement[] stackTrace = throwable.getStackTrace();
+            for (int i = 0; i < Math.min(FINGERPRINT_FRAMES, stackTrace.length); i++) {
+                StackTraceElement frame = stackTrace[i];
+                hash = 31 * hash + frame.getClassName().hashCode();
+                hash = 31 * hash + frame.getMethodName().hashCode();
+                hash = 31 * hash + frame.getLineNumber();
+            }
+        }
+        // Spread the 32-bit string hashes over all 64 bits
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return HEX.toHexDigits(hash);
+    }
+
+    /**
+     * One error's occurrences; {@code count} is within the queried window
+     */
+    public record ErrorStats(String code, String fingerprint, String exceptionType, String message,
+                             long count, long totalCount, Instant firstSeen, Instant lastSeen,
+                             String sampleCorrelationId) {
+    }
+
+    private record Key(String code, String fingerprint) {
+    }
+
+    private static final class Entry {
+        private final String exceptionType;
+        private final String message;
+        private final long firstSeen;
+        private final LongAdder total = new LongAdder();
+        private final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+        private volatile long lastSeen;
+        private volatile String sampleCorrelationId;
+
+        Entry(String exceptionType, String message, long firstSeen) {
+            this.exceptionType = exceptionType;
+            this.message = message;
+            this.firstSeen = firstSeen;
+        }
+
+        void record(String correlationId, long now) {
+            total.increment();
+            lastSeen = now;
+            if (correlationId != null) {
+                sampleCorrelationId = correlationId;
+            }
+            long epoch = now / SLOT_MILLIS;
+            int index = (int) (epoch % SLOTS);
+            long current;
+            long next;
+            do {
+                current = slots.get(index);
+                long count = current >>> COUNT_BITS == epoch ? current & COUNT_MASK : 0;
+                next = epoch << COUNT_BITS | Math.min(count + 1, COUNT_MASK);
+            } while (!slots.compareAndSet(index, current, next));
+        }
+
+        long countSince(long oldestEpoch, long newestEpoch) {
+            long count = 0;
+            for (int i = 0; i < SLOTS; i++) {
+                long slot = slots.get(i);
+                long epoch = slot >>> COUNT_BITS;
+                if (epoch >= oldestEpoch && epoch <= newestEpoch) {
+                    count += slot & COUNT_MASK;
+                }
+            }
+            return count;
+        }
+
+        ErrorStats stats(Key key, long count) {
+            return new ErrorStats(key.code(), key.fingerprint(), exceptionType, message, count, total.sum(),
+                Instant.ofEpochMilli(firstSeen), Instant.ofEpochMilli(lastSeen), sampleCorrelationId);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.thatworked.support.common.logging.error;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Actuator endpoint {@code /actuator/errors?limit=10&window=5m} listing the most frequent errors
+ */
+@Endpoint(id = "errors")
+public class ErrorIndexEndpoint {
+
+    static final int DEFAULT_LIMIT = 10;
+    static final Duration DEFAULT_WINDOW = Duration.ofMinutes(5);
+
+    private final ErrorIndex errorIndex;
+
+    public ErrorIndexEndpoint(ErrorIndex errorIndex) {
+        this.errorIndex = errorIndex;
+    }
+
+    @ReadOperation
+    public List<ErrorIndex.ErrorStats> errors(@Nullable Integer limit, @Nullable Duration window) {
+        return errorIndex.top(limit == null ? DEFAULT_LIMIT : limit, window == null ? DEFAULT_WINDOW : window);
+    }
+}
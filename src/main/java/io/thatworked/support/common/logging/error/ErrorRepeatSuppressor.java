@@ -0,0 +1,117 @@
+package io.thatworked.support.common.logging.error;
+
+import io.thatworked.support.common.logging.concurrent.LoggingScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Merges repeats of an identical error within a time window into one summary.
+ * <p>
+ * The first occurrence is logged as usual and opens a window; identical errors inside the window
+ * are only counted. When the window closes its summary callback receives the repeat count, so a
+ * storm of N identical errors produces two events instead of N. Windows are closed by a periodic
+ * sweep on the shared {@link LoggingScheduler}, or early when the same error opens a new window.
+ */
+public class ErrorRepeatSuppressor {
+
+    public static final int DEFAULT_MAX_TRACKED = 10_000;
+
+    private static final ConcurrentHashMap<Duration, ErrorRepeatSuppressor> SHARED = new ConcurrentHashMap<>();
+    private static final long CLOSED = -1;
+
+    private final ConcurrentHashMap<Object, Window> windows = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final int maxTracked;
+
+    public ErrorRepeatSuppressor(Duration window, int maxTracked) {
+        this.windowNanos = window.toNanos();
+        this.maxTracked = maxTracked;
+        Duration sweepPeriod = window.dividedBy(2);
+        if (sweepPeriod.compareTo(Duration.ofMillis(10)) < 0) {
+            sweepPeriod = Duration.ofMillis(10);
+        } else if (sweepPeriod.compareTo(Duration.ofSeconds(1)) > 0) {
+            sweepPeriod = Duration.ofSeconds(1);
+        }
+        LoggingScheduler.scheduleAtFixedRate(this::sweep, sweepPeriod);
+    }
+
+    /**
+     * Shared suppressor for a window length, so loggers with the same options share one sweep
+     */
+    public static ErrorRepeatSuppressor forWindow(Duration window) {
+        return SHARED.computeIfAbsent(window, w -> new ErrorRepeatSuppressor(w, DEFAULT_MAX_TRACKED));
+    }
+
+    /**
+     * Count this occurrence if an identical error is inside its window; true means don't log it
+     */
+    public boolean suppress(Object key) {
+        Window window = windows.get(key);
+        return window != null && window.count(System.nanoTime());
+    }
+
+    /**
+     * Open a window after logging the first occurrence of an error
+     */
+    public void open(Object key, LongConsumer summary) {
+        if (windows.size() >= maxTracked) {
+            // Too many distinct errors to track; they are all logged
+            return;
+        }
+        Window previous = windows.put(key, new Window(System.nanoTime() + windowNanos, summary));
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Close every window that has ended, emitting its summary
+     */
+    void sweep() {
+        long now = System.nanoTime();
+        windows.forEach((key, window) -> {
+            if (window.hasEnded(now) && windows.remove(key, window)) {
+                window.close();
+            }
+        });
+    }
+
+    private static final class Window {
+        private final long endNanos;
+        private final LongConsumer summary;
+        private final AtomicLong repeats = new AtomicLong();
+
+        Window(long endNanos, LongConsumer summary) {
+            this.endNanos = endNanos;
+            this.summary = summary;
+        }
+
+        boolean hasEnded(long now) {
+            return now - endNanos >= 0;
+        }
+
+        boolean count(long now) {
+            if (hasEnded(now)) {
+                return false;
+            }
+            long current;
+            do {
+                current = repeats.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+            } while (!repeats.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        void close() {
+            long counted = repeats.getAndSet(CLOSED);
+            if (counted > 0) {
+                summary.accept(counted);
+            }
+        }
+    }
+}
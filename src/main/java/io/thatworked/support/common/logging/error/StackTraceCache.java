@@ -0,0 +1,116 @@
+package io.thatworked.support.common.logging.error;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the head of a stack trace, reusing the rendered frames for repeat throw sites.
+ * <p>
+ * Output is {@code type: message} followed by the top frames and a {@code ... n more} line. Frames
+ * are cached by exception class, top frames and stack depth, so an exception thrown again from the
+ * same site costs one map lookup instead of a {@code StackTraceElement.toString()} per frame.
+ * The cache is cleared when it reaches its bound, which lets the current hot sites back in.
+ */
+public class StackTraceCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final int DEFAULT_DEPTH = 5;
+
+    private final ConcurrentHashMap<Key, String> renderedFrames = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final int depth;
+
+    public StackTraceCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_DEPTH);
+    }
+
+    public StackTraceCache(int maxEntries, int depth) {
+        this.maxEntries = maxEntries;
+        this.depth = depth;
+    }
+
+    public String render(Throwable throwable) {
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        if (stackTrace.length == 0) {
+            return throwable.toString();
+        }
+        Key lookup = new Key(throwable.getClass(), stackTrace, Math.min(depth, stackTrace.length));
+        String frames = renderedFrames.get(lookup);
+        if (frames == null) {
+            frames = renderFrames(stackTrace);
+            if (renderedFrames.size() >= maxEntries) {
+                renderedFrames.clear();
+            }
+            renderedFrames.put(lookup.compact(), frames);
+        }
+        return throwable.getClass().getName() + ": " + throwable.getMessage() + frames;
+    }
+
+    public int size() {
+        return renderedFrames.size();
+    }
+
+    private String renderFrames(StackTraceElement[] stackTrace) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(depth, stackTrace.length); i++) {
+            sb.append("\n\tat ").append(stackTrace[i]);
+        }
+        if (stackTrace.length > depth) {
+            sb.append("\n\t... ").append(stackTrace.length - depth).append(" more");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Exception class, top frames and total depth; lookups use the full stack array without copying it
+     */
+    private static final class Key {
+        private final Class<?> type;
+        private final StackTraceElement[] frames;
+        private final int frameCount;
+        private final int stackDepth;
+        private final int hash;
+
+        Key(Class<?> type, StackTraceElement[] stackTrace, int frameCount) {
+            this(type, stackTrace, frameCount, stackTrace.length);
+        }
+
+        private Key(Class<?> type, StackTraceElement[] frames, int frameCount, int stackDepth) {
+            this.type = type;
+            this.frames = frames;
+            this.frameCount = frameCount;
+            this.stackDepth = stackDepth;
+            int h = type.hashCode() * 31 + stackDepth;
+            for (int i = 0; i < frameCount; i++) {
+                h = h * 31 + frames[i].hashCode();
+            }
+            this.hash = h;
+        }
+
+        Key compact() {
+            return new Key(type, Arrays.copyOf(frames, frameCount), frameCount, stackDepth);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other) || hash != other.hash || type != other.type
+                    || stackDepth != other.stackDepth || frameCount != other.frameCount) {
+                return false;
+            }
+            for (int i = 0; i < frameCount; i++) {
+                if (!frames[i].equals(other.frames[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
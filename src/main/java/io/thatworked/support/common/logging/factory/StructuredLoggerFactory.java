@@ -1,10 +1,23 @@
 package io.thatworked.support.common.logging.factory;
 
 import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.audit.SecurityAuditLog;
+import io.thatworked.support.common.logging.config.LogOutputMode;
+import io.thatworked.support.common.logging.config.RedactionProperties;
+import io.thatworked.support.common.logging.config.SamplingProperties;
+import io.thatworked.support.common.logging.config.SerializationProperties;
+import io.thatworked.support.common.logging.config.StructuredLoggerOptions;
+import io.thatworked.support.common.logging.error.ErrorIndex;
+import io.thatworked.support.common.logging.level.LogLevelOverrides;
+import io.thatworked.support.common.logging.metrics.LoggingMetrics;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * Factory for creating structured loggers
  */
@@ -14,7 +27,71 @@ public class StructuredLoggerFactory {
     @Value("${spring.application.name:unknown-service}")
     private String serviceName;
     
+    @Value("${support.logging.output-mode:JSON_MESSAGE}")
+    private LogOutputMode outputMode;
+    
+    @Value("${support.logging.error-repeat-window:0s}")
+    private Duration errorRepeatWindow;
+    
+    @Value("${support.logging.performance.aggregation-interval:0s}")
+    private Duration performanceAggregationInterval;
+    
+    @Value("${support.logging.performance.aggregation-tags:status}")
+    private List<String> performanceAggregationTags;
+    
+    @Autowired(required = false)
+    private SamplingProperties samplingProperties;
+    
+    @Autowired(required = false)
+    private SerializationProperties serializationProperties;
+    
+    @Autowired(required = false)
+    private RedactionProperties redactionProperties;
+    
+    @Autowired(required = false)
+    private LoggingMetrics metrics;
+    
+    @Autowired(required = false)
+    private SecurityAuditLog auditLog;
+    
+    @Autowired(required = false)
+    private ErrorIndex errorIndex;
+    
+    @Autowired(required = false)
+    private LogLevelOverrides levelOverrides;
+    
+    private volatile StructuredLoggerOptions options;
+    
     public StructuredLogger getLogger(Class<?> clazz) {
-        return StructuredLogger.getLogger(clazz, serviceName);
+        return StructuredLogger.getLogger(clazz, serviceName, getOptions());
+    }
+    
+    public StructuredLoggerOptions getOptions() {
+        StructuredLoggerOptions current = options;
+        if (current == null) {
+            // Built once: the sampling policy holds shared rate limits
+            synchronized (this) {
+                current = options;
+                if (current == null) {
+                    current = StructuredLoggerOptions.builder()
+                        .outputMode(outputMode)
+                        .errorRepeatWindow(errorRepeatWindow)
+                        .performanceAggregationInterval(performanceAggregationInterval)
+                        .performanceAggregationTags(performanceAggregationTags)
+                        .serializationLimits(serializationProperties == null
+                            ? null : serializationProperties.toLimits())
+                        .redactor(redactionProperties == null ? null : redactionProperties.toRedactor())
+                        .sampling(samplingProperties == null || samplingProperties.getRules().isEmpty()
+                            ? null : samplingProperties.toPolicy(serviceName))
+                        .metrics(metrics == null ? LoggingMetrics.NOOP : metrics)
+                        .auditLog(auditLog)
+                        .errorIndex(errorIndex)
+                        .levelOverrides(levelOverrides)
+                        .build();
+                    options = current;
+                }
+            }
+        }
+        return current;
     }
-}
\ No newline at end of file
+}
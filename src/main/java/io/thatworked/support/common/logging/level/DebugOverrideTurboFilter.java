@@ -0,0 +1,57 @@
+package io.thatworked.support.common.logging.level;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+
+/**
+ * Logback filter enabling DEBUG and above wherever a {@link LogLevelOverrides} override applies.
+ * <p>
+ * Turbo filters run before logback's level check, including in {@code isDebugEnabled()}, so plain SLF4J
+ * loggers, {@code StructuredLogger} and {@code CorrelationIdFilter} all see the override without changes.
+ * Events an override does not cover are left to the configured levels.
+ */
+public class DebugOverrideTurboFilter extends TurboFilter implements AutoCloseable {
+
+    private final LogLevelOverrides overrides;
+
+    public DebugOverrideTurboFilter(LogLevelOverrides overrides) {
+        this.overrides = overrides;
+        setName("debug-overrides");
+    }
+
+    /**
+     * Add a started filter to logback's context; null when SLF4J is not bound to logback
+     */
+    public static DebugOverrideTurboFilter install(LogLevelOverrides overrides) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return null;
+        }
+        DebugOverrideTurboFilter filter = new DebugOverrideTurboFilter(overrides);
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+        return filter;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (!overrides.isActive() || level == null || level.levelInt < Level.DEBUG_INT) {
+            return FilterReply.NEUTRAL;
+        }
+        return overrides.isDebugEnabled(logger.getName()) ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+
+    @Override
+    public void close() {
+        stop();
+        if (getContext() instanceof LoggerContext context) {
+            context.getTurboFilterList().remove(this);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package io.thatworked.support.common.logging.level;
+
+import io.thatworked.support.common.logging.correlation.CorrelationContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DEBUG logging turned on at runtime for chosen correlation IDs, logger name prefixes or error code
+ * prefixes, each for a limited time.
+ * <p>
+ * An error code prefix traces requests that fail: when an error with a matching code is logged, the
+ * current correlation ID gets DEBUG until the prefix's override expires. Overrides expire after their
+ * TTL, capped at {@code maxTtl}; {@link #clear} drops them all at once.
+ * <p>
+ * {@link #isDebugEnabled} is called for every event below a logger's level. While no override is active
+ * it reads one volatile field. Otherwise it is a hash lookup of the current correlation ID and a lookup
+ * of the logger's match, computed once per logger name, so its cost does not grow with the number of
+ * overrides. Changes publish a new immutable snapshot; expired overrides are pruned when the earliest
+ * one is due. Correlation IDs traced by an error code are kept in a concurrent map beside the snapshot,
+ * so a burst of failing requests neither takes the lock nor republishes it.
+ */
+public class LogLevelOverrides {
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_MAX_TTL = Duration.ofHours(1);
+    public static final int DEFAULT_MAX_CORRELATION_IDS = 1_000;
+
+    public enum Target {
+        CORRELATION_ID, LOGGER, ERROR_CODE
+    }
+
+    /**
+     * One active override; {@code value} is a correlation ID, or a logger name or error code prefix
+     */
+    public record LevelOverride(Target target, String value, Instant expiresAt) {
+    }
+
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final int maxCorrelationIds;
+
+    // Guarded by this; expiry in epoch millis
+    private final Map<Key, Long> entries = new HashMap<>();
+    // Null while no override is active
+    private volatile Snapshot snapshot;
+    // Correlation IDs traced by error code overrides, to their expiry; cleared with the snapshot
+    private final Map<String, Long> traced = new ConcurrentHashMap<>();
+
+    public LogLevelOverrides() {
+        this(DEFAULT_TTL, DEFAULT_MAX_TTL, DEFAULT_MAX_CORRELATION_IDS);
+    }
+
+    public LogLevelOverrides(Duration defaultTtl, Duration maxTtl, int maxCorrelationIds) {
+        if (defaultTtl.isNegative() || defaultTtl.isZero() || maxTtl.compareTo(defaultTtl) < 0) {
+            throw new IllegalArgumentException("TTLs must be positive and the default at most " + maxTtl);
+        }
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.maxCorrelationIds = maxCorrelationIds;
+    }
+
+    /**
+     * Turn on DEBUG for a target until the TTL (null for the default) elapses; replaces an existing
+     * override of the same target
+     */
+    public LevelOverride enable(Target target, String value, Duration ttl) {
+        return enable(target, value, ttl, System.currentTimeMillis());
+    }
+
+    synchronized LevelOverride enable(Target target, String value, Duration ttl, long now) {
+        if (target == null || value == null || value.isBlank()) {
+            throw new IllegalArgumentException("An override needs a target and a value");
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("TTL must be positive: " + ttl);
+        }
+        Duration effective = ttl == null ? defaultTtl : ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl;
+        Key key = new Key(target, value);
+        prune(now);
+        if (target == Target.CORRELATION_ID && !entries.containsKey(key) && !traced.containsKey(value)
+                && correlationIdCount() >= maxCorrelationIds) {
+            throw new IllegalStateException("Already tracing " + maxCorrelationIds + " correlation IDs");
+        }
+        long expiresAt = now + effective.toMillis();
+        entries.put(key, expiresAt);
+        publish();
+        return new LevelOverride(target, value, Instant.ofEpochMilli(expiresAt));
+    }
+
+    /**
+     * Remove one override; false if it was not active
+     */
+    public synchronized boolean disable(Target target, String value) {
+        boolean removed = entries.remove(new Key(target, value)) != null;
+        if (target == Target.CORRELATION_ID) {
+            removed |= traced.remove(value) != null;
+        }
+        if (!removed) {
+            return false;
+        }
+        publish();
+        return true;
+    }
+
+    /**
+     * Kill switch: remove every override, returning how many were active
+     */
+    public synchronized int clear() {
+        int removed = entries.size() + traced.size();
+        entries.clear();
+        traced.clear();
+        snapshot = null;
+        return removed;
+    }
+
+    public List<LevelOverride> active() {
+        return active(System.currentTimeMillis());
+    }
+
+    synchronized List<LevelOverride> active(long now) {
+        prune(now);
+        List<LevelOverride> active = new ArrayList<>();
+        entries.forEach((key, expiresAt) -> {
+            if (key.target() != Target.CORRELATION_ID || !traced.containsKey(key.value())) {
+                active.add(new LevelOverride(key.target(), key.value(), Instant.ofEpochMilli(expiresAt)));
+            }
+        });
+        traced.forEach((correlationId, expiresAt) -> {
+            Long enabled = entries.get(new Key(Target.CORRELATION_ID, correlationId));
+            long until = enabled == null ? expiresAt : Math.max(expiresAt, enabled);
+            active.add(new LevelOverride(Target.CORRELATION_ID, correlationId, Instant.ofEpochMilli(until)));
+        });
+        active.sort(Comparator.comparing(LevelOverride::target).thenComparing(LevelOverride::value));
+        return active;
+    }
+
+    public boolean isActive() {
+        return snapshot != null;
+    }
+
+    /**
+     * Whether DEBUG is forced on for this logger in the current unit of work
+     */
+    public boolean isDebugEnabled(String loggerName) {
+        if (snapshot == null) {
+            return false;
+        }
+        return isDebugEnabled(loggerName, CorrelationContext.current(), System.currentTimeMillis());
+    }
+
+    boolean isDebugEnabled(String loggerName, String correlationId, long now) {
+        Snapshot current = current(now);
+        if (current == null) {
+            return false;
+        }
+        if (correlationId != null && (current.correlationIds.contains(correlationId) || isTraced(correlationId, now))) {
+            return true;
+        }
+        return !current.loggers.isEmpty()
+            && current.loggerMatches.computeIfAbsent(loggerName, current::matchesLogger);
+    }
+
+    /**
+     * Called for every logged error: a code matching an error code override traces the current
+     * correlation ID
+     */
+    public void errorLogged(String code) {
+        Snapshot current = snapshot;
+        if (current == null || current.errorCodes.isEmpty() || code == null) {
+            return;
+        }
+        String correlationId = CorrelationContext.current();
+        if (correlationId != null) {
+            errorLogged(code, correlationId, System.currentTimeMillis());
+        }
+    }
+
+    void errorLogged(String code, String correlationId, long now) {
+        Snapshot current = current(now);
+        if (current == null || current.correlationIds.contains(correlationId)) {
+            return;
+        }
+        for (Map.Entry<String, Long> errorCode : current.errorCodes.entrySet()) {
+            if (code.startsWith(errorCode.getKey())) {
+                trace(current, correlationId, errorCode.getValue());
+                return;
+            }
+        }
+    }
+
+    // Lock-free and best effort: concurrent callers may pass the cap together by a few IDs
+    private void trace(Snapshot current, String correlationId, long expiresAt) {
+        Long existing = traced.get(correlationId);
+        if (existing == null && current.correlationIds.size() + traced.size() >= maxCorrelationIds) {
+            // An error storm must not grow the set without bound
+            return;
+        }
+        if (existing == null || existing < expiresAt) {
+            traced.merge(correlationId, expiresAt, Math::max);
+        }
+    }
+
+    private boolean isTraced(String correlationId, long now) {
+        Long expiresAt = traced.get(correlationId);
+        return expiresAt != null && now < expiresAt;
+    }
+
+    private Snapshot current(long now) {
+        Snapshot current = snapshot;
+        if (current != null && now >= current.nextExpiry) {
+            synchronized (this) {
+                prune(now);
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    // Callers hold the lock
+    private void prune(long now) {
+        Snapshot current = snapshot;
+        if (current != null && now >= current.nextExpiry) {
+            traced.values().removeIf(expiresAt -> expiresAt <= now);
+            if (entries.values().removeIf(expiresAt -> expiresAt <= now)) {
+                publish();
+            }
+        }
+    }
+
+    private int correlationIdCount() {
+        Snapshot current = snapshot;
+        return traced.size() + (current == null ? 0 : current.correlationIds.size());
+    }
+
+    private void publish() {
+        snapshot = entries.isEmpty() ? null : new Snapshot(entries);
+        if (snapshot == null) {
+            // Traces belong to an error code override, and none is left
+            traced.clear();
+        }
+    }
+
+    private record Key(Target target, String value) {
+    }
+
+    private static final class Snapshot {
+        final Set<String> correlationIds = new HashSet<>();
+        final List<String> loggers = new ArrayList<>();
+        final Map<String, Long> errorCodes = new HashMap<>();
+        final Map<String, Boolean> loggerMatches = new ConcurrentHashMap<>();
+        final long nextExpiry;
+
+        Snapshot(Map<Key, Long> entries) {
+            long next = Long.MAX_VALUE;
+            for (Map.Entry<Key, Long> entry : entries.entrySet()) {
+                String value = entry.getKey().value();
+                switch (entry.getKey().target()) {
+                    case CORRELATION_ID -> correlationIds.add(value);
+                    case LOGGER -> loggers.add(value);
+                    case ERROR_CODE -> errorCodes.put(value, entry.getValue());
+                }
+                next = Math.min(next, entry.getValue());
+            }
+            nextExpiry = next;
+        }
+
+        // The logger itself or a descendant: com.example.orders matches com.example.orders.Service,
+        // not com.example.ordersarchive
+        boolean matchesLogger(String loggerName) {
+            for (String prefix : loggers) {
+                if (loggerName.startsWith(prefix)
+                        && (loggerName.length() == prefix.length() || loggerName.charAt(prefix.length()) == '.')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
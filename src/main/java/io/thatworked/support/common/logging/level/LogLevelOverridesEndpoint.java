@@ -0,0 +1,44 @@
+package io.thatworked.support.common.logging.level;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Actuator endpoint {@code /actuator/logoverrides}: GET lists active overrides, POST
+ * {@code {"target": "CORRELATION_ID", "value": "...", "ttl": "15m"}} adds one, DELETE with a target and
+ * value removes one and without them removes all
+ */
+@Endpoint(id = "logoverrides")
+public class LogLevelOverridesEndpoint {
+
+    private final LogLevelOverrides overrides;
+
+    public LogLevelOverridesEndpoint(LogLevelOverrides overrides) {
+        this.overrides = overrides;
+    }
+
+    @ReadOperation
+    public List<LogLevelOverrides.LevelOverride> overrides() {
+        return overrides.active();
+    }
+
+    @WriteOperation
+    public LogLevelOverrides.LevelOverride enable(LogLevelOverrides.Target target, String value,
+                                                  @Nullable Duration ttl) {
+        return overrides.enable(target, value, ttl);
+    }
+
+    @DeleteOperation
+    public int disable(@Nullable LogLevelOverrides.Target target, @Nullable String value) {
+        if (target == null && value == null) {
+            return overrides.clear();
+        }
+        return overrides.disable(target, value) ? 1 : 0;
+    }
+}
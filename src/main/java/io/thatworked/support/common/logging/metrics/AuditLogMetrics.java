@@ -0,0 +1,51 @@
+package io.thatworked.support.common.logging.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.thatworked.support.common.logging.audit.SecurityAuditLog;
+
+/**
+ * Meters for a {@link SecurityAuditLog}, read from its own counters:
+ * <ul>
+ *   <li>{@code logging.audit.queue.depth} and {@code logging.audit.queue.capacity}</li>
+ *   <li>{@code logging.audit.rejected}: events refused by the full queue and logged normally instead</li>
+ *   <li>{@code logging.audit.written} and {@code logging.audit.batches}: events and seals forced to disk</li>
+ *   <li>{@code logging.audit.write.failures}: batch writes that failed and were retried</li>
+ *   <li>{@code logging.audit.unsealed}: events left unwritten at close because writes kept failing</li>
+ * </ul>
+ */
+public class AuditLogMetrics implements MeterBinder {
+
+    private final SecurityAuditLog auditLog;
+
+    public AuditLogMetrics(SecurityAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("logging.audit.queue.depth", auditLog, SecurityAuditLog::getQueueDepth)
+            .description("Audit events waiting to be written")
+            .register(registry);
+        Gauge.builder("logging.audit.queue.capacity", auditLog, SecurityAuditLog::getQueueCapacity)
+            .description("Audit events that can wait to be written")
+            .register(registry);
+        FunctionCounter.builder("logging.audit.rejected", auditLog, SecurityAuditLog::getRejectedCount)
+            .description("Audit events refused by the full queue and logged through the regular log")
+            .register(registry);
+        FunctionCounter.builder("logging.audit.written", auditLog, SecurityAuditLog::getWrittenCount)
+            .description("Audit events written and forced to disk")
+            .register(registry);
+        FunctionCounter.builder("logging.audit.batches", auditLog, SecurityAuditLog::getBatchCount)
+            .description("Sealed audit batches")
+            .register(registry);
+        FunctionCounter.builder("logging.audit.write.failures", auditLog, SecurityAuditLog::getWriteFailureCount)
+            .description("Audit batch writes that failed and were retried")
+            .register(registry);
+        FunctionCounter.builder("logging.audit.unsealed", auditLog, SecurityAuditLog::getUnsealedCount)
+            .description("Audit events left unwritten at close because writes kept failing")
+            .register(registry);
+    }
+}
@@ -0,0 +1,89 @@
+package io.thatworked.support.common.logging.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.thatworked.support.common.logging.appender.RingBufferAsyncAppender;
+import io.thatworked.support.common.logging.mmap.MappedSegmentAppender;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Meters for the library's appenders found in the logback configuration, tagged by {@code appender}:
+ * <ul>
+ *   <li>{@code logging.async.queue.depth} and {@code logging.async.queue.capacity} of each
+ *       {@link RingBufferAsyncAppender}</li>
+ *   <li>{@code logging.async.discarded}: events dropped by its overflow policy, or that a
+ *       {@link MappedSegmentAppender} could not write</li>
+ *   <li>{@code logging.async.blocked}: total time producer threads waited for buffer space</li>
+ * </ul>
+ * Meters read the appenders' own counters, so nothing is added to the append path. Appenders are
+ * looked up when the binder is bound, after logback has been configured.
+ */
+public class LogbackAppenderMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Set<Appender<?>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Logger logger : context.getLoggerList()) {
+            bindAll(logger, registry, seen);
+        }
+    }
+
+    private static void bindAll(AppenderAttachable<?> attachable, MeterRegistry registry, Set<Appender<?>> seen) {
+        Iterator<? extends Appender<?>> appenders = attachable.iteratorForAppenders();
+        while (appenders.hasNext()) {
+            Appender<?> appender = appenders.next();
+            if (!seen.add(appender)) {
+                continue;
+            }
+            bind(appender, registry);
+            if (appender instanceof AppenderAttachable<?> nested) {
+                bindAll(nested, registry, seen);
+            }
+        }
+    }
+
+    private static void bind(Appender<?> appender, MeterRegistry registry) {
+        String name = appender.getName();
+        if (appender instanceof RingBufferAsyncAppender async) {
+            Gauge.builder("logging.async.queue.depth", async, RingBufferAsyncAppender::getQueueDepth)
+                .description("Events waiting in the async appender's ring buffer")
+                .tag("appender", name)
+                .register(registry);
+            Gauge.builder("logging.async.queue.capacity", async, RingBufferAsyncAppender::getQueueCapacity)
+                .description("Slots in the async appender's ring buffer")
+                .tag("appender", name)
+                .register(registry);
+            discarded(name, async, RingBufferAsyncAppender::getDroppedCount, registry);
+            FunctionCounter.builder("logging.async.blocked", async, a -> a.getBlockedNanos() / 1e9)
+                .description("Time producer threads spent waiting for ring buffer space")
+                .baseUnit(BaseUnits.SECONDS)
+                .tag("appender", name)
+                .register(registry);
+        } else if (appender instanceof MappedSegmentAppender<?> segments) {
+            discarded(name, segments, MappedSegmentAppender::getDroppedCount, registry);
+        }
+    }
+
+    private static <T> void discarded(String name, T appender, ToLongFunction<T> count, MeterRegistry registry) {
+        FunctionCounter.builder("logging.async.discarded", appender, count::applyAsLong)
+            .description("Log events discarded by the appender")
+            .tag("appender", name)
+            .register(registry);
+    }
+}
@@ -0,0 +1,33 @@
+package io.thatworked.support.common.logging.metrics;
+
+/**
+ * Receives what logging itself costs, from {@code StructuredLogger}'s write path.
+ * <p>
+ * Calls are made on the logging thread for every event, so implementations must be cheap and must
+ * not log. Encoding is only timed when the logger's metrics are not {@link #NOOP}; in
+ * {@code STRUCTURED_ARGUMENTS} mode such a logger encodes the fields itself instead of leaving them to
+ * the appender, and reports their size along with the message's.
+ */
+public interface LoggingMetrics {
+
+    LoggingMetrics NOOP = new LoggingMetrics() {
+    };
+
+    /**
+     * An event passed level and sampling checks and was handed to SLF4J
+     */
+    default void eventLogged(String service, String level) {
+    }
+
+    /**
+     * An event was serialized to JSON: its size in UTF-8 bytes and the time it took
+     */
+    default void eventEncoded(int bytes, long nanos) {
+    }
+
+    /**
+     * Serialization failed and the event was logged through the plain-text fallback
+     */
+    default void serializationFailed(String service) {
+    }
+}
@@ -0,0 +1,106 @@
+package io.thatworked.support.common.logging.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LoggingMetrics} recorded as Micrometer meters:
+ * <ul>
+ *   <li>{@code logging.events}: events logged, tagged by {@code service} and {@code level}</li>
+ *   <li>{@code logging.encoded.size}: JSON size per event in UTF-8 bytes</li>
+ *   <li>{@code logging.serialization}: time spent serializing each event</li>
+ *   <li>{@code logging.serialization.failures}: events that fell back to plain text, by {@code service}</li>
+ * </ul>
+ * Meters are created when Spring Boot binds this to its registry; events before that aren't counted.
+ * Per-service counters are looked up once and cached, so recording is a map read and an increment.
+ */
+public class MicrometerLoggingMetrics implements LoggingMetrics, MeterBinder {
+
+    private static final String[] LEVELS = {"ERROR", "WARN", "INFO", "DEBUG"};
+
+    private final ConcurrentHashMap<String, Counter[]> events = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> failures = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+    private volatile DistributionSummary encodedSize;
+    private volatile Timer serialization;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        serialization = Timer.builder("logging.serialization")
+            .description("Time spent serializing log events to JSON")
+            .register(registry);
+        // Published last: eventEncoded checks it before using both
+        encodedSize = DistributionSummary.builder("logging.encoded.size")
+            .description("Size of serialized log events")
+            .baseUnit(BaseUnits.BYTES)
+            .register(registry);
+        events.clear();
+        failures.clear();
+        this.registry = registry;
+    }
+
+    @Override
+    public void eventLogged(String service, String level) {
+        MeterRegistry current = registry;
+        if (current == null) {
+            return;
+        }
+        Counter[] counters = events.get(service);
+        if (counters == null) {
+            counters = events.computeIfAbsent(service, s -> levelCounters(current, s));
+        }
+        counters[levelIndex(level)].increment();
+    }
+
+    @Override
+    public void eventEncoded(int bytes, long nanos) {
+        DistributionSummary size = encodedSize;
+        if (size == null) {
+            return;
+        }
+        size.record(bytes);
+        serialization.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void serializationFailed(String service) {
+        MeterRegistry current = registry;
+        if (current == null) {
+            return;
+        }
+        failures.computeIfAbsent(service, s -> Counter.builder("logging.serialization.failures")
+            .description("Log events that could not be serialized and were logged as plain text")
+            .tag("service", s)
+            .register(current))
+            .increment();
+    }
+
+    private static Counter[] levelCounters(MeterRegistry registry, String service) {
+        Counter[] counters = new Counter[LEVELS.length];
+        for (int i = 0; i < LEVELS.length; i++) {
+            counters[i] = Counter.builder("logging.events")
+                .description("Log events written through StructuredLogger")
+                .tag("service", service)
+                .tag("level", LEVELS[i])
+                .register(registry);
+        }
+        return counters;
+    }
+
+    private static int levelIndex(String level) {
+        return switch (level) {
+            case "ERROR" -> 0;
+            case "WARN" -> 1;
+            case "DEBUG" -> 3;
+            default -> 2;
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package io.thatworked.support.common.logging.mmap;
+
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.util.FileSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appender that writes encoded events into a {@link MappedSegmentLog}.
+ * <p>
+ * Logging threads encode and copy each event into a memory-mapped segment and return; they never
+ * take a lock or issue a write call, so page-cache writeback cannot stall them. Segments are read
+ * back with {@link MappedSegmentExporter}. Events that cannot be written are counted as dropped.
+ */
+public class MappedSegmentAppender<E> extends UnsynchronizedAppenderBase<E> {
+
+    public static final String DEFAULT_FILE_PREFIX = "structured";
+    public static final FileSize DEFAULT_SEGMENT_SIZE = new FileSize(64 * FileSize.MB_COEFFICIENT);
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private Encoder<E> encoder;
+    private String directory;
+    private String filePrefix = DEFAULT_FILE_PREFIX;
+    private FileSize segmentSize = DEFAULT_SEGMENT_SIZE;
+    private int maxSegments;
+
+    private MappedSegmentLog log;
+
+    @Override
+    public void start() {
+        if (encoder == null) {
+            addError("No encoder set for the appender named [" + getName() + "]");
+            return;
+        }
+        if (directory == null) {
+            addError("No directory set for the appender named [" + getName() + "]");
+            return;
+        }
+        long size = segmentSize.getSize();
+        if (size > Integer.MAX_VALUE || size % 8 != 0) {
+            addError("Invalid segment size [" + segmentSize + "]; must be a multiple of 8 below 2GB");
+            return;
+        }
+        try {
+            log = new MappedSegmentLog(Path.of(directory), filePrefix, (int) size, maxSegments);
+        } catch (IOException | IllegalArgumentException e) {
+            addError("Failed to open segment log in [" + directory + "]", e);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        try {
+            log.close();
+        } catch (IOException e) {
+            addError("Failed to close segment log", e);
+        }
+    }
+
+    @Override
+    protected void append(E event) {
+        byte[] bytes = encoder.encode(event);
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        if (!log.append(bytes)) {
+            droppedEvents.increment();
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedEvents.sum();
+    }
+
+    // Configuration (set from logback XML)
+
+    public void setEncoder(Encoder<E> encoder) {
+        this.encoder = encoder;
+    }
+
+    public Encoder<E> getEncoder() {
+        return encoder;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setFilePrefix(String filePrefix) {
+        this.filePrefix = filePrefix;
+    }
+
+    public String getFilePrefix() {
+        return filePrefix;
+    }
+
+    public void setSegmentSize(FileSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public FileSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Segment files to keep, oldest deleted first; 0 (the default) keeps all
+     */
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+}
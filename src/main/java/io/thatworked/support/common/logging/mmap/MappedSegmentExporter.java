@@ -0,0 +1,56 @@
+package io.thatworked.support.common.logging.mmap;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts segment files back into JSON lines, the same format the file appenders write.
+ * <p>
+ * Usage: {@code MappedSegmentExporter <directory> [filePrefix] [outputFile]}; output goes to
+ * stdout when no file is given. Damaged records are skipped and counted on stderr.
+ */
+public final class MappedSegmentExporter {
+
+    private MappedSegmentExporter() {
+    }
+
+    /**
+     * Write every complete record as one line, appending a newline where the payload has none
+     */
+    public static MappedSegmentReader.Result export(Path directory, String prefix, OutputStream out) throws IOException {
+        try {
+            return MappedSegmentReader.read(directory, prefix, payload -> {
+                try {
+                    out.write(payload);
+                    if (payload[payload.length - 1] != '\n') {
+                        out.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: MappedSegmentExporter <directory> [filePrefix] [outputFile]");
+            System.exit(2);
+        }
+        Path directory = Path.of(args[0]);
+        String prefix = args.length > 1 ? args[1] : MappedSegmentAppender.DEFAULT_FILE_PREFIX;
+        OutputStream target = args.length > 2 ? Files.newOutputStream(Path.of(args[2])) : System.out;
+        MappedSegmentReader.Result result;
+        try (OutputStream out = new BufferedOutputStream(target, 64 * 1024)) {
+            result = export(directory, prefix, out);
+        }
+        System.err.printf("Exported %d records from %d segments, skipped %d damaged regions%n",
+            result.records(), result.segments(), result.skipped());
+    }
+}
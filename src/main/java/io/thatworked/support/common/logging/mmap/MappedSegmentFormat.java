@@ -0,0 +1,72 @@
+package io.thatworked.support.common.logging.mmap;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk layout shared by the segment writer and reader.
+ * <pre>
+ * segment := header record* [END] zero-fill
+ * header  := magic:int32 version:int32 sequence:int64          (16 bytes)
+ * record  := length:int32 commit:int32 payload:byte[length]   (padded to 8 bytes)
+ * </pre>
+ * {@code commit} is the CRC32C of the payload xor {@link #COMMIT_SALT}, stored last with release
+ * semantics. A record whose commit word does not match its payload was never completely written.
+ * A length of {@link #END_OF_SEGMENT} marks the point where the writer moved to the next segment.
+ * All integers are little-endian.
+ */
+final class MappedSegmentFormat {
+    
+    static final int MAGIC = 0x47535754; // "TWSG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final int END_OF_SEGMENT = -1;
+    static final int COMMIT_SALT = 0x5bd1e995;
+    static final String FILE_SUFFIX = ".seg";
+    
+    static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    private MappedSegmentFormat() {
+    }
+    
+    static int recordSize(int payloadLength) {
+        return (RECORD_HEADER_SIZE + payloadLength + 7) & ~7;
+    }
+    
+    static int commitWord(ByteBuffer buffer, int payloadOffset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(payloadOffset, length));
+        return (int) crc.getValue() ^ COMMIT_SALT;
+    }
+    
+    static int commitWord(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue() ^ COMMIT_SALT;
+    }
+    
+    static String fileName(String prefix, long sequence) {
+        return String.format("%s-%020d%s", prefix, sequence, FILE_SUFFIX);
+    }
+    
+    /**
+     * Sequence number encoded in a segment file name, or -1 if the file is not a segment of this prefix
+     */
+    static long sequenceOf(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(prefix + "-") || !name.endsWith(FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length() + 1, name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
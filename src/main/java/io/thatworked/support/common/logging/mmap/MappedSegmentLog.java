@@ -0,0 +1,327 @@
+package io.thatworked.support.common.logging.mmap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.END_OF_SEGMENT;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.HEADER_SIZE;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.INT;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.LONG;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.MAGIC;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.RECORD_HEADER_SIZE;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.VERSION;
+
+/**
+ * Append-only log of length-prefixed records in preallocated memory-mapped segment files.
+ * <p>
+ * Producers claim space with a single atomic add on the active segment and copy their record
+ * straight into the mapping; there is no lock and no write syscall on the calling thread.
+ * A background roller keeps the next segment created, mapped and pre-faulted, so switching
+ * segments is a pointer swap, and forces/retires full segments. See {@link MappedSegmentFormat}
+ * for the layout and {@link MappedSegmentReader} for reading it back.
+ * <p>
+ * If no next segment can be created (disk full, file descriptor limit), records are dropped and
+ * counted rather than blocking producers; whichever of the producers or the roller next has a
+ * segment ready installs it, and appends resume.
+ */
+public class MappedSegmentLog implements Closeable {
+
+    private static final int PAGE_SIZE = 4096;
+    private static final long ROLLER_PARK_NANOS = 100_000_000L;
+    private static final long ROLL_WAIT_NANOS = 10_000_000L;
+
+    private final Path directory;
+    private final String prefix;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Thread roller;
+    private final Deque<Segment> retired = new ArrayDeque<>();
+    private final LongAdder droppedRecords = new LongAdder();
+
+    private volatile Segment active;
+    private volatile Segment standby;
+    private volatile boolean closed;
+    // Set when a roll found no segment; cleared once one is installed
+    private volatile boolean stalled;
+    private long nextSequence;
+
+    /**
+     * @param maxSegments segment files to keep on disk, oldest deleted first; 0 keeps all
+     */
+    public MappedSegmentLog(Path directory, String prefix, int segmentSize, int maxSegments) throws IOException {
+        if (segmentSize < HEADER_SIZE + RECORD_HEADER_SIZE * 2 || segmentSize % 8 != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of 8 and at least 32 bytes");
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        // Never append into segments left by a previous process; they may end in a torn record
+        this.nextSequence = existingSegments(directory, prefix).stream()
+            .mapToLong(file -> MappedSegmentFormat.sequenceOf(file, prefix))
+            .max()
+            .orElse(-1L) + 1;
+        this.active = createSegment();
+        this.roller = new Thread(this::rollLoop, "MappedSegmentLog-Roller-" + prefix);
+        this.roller.setDaemon(true);
+        this.roller.start();
+    }
+
+    /**
+     * Append one record; returns false if the log is closed, the record can never fit a segment or no
+     * segment can be created for it
+     */
+    public boolean append(byte[] payload) {
+        int recordSize = MappedSegmentFormat.recordSize(payload.length);
+        if (payload.length == 0 || recordSize > segmentSize - HEADER_SIZE - RECORD_HEADER_SIZE) {
+            return false;
+        }
+        int commit = MappedSegmentFormat.commitWord(payload);
+        while (!closed) {
+            Segment segment = active;
+            long offset = segment.position.getAndAdd(recordSize);
+            if (offset + recordSize <= segment.capacity) {
+                segment.write((int) offset, payload, commit);
+                return true;
+            }
+            if (offset <= segment.capacity) {
+                // Exactly one claim crosses the end: it marks where readers stop and rolls
+                if (offset < segment.capacity) {
+                    INT.setRelease(segment.buffer, (int) offset, END_OF_SEGMENT);
+                }
+                if (!roll(segment)) {
+                    break;
+                }
+            } else if (!awaitRoll(segment)) {
+                break;
+            }
+        }
+        if (!closed) {
+            droppedRecords.increment();
+        }
+        return false;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Records dropped because no segment could be created for them
+     */
+    public long getDroppedRecords() {
+        return droppedRecords.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(roller);
+        try {
+            roller.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            retire(active);
+            Segment spare = standby;
+            standby = null;
+            if (spare != null) {
+                // Never written to; don't leave an empty segment behind
+                spare.channel.close();
+                Files.deleteIfExists(spare.file);
+            }
+            drainRetired();
+        }
+    }
+
+    // Whether appends can continue: a segment replaced the full one
+    private synchronized boolean roll(Segment full) {
+        if (active != full || closed) {
+            return !closed;
+        }
+        if (standby == null) {
+            // Roller fell behind; create the segment on this thread rather than stall
+            try {
+                standby = createSegment();
+            } catch (IOException e) {
+                // Producers drop until the roller manages to create one
+                stalled = true;
+                LockSupport.unpark(roller);
+                return false;
+            }
+        }
+        return promote(full);
+    }
+
+    // Install the standby segment in place of the full one; false if there is none
+    private synchronized boolean promote(Segment full) {
+        if (active != full) {
+            return !closed;
+        }
+        Segment next = standby;
+        if (next == null || closed) {
+            return false;
+        }
+        standby = null;
+        active = next;
+        stalled = false;
+        retire(full);
+        LockSupport.unpark(roller);
+        return true;
+    }
+
+    // Wait, bounded, for the producer rolling the full segment; take over if it failed or stopped
+    private boolean awaitRoll(Segment full) {
+        long deadline = System.nanoTime() + ROLL_WAIT_NANOS;
+        while (active == full && !closed) {
+            if (stalled) {
+                // Creating segments is failing; only take one the roller has ready
+                return promote(full);
+            }
+            if (System.nanoTime() - deadline > 0) {
+                return roll(full);
+            }
+            Thread.onSpinWait();
+        }
+        return !closed;
+    }
+
+    private void rollLoop() {
+        while (!closed) {
+            try {
+                if (standby == null) {
+                    Segment segment = createSegment();
+                    prefault(segment);
+                    synchronized (this) {
+                        if (closed || segment.sequence < active.sequence) {
+                            // Closed meanwhile, or a producer had to roll without us; segments must stay in order
+                            segment.channel.close();
+                            Files.deleteIfExists(segment.file);
+                            continue;
+                        }
+                        standby = segment;
+                    }
+                }
+                Segment current = active;
+                if (current.position.get() > current.capacity) {
+                    // Full with no roll in progress: the producer rolling it failed
+                    promote(current);
+                }
+                synchronized (this) {
+                    drainRetired();
+                }
+            } catch (IOException e) {
+                // Producers fall back to creating segments themselves
+            }
+            LockSupport.parkNanos(this, ROLLER_PARK_NANOS);
+        }
+    }
+
+    // Touch every page so producers don't take page faults on a fresh segment
+    private void prefault(Segment segment) {
+        for (int offset = HEADER_SIZE; offset < segment.capacity; offset += PAGE_SIZE) {
+            segment.buffer.put(offset, (byte) 0);
+        }
+    }
+
+    // Callers hold the monitor
+    private void retire(Segment segment) {
+        retired.add(segment);
+    }
+
+    // Callers hold the monitor
+    private void drainRetired() throws IOException {
+        boolean rolled = false;
+        Segment segment;
+        while ((segment = retired.poll()) != null) {
+            segment.buffer.force();
+            segment.channel.close();
+            rolled = true;
+        }
+        if (rolled && maxSegments > 0) {
+            List<Path> segments = existingSegments(directory, prefix);
+            for (int i = 0; i < segments.size() - maxSegments; i++) {
+                Path oldest = segments.get(i);
+                if (!oldest.equals(active.file) && (standby == null || !oldest.equals(standby.file))) {
+                    Files.deleteIfExists(oldest);
+                }
+            }
+        }
+    }
+
+    private synchronized Segment createSegment() throws IOException {
+        long sequence = nextSequence++;
+        Path file = directory.resolve(MappedSegmentFormat.fileName(prefix, sequence));
+        FileChannel channel = openSegment(file);
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            channel.close();
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        INT.set(buffer, 0, MAGIC);
+        INT.set(buffer, 4, VERSION);
+        LONG.set(buffer, 8, sequence);
+        return new Segment(sequence, file, channel, buffer);
+    }
+
+    // Package-private so tests can make segment creation fail
+    FileChannel openSegment(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    static List<Path> existingSegments(Path directory, String prefix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> MappedSegmentFormat.sequenceOf(file, prefix) >= 0)
+                .sorted((a, b) -> Long.compare(MappedSegmentFormat.sequenceOf(a, prefix),
+                                               MappedSegmentFormat.sequenceOf(b, prefix)))
+                .toList();
+        }
+    }
+
+    private static final class Segment {
+        private final long sequence;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final AtomicLong position = new AtomicLong(HEADER_SIZE);
+
+        private Segment(long sequence, Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        void write(int offset, byte[] payload, int commit) {
+            INT.set(buffer, offset, payload.length);
+            buffer.put(offset + RECORD_HEADER_SIZE, payload, 0, payload.length);
+            // Publishing the commit word last makes the record visible as complete
+            INT.setRelease(buffer, offset + 4, commit);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.thatworked.support.common.logging.mmap;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.END_OF_SEGMENT;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.HEADER_SIZE;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.INT;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.MAGIC;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.RECORD_HEADER_SIZE;
+import static io.thatworked.support.common.logging.mmap.MappedSegmentFormat.VERSION;
+
+/**
+ * Reads records back out of segment files written by {@link MappedSegmentLog}.
+ * <p>
+ * Only records whose commit word matches their payload are returned. Anything else - a record
+ * torn by a crash, or space claimed but never written - is skipped by scanning forward to the
+ * next valid record, so one damaged record never hides the rest of the segment.
+ */
+public final class MappedSegmentReader {
+
+    private MappedSegmentReader() {
+    }
+
+    /**
+     * Outcome of a read: complete records delivered and damaged regions skipped
+     */
+    public record Result(long records, long skipped, int segments) {
+
+        Result plus(Result other) {
+            return new Result(records + other.records, skipped + other.skipped, segments + other.segments);
+        }
+    }
+
+    /**
+     * Read every segment of {@code prefix} in {@code directory}, oldest first
+     */
+    public static Result read(Path directory, String prefix, Consumer<byte[]> consumer) throws IOException {
+        Result total = new Result(0, 0, 0);
+        for (Path segment : MappedSegmentLog.existingSegments(directory, prefix)) {
+            total = total.plus(readSegment(segment, consumer));
+        }
+        return total;
+    }
+
+    /**
+     * Read a single segment file
+     */
+    public static Result readSegment(Path file, Consumer<byte[]> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return new Result(0, 1, 1);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if ((int) INT.get(buffer, 0) != MAGIC || (int) INT.get(buffer, 4) != VERSION) {
+                return new Result(0, 1, 1);
+            }
+            return scan(buffer, consumer);
+        }
+    }
+
+    private static Result scan(MappedByteBuffer buffer, Consumer<byte[]> consumer) {
+        int capacity = buffer.capacity();
+        long records = 0;
+        long skipped = 0;
+        boolean damaged = false;
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= capacity) {
+            int length = (int) INT.get(buffer, position);
+            if (length == END_OF_SEGMENT) {
+                break;
+            }
+            if (isCommitted(buffer, position, length)) {
+                if (damaged) {
+                    skipped++;
+                    damaged = false;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(position + RECORD_HEADER_SIZE, payload);
+                consumer.accept(payload);
+                records++;
+                position += MappedSegmentFormat.recordSize(length);
+            } else {
+                // Not a complete record here; step to the next possible record boundary
+                damaged |= length != 0 || (int) INT.get(buffer, position + 4) != 0;
+                position += RECORD_HEADER_SIZE;
+            }
+        }
+        if (damaged) {
+            skipped++;
+        }
+        return new Result(records, skipped, 1);
+    }
+
+    private static boolean isCommitted(MappedByteBuffer buffer, int position, int length) {
+        if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_SIZE) {
+            return false;
+        }
+        int commit = (int) INT.get(buffer, position + 4);
+        return commit == MappedSegmentFormat.commitWord(buffer, position + RECORD_HEADER_SIZE, length);
+    }
+}
@@ -0,0 +1,54 @@
+package io.thatworked.support.common.logging.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A context value computed only if the event is encoded.
+ * <p>
+ * The supplier runs the first time the value is written, after the level and sampling checks, and
+ * its result is kept for any further encoding of the same event. With {@code STRUCTURED_ARGUMENTS}
+ * output that happens in the appender, possibly on its thread, so the supplier must not depend on
+ * state the caller changes after logging. A supplier that throws doesn't fail the event: the field is
+ * written as {@code "[unavailable: <exception type>]"}.
+ */
+public final class LazyValue {
+
+    private static final Object UNRESOLVED = new Object();
+
+    private final Supplier<?> supplier;
+    // Two threads encoding at once may both run the supplier; either result is kept
+    private volatile Object value = UNRESOLVED;
+
+    private LazyValue(Supplier<?> supplier) {
+        this.supplier = Objects.requireNonNull(supplier, "supplier");
+    }
+
+    public static LazyValue of(Supplier<?> supplier) {
+        return new LazyValue(supplier);
+    }
+
+    /**
+     * The supplied value, computing it on first use
+     */
+    @JsonValue
+    public Object get() {
+        Object current = value;
+        if (current == UNRESOLVED) {
+            try {
+                current = supplier.get();
+            } catch (RuntimeException e) {
+                current = "[unavailable: " + e.getClass().getName() + "]";
+            }
+            value = current;
+        }
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(get());
+    }
+}
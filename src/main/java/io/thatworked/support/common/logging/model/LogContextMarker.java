@@ -0,0 +1,52 @@
+package io.thatworked.support.common.logging.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import net.logstash.logback.marker.LogstashMarker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Marker carrying an event's {@link LogContext} to encoders that write events in their own format,
+ * so they don't have to parse the JSON message back.
+ * <p>
+ * {@code StructuredLogger} attaches it only while such an encoder is running (see {@link #register})
+ * and the logger neither limits nor redacts events, since the context it carries is the one logged;
+ * otherwise encoders read the message. It adds nothing to logstash output.
+ */
+public final class LogContextMarker extends LogstashMarker {
+
+    public static final String NAME = "LOG_CONTEXT";
+
+    private static final AtomicInteger consumers = new AtomicInteger();
+
+    private final transient LogContext logContext;
+
+    public LogContextMarker(LogContext logContext) {
+        super(NAME);
+        this.logContext = logContext;
+    }
+
+    public LogContext getLogContext() {
+        return logContext;
+    }
+
+    /**
+     * Called by an encoder when it starts; loggers attach the marker while any encoder is registered
+     */
+    public static void register() {
+        consumers.incrementAndGet();
+    }
+
+    public static void unregister() {
+        consumers.decrementAndGet();
+    }
+
+    public static boolean isRequested() {
+        return consumers.get() > 0;
+    }
+
+    @Override
+    public void writeTo(JsonGenerator generator) {
+        // The same fields are already in the message
+    }
+}
@@ -0,0 +1,280 @@
+package io.thatworked.support.common.logging.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Context fields of one log event, kept in insertion order in parallel arrays.
+ * <p>
+ * Numbers and booleans are stored unboxed, keys are not hashed, and {@code StructuredLogEncoder}
+ * writes the fields by type without asking Jackson to introspect them. It is also a {@code Map}
+ * (without {@code put}), so it can be passed wherever a context map is accepted; the map view boxes
+ * on access.
+ * <p>
+ * Instances from {@link #obtain()} are pooled per platform thread: the logger recycles them once the
+ * event is encoded, so they must not be used after being logged. Instances created with
+ * {@code new} are never recycled.
+ */
+public final class LogFields extends AbstractMap<String, Object> {
+
+    public static final byte LONG = 0;
+    public static final byte DOUBLE = 1;
+    public static final byte BOOLEAN = 2;
+    public static final byte STRING = 3;
+    public static final byte OBJECT = 4;
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int MAX_RETAINED_CAPACITY = 64;
+    private static final ThreadLocal<LogFields[]> SPARE = ThreadLocal.withInitial(() -> new LogFields[1]);
+
+    private final boolean pooled;
+    private boolean recycled;
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] primitives = new long[INITIAL_CAPACITY];
+    private Object[] references = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    public LogFields() {
+        this(false);
+    }
+
+    private LogFields(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    /**
+     * An empty instance from this thread's pool, recycled by the logger after the event is encoded
+     */
+    public static LogFields obtain() {
+        if (!Thread.currentThread().isVirtual()) {
+            LogFields[] spare = SPARE.get();
+            LogFields fields = spare[0];
+            if (fields != null) {
+                spare[0] = null;
+                fields.recycled = false;
+                return fields;
+            }
+        }
+        return new LogFields(true);
+    }
+
+    /**
+     * Return a pooled instance to the pool; does nothing for instances created with {@code new}
+     */
+    public void recycle() {
+        if (!pooled || recycled) {
+            return;
+        }
+        recycled = true;
+        if (keys.length > MAX_RETAINED_CAPACITY) {
+            // Don't keep one unusually wide event's arrays around
+            return;
+        }
+        clear();
+        if (!Thread.currentThread().isVirtual()) {
+            LogFields[] spare = SPARE.get();
+            if (spare[0] == null) {
+                spare[0] = this;
+            }
+        }
+    }
+
+    public LogFields with(String key, long value) {
+        // Slot first: it may grow the arrays
+        int index = slot(key, LONG);
+        primitives[index] = value;
+        return this;
+    }
+
+    public LogFields with(String key, double value) {
+        int index = slot(key, DOUBLE);
+        primitives[index] = Double.doubleToRawLongBits(value);
+        return this;
+    }
+
+    public LogFields with(String key, boolean value) {
+        int index = slot(key, BOOLEAN);
+        primitives[index] = value ? 1 : 0;
+        return this;
+    }
+
+    public LogFields with(String key, CharSequence value) {
+        int index = slot(key, value == null ? OBJECT : STRING);
+        references[index] = value;
+        return this;
+    }
+
+    /**
+     * Store a value of any type; boxed integers, doubles and booleans are unboxed
+     */
+    public LogFields with(String key, Object value) {
+        if (value instanceof CharSequence text) {
+            return with(key, text);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return with(key, ((Number) value).longValue());
+        } else if (value instanceof Double d) {
+            return with(key, d.doubleValue());
+        } else if (value instanceof Boolean b) {
+            return with(key, b.booleanValue());
+        }
+        int index = slot(key, OBJECT);
+        references[index] = value;
+        return this;
+    }
+
+    /**
+     * Store a value computed only if the event is encoded; see {@link LazyValue}
+     */
+    public LogFields withLazy(String key, Supplier<?> value) {
+        int index = slot(key, OBJECT);
+        references[index] = LazyValue.of(value);
+        return this;
+    }
+
+    /**
+     * Unpooled copy, for holding on to the fields beyond the logging call
+     */
+    public LogFields copy() {
+        LogFields copy = new LogFields(false);
+        int capacity = Math.max(size, INITIAL_CAPACITY);
+        copy.keys = Arrays.copyOf(keys, capacity);
+        copy.types = Arrays.copyOf(types, capacity);
+        copy.primitives = Arrays.copyOf(primitives, capacity);
+        copy.references = Arrays.copyOf(references, capacity);
+        copy.size = size;
+        return copy;
+    }
+
+    // Positional access for encoders
+
+    public String key(int index) {
+        return keys[index];
+    }
+
+    public byte type(int index) {
+        return types[index];
+    }
+
+    public long longAt(int index) {
+        return primitives[index];
+    }
+
+    public double doubleAt(int index) {
+        return Double.longBitsToDouble(primitives[index]);
+    }
+
+    public boolean booleanAt(int index) {
+        return primitives[index] != 0;
+    }
+
+    public Object referenceAt(int index) {
+        return references[index];
+    }
+
+    /**
+     * The value at an index, boxed
+     */
+    public Object valueAt(int index) {
+        return switch (types[index]) {
+            case LONG -> primitives[index];
+            case DOUBLE -> doubleAt(index);
+            case BOOLEAN -> booleanAt(index);
+            case STRING -> references[index].toString();
+            default -> references[index];
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(references, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(keys[index], valueAt(index));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Existing keys are overwritten in place, keeping their position, as in a LinkedHashMap
+    private int slot(String key, byte type) {
+        Objects.requireNonNull(key, "key");
+        int index = indexOf(key);
+        if (index < 0) {
+            if (size == keys.length) {
+                grow();
+            }
+            index = size++;
+            keys[index] = key;
+        }
+        types[index] = type;
+        references[index] = null;
+        return index;
+    }
+
+    private void grow() {
+        int capacity = keys.length << 1;
+        keys = Arrays.copyOf(keys, capacity);
+        types = Arrays.copyOf(types, capacity);
+        primitives = Arrays.copyOf(primitives, capacity);
+        references = Arrays.copyOf(references, capacity);
+    }
+}
@@ -0,0 +1,115 @@
+package io.thatworked.support.common.logging.performance;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in nanoseconds with log-linear buckets, as in HdrHistogram.
+ * <p>
+ * Values below 128ns get a bucket each; above that every power of two is split into 64 buckets,
+ * so a reported percentile is within 1/64 (about 1.6%) of the true value. Recording is one atomic
+ * increment; values above one hour are clamped. {@link #snapshotAndReset()} drains each bucket with
+ * an atomic swap, so concurrent recordings land either in this snapshot or in the next, never lost.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int LINEAR_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_BUCKETS = LINEAR_BUCKETS >> 1;
+    private static final long MAX_TRACKED_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int BUCKET_COUNT = bucketOf(MAX_TRACKED_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKED_NANOS);
+        counts.incrementAndGet(bucketOf(value));
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Everything recorded since the last snapshot, leaving the histogram empty
+     */
+    public Snapshot snapshotAndReset() {
+        long[] drained = new long[BUCKET_COUNT];
+        long total = 0;
+        int highest = -1;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts.get(i) != 0) {
+                drained[i] = counts.getAndSet(i, 0);
+                total += drained[i];
+                highest = i;
+            }
+        }
+        long recordedMax = max.getAndSet(0);
+        if (highest > 0) {
+            // A recording racing the drain can leave its count here and its max in the next interval
+            recordedMax = Math.max(recordedMax, highestValueIn(highest - 1) + 1);
+        }
+        return new Snapshot(drained, total, recordedMax);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        // Keep the top SUB_BUCKET_BITS - 1 bits below the leading one
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / HALF_BUCKETS - 1;
+        long subBucket = bucket - (long) shift * HALF_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable view of one interval's recordings
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxNanos() {
+            return max;
+        }
+
+        /**
+         * Smallest recorded value that the given percentage of recordings are at or below, in nanoseconds
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueIn(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
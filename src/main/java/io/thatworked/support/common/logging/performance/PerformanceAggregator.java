@@ -0,0 +1,136 @@
+package io.thatworked.support.common.logging.performance;
+
+import io.thatworked.support.common.logging.concurrent.LoggingScheduler;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Rolls performance measurements up per key and reports each key once per interval.
+ * <p>
+ * A key is typically an operation plus a few metric tags. Each keeps a striped total, a minimum and
+ * a {@link LatencyHistogram}, so recording never takes a lock. Every interval a flush on the shared
+ * {@link LoggingScheduler} hands each key that saw measurements a {@link Summary} through the
+ * callback registered with its first measurement, so N measurements produce one event per interval.
+ * <p>
+ * At most {@code maxKeys} keys are tracked; beyond that {@link #record} refuses new keys and the
+ * caller logs them individually. Keys idle for {@value #MAX_IDLE_INTERVALS} intervals are evicted,
+ * and reported once more on the next flush in case a measurement raced the eviction.
+ */
+public class PerformanceAggregator {
+
+    public static final int DEFAULT_MAX_KEYS = 1_000;
+    static final int MAX_IDLE_INTERVALS = 2;
+
+    private static final ConcurrentHashMap<Duration, PerformanceAggregator> SHARED = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Object, Series> series = new ConcurrentHashMap<>();
+    private final Queue<Series> evicted = new ConcurrentLinkedQueue<>();
+    private final int maxKeys;
+
+    public PerformanceAggregator(Duration interval, int maxKeys) {
+        this.maxKeys = maxKeys;
+        LoggingScheduler.scheduleAtFixedRate(this::flush, interval);
+    }
+
+    /**
+     * Shared aggregator for an interval, so loggers with the same options share one flush
+     */
+    public static PerformanceAggregator forInterval(Duration interval) {
+        return SHARED.computeIfAbsent(interval, i -> new PerformanceAggregator(i, DEFAULT_MAX_KEYS));
+    }
+
+    /**
+     * Record a measurement under a key; false if too many keys are tracked and the caller should log it
+     */
+    public boolean record(Object key, long nanos, Consumer<Summary> summary) {
+        Series current = series.get(key);
+        if (current == null) {
+            if (series.size() >= maxKeys) {
+                return false;
+            }
+            current = series.computeIfAbsent(key, k -> new Series(summary));
+        }
+        current.record(nanos);
+        return true;
+    }
+
+    int trackedKeys() {
+        return series.size();
+    }
+
+    /**
+     * Report every key measured since the last flush and evict idle ones
+     */
+    void flush() {
+        // Evicted last time; only a measurement racing the eviction can have arrived since
+        for (Series late = evicted.poll(); late != null; late = evicted.poll()) {
+            late.report();
+        }
+        series.forEach((key, current) -> {
+            if (current.report()) {
+                current.idleIntervals = 0;
+            } else if (++current.idleIntervals >= MAX_IDLE_INTERVALS && series.remove(key, current)) {
+                evicted.add(current);
+            }
+        });
+    }
+
+    /**
+     * One key's measurements over an interval
+     *
+     * @param minNanos   smallest measurement
+     * @param totalNanos sum of all measurements, for the mean
+     * @param latencies  distribution, with the count and maximum
+     */
+    public record Summary(long minNanos, long totalNanos, LatencyHistogram.Snapshot latencies) {
+
+        public long count() {
+            return latencies.getCount();
+        }
+
+        public long meanNanos() {
+            return totalNanos / latencies.getCount();
+        }
+    }
+
+    private static final class Series {
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Consumer<Summary> summary;
+        // Only touched by the flush
+        private int idleIntervals;
+
+        Series(Consumer<Summary> summary) {
+            this.summary = summary;
+        }
+
+        void record(long nanos) {
+            histogram.record(nanos);
+            total.add(nanos);
+            long currentMin = min.get();
+            while (nanos < currentMin && !min.compareAndSet(currentMin, nanos)) {
+                currentMin = min.get();
+            }
+        }
+
+        // Returns false if nothing was measured since the last report
+        boolean report() {
+            LatencyHistogram.Snapshot latencies = histogram.snapshotAndReset();
+            if (latencies.getCount() == 0) {
+                return false;
+            }
+            // Total and minimum are drained separately from the histogram; a racing measurement can
+            // shift between intervals, but the minimum never exceeds the lowest recorded bucket
+            long minNanos = Math.min(min.getAndSet(Long.MAX_VALUE), latencies.valueAtPercentile(0));
+            summary.accept(new Summary(minNanos, total.sumThenReset(), latencies));
+            return true;
+        }
+    }
+}
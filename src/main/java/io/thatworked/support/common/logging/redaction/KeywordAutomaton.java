@@ -0,0 +1,97 @@
+package io.thatworked.support.common.logging.redaction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aho-Corasick automaton over ASCII keywords, matched exactly or ignoring case.
+ * <p>
+ * The trie and its failure links are compiled into a full transition table, so scanning costs one
+ * array read per character however many keywords there are. Characters outside ASCII lead back to
+ * the start state.
+ */
+final class KeywordAutomaton {
+
+    static final int ALPHABET = 128;
+    static final int SHIFT = 7;
+
+    // Read directly by scanning loops: state << SHIFT | c indexes the next state
+    final int[] transitions;
+    final int[] matchLengths;
+
+    KeywordAutomaton(Collection<String> keywords, boolean ignoreCase) {
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        trie.add(new int[ALPHABET]);
+        lengths.add(0);
+        for (String keyword : keywords) {
+            String folded = ignoreCase ? keyword.toLowerCase(Locale.ROOT) : keyword;
+            if (folded.isEmpty()) {
+                throw new IllegalArgumentException("Empty keyword");
+            }
+            int state = 0;
+            for (int i = 0; i < folded.length(); i++) {
+                char c = folded.charAt(i);
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("Keyword '" + keyword + "' is not ASCII");
+                }
+                if (trie.get(state)[c] == 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(new int[ALPHABET]);
+                    lengths.add(0);
+                }
+                state = trie.get(state)[c];
+            }
+            lengths.set(state, folded.length());
+        }
+
+        int states = trie.size();
+        transitions = new int[states * ALPHABET];
+        matchLengths = new int[states];
+        int[] failure = new int[states];
+        // Breadth first, so a state's failure target is complete before the state itself
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] children = trie.get(state);
+            matchLengths[state] = lengths.get(state) > 0 ? lengths.get(state) : matchLengths[failure[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = children[c];
+                if (child != 0) {
+                    failure[child] = state == 0 ? 0 : transitions[failure[state] << SHIFT | c];
+                    transitions[state << SHIFT | c] = child;
+                    queue.add(child);
+                } else {
+                    transitions[state << SHIFT | c] = state == 0 ? 0 : transitions[failure[state] << SHIFT | c];
+                }
+            }
+        }
+        if (!ignoreCase) {
+            return;
+        }
+        // Upper case letters follow their lower case transitions
+        for (int state = 0; state < states; state++) {
+            for (int c = 'A'; c <= 'Z'; c++) {
+                transitions[state << SHIFT | c] = transitions[state << SHIFT | c - 'A' + 'a'];
+            }
+        }
+    }
+
+    boolean containsAny(String text) {
+        int[] transitions = this.transitions;
+        int[] matchLengths = this.matchLengths;
+        int state = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            state = c < ALPHABET ? transitions[state << SHIFT | c] : 0;
+            if (matchLengths[state] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
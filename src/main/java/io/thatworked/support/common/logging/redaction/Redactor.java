@@ -0,0 +1,239 @@
+package io.thatworked.support.common.logging.redaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import static io.thatworked.support.common.logging.redaction.KeywordAutomaton.ALPHABET;
+import static io.thatworked.support.common.logging.redaction.KeywordAutomaton.SHIFT;
+
+/**
+ * Finds secrets and personal data in log fields, for the encoder to replace with {@value #REDACTED}.
+ * <p>
+ * Field names are matched against key fragments ({@code password} covers {@code dbPassword}), compiled
+ * into one {@link KeywordAutomaton}, ignoring case. String values are scanned once, left to right: two
+ * more automata find token prefixes ({@code Bearer }, {@code eyJ} for JWTs, {@code AKIA} for AWS
+ * keys...), and the same pass picks up e-mail addresses at each {@code @} and digit runs that form a
+ * valid card number (13 to 19 digits, optionally grouped by spaces or dashes, passing the Luhn check).
+ * A value without findings is returned as is, without copying.
+ */
+public final class Redactor {
+
+    public static final String REDACTED = "[REDACTED]";
+
+    public static final List<String> DEFAULT_KEYS = List.of(
+        "password", "passwd", "secret", "token", "authorization", "apikey", "api_key", "api-key",
+        "credential", "cookie", "privatekey", "private_key", "ssn", "cardnumber", "card_number", "cvv");
+
+    /**
+     * Prefixes ending in a separator keep the prefix and redact what follows; others redact the whole token.
+     * A prefix written in lower case matches in any case; one with upper case letters only as written, so
+     * {@code AKIA} doesn't match "Akiak" nor {@code eyJ} "Eyjafjallajökull".
+     */
+    public static final List<String> DEFAULT_TOKEN_PREFIXES = List.of(
+        "bearer ", "eyJ", "AKIA", "ASIA", "ghp_", "gho_", "github_pat_", "sk_live_", "sk_test_",
+        "xoxb-", "xoxp-", "password=", "secret=", "token=", "api_key=", "apikey=");
+
+    private static final int MIN_CARD_DIGITS = 13;
+    private static final int MAX_CARD_DIGITS = 19;
+
+    private final KeywordAutomaton keys;
+    private final KeywordAutomaton tokenPrefixes;
+    private final KeywordAutomaton exactTokenPrefixes;
+    private final boolean emails;
+    private final boolean cardNumbers;
+
+    public Redactor(Collection<String> keys, Collection<String> tokenPrefixes, boolean emails, boolean cardNumbers) {
+        this.keys = new KeywordAutomaton(keys, true);
+        List<String> lowerCase = new ArrayList<>();
+        List<String> exact = new ArrayList<>();
+        for (String prefix : tokenPrefixes) {
+            (prefix.equals(prefix.toLowerCase(Locale.ROOT)) ? lowerCase : exact).add(prefix);
+        }
+        this.tokenPrefixes = new KeywordAutomaton(lowerCase, true);
+        this.exactTokenPrefixes = new KeywordAutomaton(exact, false);
+        this.emails = emails;
+        this.cardNumbers = cardNumbers;
+    }
+
+    public static Redactor defaults() {
+        return new Redactor(DEFAULT_KEYS, DEFAULT_TOKEN_PREFIXES, true, true);
+    }
+
+    /**
+     * Whether a field's whole value is replaced, by its name
+     */
+    public boolean isSensitiveKey(String key) {
+        return key != null && keys.containsAny(key);
+    }
+
+    /**
+     * The text with every finding replaced by {@value #REDACTED}; the same instance if there are none
+     */
+    public String redact(String text) {
+        if (text == null) {
+            return null;
+        }
+        int[] transitions = tokenPrefixes.transitions;
+        int[] matchLengths = tokenPrefixes.matchLengths;
+        int[] exactTransitions = exactTokenPrefixes.transitions;
+        int[] exactMatchLengths = exactTokenPrefixes.matchLengths;
+        StringBuilder redacted = null;
+        int copied = 0;
+        int state = 0;
+        int exactState = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < ALPHABET) {
+                state = transitions[state << SHIFT | c];
+                exactState = exactTransitions[exactState << SHIFT | c];
+            } else {
+                state = 0;
+                exactState = 0;
+            }
+            int prefix = Math.max(matchLengths[state], exactMatchLengths[exactState]);
+            if (prefix == 0 && c != '@' && !isDigit(c)) {
+                // Nearly every character: no finding can start here
+                continue;
+            }
+            int start = -1;
+            int end = -1;
+            if (prefix != 0 && isBoundary(text, i - prefix + 1, copied)) {
+                int tokenStart = isSeparator(c) ? i + 1 : i - prefix + 1;
+                int tokenEnd = tokenEnd(text, i + 1);
+                if (tokenEnd > i + 1) {
+                    start = tokenStart;
+                    end = tokenEnd;
+                }
+            } else if (c == '@' && emails) {
+                int localStart = i;
+                while (localStart > copied && isEmailChar(text.charAt(localStart - 1))) {
+                    localStart--;
+                }
+                int domainEnd = domainEnd(text, i + 1);
+                if (localStart < i && domainEnd > 0) {
+                    start = localStart;
+                    end = domainEnd;
+                }
+            } else if (cardNumbers && isDigit(c) && isBoundary(text, i, copied)) {
+                end = cardNumberEnd(text, i);
+                if (end > 0) {
+                    start = i;
+                } else {
+                    // Skip the rest of the digit run, keeping the scan linear
+                    while (i + 1 < length && isDigit(text.charAt(i + 1))) {
+                        i++;
+                    }
+                    state = 0;
+                    exactState = 0;
+                }
+            }
+            if (start >= 0) {
+                if (redacted == null) {
+                    redacted = new StringBuilder(length);
+                }
+                redacted.append(text, copied, start).append(REDACTED);
+                copied = end;
+                i = end - 1;
+                state = 0;
+                exactState = 0;
+            }
+        }
+        if (redacted == null) {
+            return text;
+        }
+        return redacted.append(text, copied, length).toString();
+    }
+
+    // A finding can't start inside a word, nor inside text already redacted
+    private static boolean isBoundary(String text, int start, int copied) {
+        return start >= copied && (start == 0 || !isLetterOrDigit(text.charAt(start - 1)));
+    }
+
+    private static int tokenEnd(String text, int from) {
+        int end = from;
+        while (end < text.length() && isTokenChar(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    // End of a domain with at least one dot after the '@' at from - 1, or -1
+    private static int domainEnd(String text, int from) {
+        int end = from;
+        int lastDot = -1;
+        while (end < text.length() && (isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '-'
+                || text.charAt(end) == '.')) {
+            if (text.charAt(end) == '.') {
+                lastDot = end;
+            }
+            end++;
+        }
+        // Drop a trailing dot, as at the end of a sentence
+        if (end > from && text.charAt(end - 1) == '.') {
+            end--;
+            lastDot = text.lastIndexOf('.', end - 1);
+        }
+        return lastDot > from && lastDot < end - 1 ? end : -1;
+    }
+
+    // End of a card number starting at from, or -1
+    private static int cardNumberEnd(String text, int from) {
+        int length = text.length();
+        int digits = 0;
+        int end = from;
+        while (end < length) {
+            char c = text.charAt(end);
+            if (isDigit(c)) {
+                if (++digits > MAX_CARD_DIGITS) {
+                    return -1;
+                }
+                end++;
+            } else if ((c == ' ' || c == '-') && end + 1 < length && isDigit(text.charAt(end + 1))) {
+                end++;
+            } else {
+                break;
+            }
+        }
+        if (digits < MIN_CARD_DIGITS || (end < length && isLetterOrDigit(text.charAt(end)))) {
+            return -1;
+        }
+        // Luhn check, doubling every second digit from the last
+        int sum = 0;
+        boolean doubled = false;
+        for (int i = end - 1; i >= from; i--) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                int value = c - '0';
+                if (doubled) {
+                    value = value > 4 ? value * 2 - 9 : value * 2;
+                }
+                sum += value;
+                doubled = !doubled;
+            }
+        }
+        return sum % 10 == 0 ? end : -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '=' || c == ':';
+    }
+
+    private static boolean isTokenChar(char c) {
+        return isLetterOrDigit(c) || c == '-' || c == '_' || c == '.' || c == '/' || c == '+' || c == '=';
+    }
+
+    private static boolean isEmailChar(char c) {
+        return isLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+}
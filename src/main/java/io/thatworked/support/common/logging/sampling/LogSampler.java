@@ -0,0 +1,32 @@
+package io.thatworked.support.common.logging.sampling;
+
+import io.thatworked.support.common.logging.error.ErrorCode;
+
+/**
+ * Per-logger view of a {@link SamplingPolicy}, consulted before an event is built.
+ */
+public final class LogSampler {
+    
+    /** Context key carrying an event's error code, as in {@code with("errorCode", ...)} */
+    public static final String ERROR_CODE_KEY = "errorCode";
+    
+    private final SamplingPolicy.CompiledRule[] rules;
+    
+    LogSampler(SamplingPolicy.CompiledRule[] rules) {
+        this.rules = rules;
+    }
+    
+    /**
+     * Whether an event should be logged; events no rule matches always are
+     */
+    public boolean allow(String level, Object errorCode, String message) {
+        String code = errorCode instanceof ErrorCode known ? known.getCode()
+            : errorCode == null ? null : errorCode.toString();
+        for (SamplingPolicy.CompiledRule rule : rules) {
+            if (rule.matches(level, code, message)) {
+                return rule.allow();
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+package io.thatworked.support.common.logging.sampling;
+
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.concurrent.LoggingScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ordered set of {@link SamplingRule}s; the first rule matching an event decides whether it is logged.
+ * <p>
+ * Each rule has one rate limit shared by every logger it applies to. Suppressed events are counted
+ * per rule and reported every {@code summaryInterval} as one WARN event per rule that dropped anything.
+ */
+public class SamplingPolicy {
+    
+    public static final Duration DEFAULT_SUMMARY_INTERVAL = Duration.ofMinutes(1);
+    
+    private final List<CompiledRule> rules = new ArrayList<>();
+    private final Duration summaryInterval;
+    private final String serviceName;
+    private volatile StructuredLogger summaryLogger;
+    
+    public SamplingPolicy(List<SamplingRule> rules, Duration summaryInterval, String serviceName) {
+        for (SamplingRule rule : rules) {
+            if (rule.getSampleRate() < 0 || rule.getSampleRate() > 1) {
+                throw new IllegalArgumentException("Sample rate must be between 0 and 1: " + rule.describe());
+            }
+            this.rules.add(new CompiledRule(rule));
+        }
+        this.summaryInterval = summaryInterval;
+        this.serviceName = serviceName;
+        if (!rules.isEmpty()) {
+            LoggingScheduler.scheduleAtFixedRate(this::reportSuppressed, summaryInterval);
+        }
+    }
+    
+    /**
+     * Sampler for one logger holding only the rules that can apply to it, or null if none can
+     */
+    public LogSampler forLogger(String loggerName) {
+        List<CompiledRule> applicable = new ArrayList<>();
+        for (CompiledRule rule : rules) {
+            if (rule.rule.appliesToLogger(loggerName)) {
+                applicable.add(rule);
+            }
+        }
+        return applicable.isEmpty() ? null : new LogSampler(applicable.toArray(new CompiledRule[0]));
+    }
+    
+    void reportSuppressed() {
+        for (CompiledRule rule : rules) {
+            long suppressed = rule.suppressed.sumThenReset();
+            if (suppressed > 0) {
+                summaryLogger().with("rule", rule.rule.describe())
+                    .with("suppressed", suppressed)
+                    .with("windowSeconds", summaryInterval.toSeconds())
+                    .warn("Log events suppressed by sampling");
+            }
+        }
+    }
+    
+    // Created on first use; this logger has no sampling, so summaries are never themselves dropped
+    private StructuredLogger summaryLogger() {
+        StructuredLogger current = summaryLogger;
+        if (current == null) {
+            current = StructuredLogger.getLogger(SamplingPolicy.class, serviceName);
+            summaryLogger = current;
+        }
+        return current;
+    }
+    
+    static final class CompiledRule {
+        private final SamplingRule rule;
+        private final TokenBucket bucket;
+        private final LongAdder suppressed = new LongAdder();
+        
+        CompiledRule(SamplingRule rule) {
+            this.rule = rule;
+            if (rule.getRatePerSecond() > 0) {
+                int burst = rule.getBurst() != null ? rule.getBurst()
+                    : (int) Math.max(1, Math.ceil(rule.getRatePerSecond()));
+                this.bucket = new TokenBucket(rule.getRatePerSecond(), burst);
+            } else {
+                this.bucket = null;
+            }
+        }
+        
+        boolean matches(String level, String errorCode, String message) {
+            return rule.matches(level, errorCode, message);
+        }
+        
+        boolean allow() {
+            double sampleRate = rule.getSampleRate();
+            boolean keep = sampleRate >= 1.0
+                || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+            if (keep && (bucket == null || bucket.tryAcquire())) {
+                return true;
+            }
+            suppressed.increment();
+            return false;
+        }
+    }
+}
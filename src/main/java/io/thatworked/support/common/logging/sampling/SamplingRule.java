@@ -0,0 +1,76 @@
+package io.thatworked.support.common.logging.sampling;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * One rate-limit / sampling rule.
+ * <p>
+ * Match fields left null match anything. {@code logger} matches that logger and those below it in the
+ * dotted hierarchy; {@code errorCode} and {@code message} match exactly or, ending in {@code *}, by
+ * prefix. A matching event is sampled with probability {@code sampleRate} and then, if
+ * {@code ratePerSecond} is positive, rate limited.
+ * A rule with the defaults (sample everything, no limit) exempts its events from later rules.
+ */
+@Getter
+@Builder
+public class SamplingRule {
+    
+    private final String logger;
+    private final String level;
+    private final String errorCode;
+    private final String message;
+    
+    /** Events per second allowed through; zero or less means unlimited */
+    private final double ratePerSecond;
+    
+    /** Burst size for the rate limit; defaults to one second's worth */
+    private final Integer burst;
+    
+    /** Fraction of matching events kept, from 0.0 to 1.0 */
+    @Builder.Default
+    private final double sampleRate = 1.0;
+    
+    // com.example.cache covers com.example.cache.Loader but not com.example.cachewarmer
+    boolean appliesToLogger(String loggerName) {
+        return logger == null || loggerName.startsWith(logger)
+            && (loggerName.length() == logger.length() || loggerName.charAt(logger.length()) == '.');
+    }
+    
+    boolean matches(String eventLevel, String eventErrorCode, String eventMessage) {
+        return (level == null || level.equalsIgnoreCase(eventLevel))
+            && matches(errorCode, eventErrorCode)
+            && matches(message, eventMessage);
+    }
+    
+    private static boolean matches(String pattern, String value) {
+        if (pattern == null) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        if (pattern.endsWith("*")) {
+            return value.regionMatches(0, pattern, 0, pattern.length() - 1);
+        }
+        return pattern.equals(value);
+    }
+    
+    String describe() {
+        StringBuilder sb = new StringBuilder();
+        append(sb, "logger", logger);
+        append(sb, "level", level);
+        append(sb, "errorCode", errorCode);
+        append(sb, "message", message);
+        return sb.isEmpty() ? "*" : sb.toString();
+    }
+    
+    private static void append(StringBuilder sb, String name, String value) {
+        if (value != null) {
+            if (!sb.isEmpty()) {
+                sb.append(',');
+            }
+            sb.append(name).append('=').append(value);
+        }
+    }
+}
@@ -4,13 +4,21 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
+import io.thatworked.support.common.logging.config.LogOutputMode;
+import io.thatworked.support.common.logging.config.StructuredLoggerOptions;
 import io.thatworked.support.common.logging.correlation.CorrelationIdConstants;
+import io.thatworked.support.common.logging.encoder.SerializationLimits;
 import io.thatworked.support.common.logging.error.ErrorCode;
+import io.thatworked.support.common.logging.redaction.Redactor;
+import io.thatworked.support.common.logging.sampling.SamplingPolicy;
+import io.thatworked.support.common.logging.sampling.SamplingRule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -76,6 +84,32 @@ class StructuredLoggerIntegrationTest {
         assertTrue(message.contains("test"));
     }
     
+    @Test
+    void testLazyAndNullValues() {
+        structuredLogger.with("orderId", null)
+                       .withLazy("summary", () -> "computed")
+                       .info("Order accepted");
+        
+        String message = listAppender.list.get(0).getFormattedMessage();
+        assertTrue(message.contains("\"orderId\":null"), message);
+        assertTrue(message.contains("\"summary\":\"computed\""), message);
+    }
+    
+    @Test
+    void testReusedContextBuilderLogsItsNewContext() {
+        StructuredLogger.ContextBuilder builder = structuredLogger.with("userId", "12345");
+        builder.info("First");
+        builder.with("action", "retry").warn("Second");
+        builder.info("Third");
+        
+        assertEquals(3, listAppender.list.size());
+        assertTrue(listAppender.list.get(0).getFormattedMessage().contains("\"userId\":\"12345\""));
+        String second = listAppender.list.get(1).getFormattedMessage();
+        assertTrue(second.contains("\"action\":\"retry\""), second);
+        assertFalse(second.contains("12345"), second);
+        assertTrue(listAppender.list.get(2).getFormattedMessage().contains("\"context\":null"));
+    }
+    
     @Test
     void testErrorLogging() {
         Exception testException = new RuntimeException("Test error");
@@ -117,4 +151,140 @@ class StructuredLoggerIntegrationTest {
         assertTrue(message.contains("/api/secure"));
         assertTrue(message.contains("false"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testStructuredArgumentsMode() {
+        StructuredLogger structured = StructuredLogger.getLogger(StructuredLoggerIntegrationTest.class, "test-service",
+            StructuredLoggerOptions.builder().outputMode(LogOutputMode.STRUCTURED_ARGUMENTS).build());
+        
+        structured.with("userId", "12345")
+                  .info("Action performed");
+        
+        assertEquals(1, listAppender.list.size());
+        ILoggingEvent event = listAppender.list.get(0);
+        assertEquals("Action performed", event.getFormattedMessage());
+        assertNotNull(event.getMarkerList());
+        assertTrue(event.getMarkerList().get(0).toString().contains("12345"));
+    }
+    
+    @Test
+    void testStructuredArgumentsModeRedactsMarkers() {
+        StructuredLogger structured = StructuredLogger.getLogger(StructuredLoggerIntegrationTest.class, "test-service",
+            StructuredLoggerOptions.builder()
+                .outputMode(LogOutputMode.STRUCTURED_ARGUMENTS)
+                .redactor(Redactor.defaults())
+                .build());
+        
+        structured.with("password", "hunter2")
+                  .with("userId", "12345")
+                  .info("Login by bob@example.com");
+        
+        assertEquals(1, listAppender.list.size());
+        ILoggingEvent event = listAppender.list.get(0);
+        assertEquals("Login by [REDACTED]", event.getFormattedMessage());
+        String marker = event.getMarkerList().get(0).toString();
+        assertTrue(marker.contains("12345"), marker);
+        assertFalse(marker.contains("hunter2"), marker);
+    }
+    
+    @Test
+    void testStructuredArgumentsModeAppliesLimits() {
+        StructuredLogger structured = StructuredLogger.getLogger(StructuredLoggerIntegrationTest.class, "test-service",
+            StructuredLoggerOptions.builder()
+                .outputMode(LogOutputMode.STRUCTURED_ARGUMENTS)
+                .serializationLimits(new SerializationLimits(10_000, 1_000, 8, 8, 3))
+                .build());
+        
+        structured.with("note", "0123456789abc")
+                  .with("items", List.of(1, 2, 3, 4, 5))
+                  .info("A message longer than eight characters");
+        
+        assertEquals(1, listAppender.list.size());
+        ILoggingEvent event = listAppender.list.get(0);
+        assertEquals("A messag...[truncated]", event.getFormattedMessage());
+        String marker = event.getMarkerList().get(0).toString();
+        assertTrue(marker.contains("01234567...[truncated]"), marker);
+        assertTrue(marker.contains("[1,2,3,\"[truncated]\"]"), marker);
+    }
+    
+    @Test
+    void testDisabledLevelsAreSkipped() {
+        logger.setLevel(Level.WARN);
+        
+        structuredLogger.info("Not logged");
+        structuredLogger.performance("test.operation", 1L, null);
+        structuredLogger.atInfo().with("userId", "12345").log("Not logged");
+        structuredLogger.atWarn().with("userId", "12345").log("Logged");
+        
+        assertEquals(1, listAppender.list.size());
+        assertEquals(Level.WARN, listAppender.list.get(0).getLevel());
+        assertSame(structuredLogger.atInfo(), structuredLogger.atDebug());
+    }
+    
+    @Test
+    void testRepeatedErrorsAreMerged() throws Exception {
+        StructuredLogger merging = StructuredLogger.getLogger(StructuredLoggerIntegrationTest.class, "test-service",
+            StructuredLoggerOptions.builder().errorRepeatWindow(Duration.ofMillis(200)).build());
+        
+        for (int i = 0; i < 100; i++) {
+            merging.error("Query failed", new IllegalStateException("connection reset"));
+        }
+        assertEquals(1, listAppender.list.size());
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        while (listAppender.list.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, listAppender.list.size());
+        String summary = listAppender.list.get(1).getFormattedMessage();
+        assertTrue(summary.contains("\"repeatCount\":99"));
+        assertTrue(summary.contains("IllegalStateException"));
+    }
+    
+    @Test
+    void testRateLimitedByErrorCode() {
+        SamplingPolicy sampling = new SamplingPolicy(List.of(
+            SamplingRule.builder().errorCode("DB_002").ratePerSecond(1).burst(3).build()
+        ), Duration.ofHours(1), "test-service");
+        StructuredLogger limited = StructuredLogger.getLogger(StructuredLoggerIntegrationTest.class, "test-service",
+            StructuredLoggerOptions.builder().sampling(sampling).build());
+        
+        for (int i = 0; i < 50; i++) {
+            limited.with("errorCode", ErrorCode.DB_002).error("Query failed", null);
+            limited.with("errorCode", ErrorCode.DB_001).error("Connection failed", null);
+        }
+        
+        assertEquals(53, listAppender.list.size());
+    }
+    
+    @Test
+    void testPerformanceSummariesBypassSamplingPerService() throws Exception {
+        SamplingPolicy sampling = new SamplingPolicy(List.of(
+            SamplingRule.builder().level("INFO").sampleRate(0.0).build()
+        ), Duration.ofHours(1), "test-service");
+        StructuredLoggerOptions options = StructuredLoggerOptions.builder()
+            .sampling(sampling)
+            .performanceAggregationInterval(Duration.ofMillis(50))
+            .build();
+        StructuredLogger orders = StructuredLogger.getLogger(StructuredLoggerIntegrationTest.class, "orders", options);
+        StructuredLogger billing = StructuredLogger.getLogger(StructuredLoggerIntegrationTest.class, "billing", options);
+        
+        for (int i = 0; i < 10; i++) {
+            orders.measure("load", () -> "ok");
+            billing.measure("load", () -> "ok");
+        }
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        while (listAppender.list.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(100);
+        assertEquals(2, listAppender.list.size());
+        assertEquals(1, listAppender.list.stream()
+            .filter(e -> e.getFormattedMessage().contains("\"service\":\"orders\"")).count());
+        assertEquals(1, listAppender.list.stream()
+            .filter(e -> e.getFormattedMessage().contains("\"service\":\"billing\"")).count());
+        assertTrue(listAppender.list.stream()
+            .allMatch(e -> e.getFormattedMessage().contains("\"count\":10")));
+    }
+}
@@ -1,11 +1,18 @@
 package io.thatworked.support.common.logging;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.thatworked.support.common.logging.config.StructuredLoggerOptions;
 import io.thatworked.support.common.logging.correlation.CorrelationIdConstants;
 import io.thatworked.support.common.logging.error.ErrorCode;
+import io.thatworked.support.common.logging.error.ErrorIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -81,6 +88,17 @@ class StructuredLoggerTest {
         assertEquals("success", result);
     }
     
+    @Test
+    void testMeasureRethrowsExceptionWithoutMessage() {
+        // The failure metrics used to NPE on a null message, hiding the original exception
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+            logger.measure("test.operation", () -> {
+                throw new IllegalStateException();
+            }));
+        
+        assertNull(thrown.getMessage());
+    }
+    
     @Test
     void testCorrelationId() {
         String correlationId = UUID.randomUUID().toString();
@@ -107,4 +125,41 @@ class StructuredLoggerTest {
                   .error("Database connection failed", new RuntimeException("Connection refused"))
         );
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testErrorCodeOverloadsRecordIntoErrorIndex() {
+        ErrorIndex errorIndex = new ErrorIndex();
+        StructuredLogger indexed = StructuredLogger.getLogger(StructuredLoggerTest.class, "test-service",
+            StructuredLoggerOptions.builder().errorIndex(errorIndex).build());
+        
+        indexed.error(ErrorCode.DB_001, "Database connection failed", new RuntimeException("Connection refused"));
+        indexed.with("errorCode", ErrorCode.NET_001).error("Call failed", null);
+        
+        List<ErrorIndex.ErrorStats> top = errorIndex.top(10, Duration.ofMinutes(1));
+        assertEquals(2, top.size());
+        assertTrue(top.stream().anyMatch(stats -> "DB_001".equals(stats.code())
+            && RuntimeException.class.getName().equals(stats.exceptionType())));
+        assertTrue(top.stream().anyMatch(stats -> "NET_001".equals(stats.code())));
+    }
+    
+    @Test
+    void testErrorsFromDisabledBuildersAreIndexed() {
+        ErrorIndex errorIndex = new ErrorIndex();
+        StructuredLogger indexed = StructuredLogger.getLogger(StructuredLoggerTest.class, "test-service",
+            StructuredLoggerOptions.builder().errorIndex(errorIndex).build());
+        Logger underlying = (Logger) LoggerFactory.getLogger(StructuredLoggerTest.class);
+        Level previous = underlying.getLevel();
+        underlying.setLevel(Level.OFF);
+        try {
+            indexed.with("errorCode", ErrorCode.NET_001).error("Call failed", null);
+            indexed.atDebug().error(ErrorCode.DB_001, "Query failed", null);
+        } finally {
+            underlying.setLevel(previous);
+        }
+        
+        List<ErrorIndex.ErrorStats> top = errorIndex.top(10, Duration.ofMinutes(1));
+        assertEquals(2, top.size());
+        assertTrue(top.stream().anyMatch(stats -> "NET_001".equals(stats.code())));
+        assertTrue(top.stream().anyMatch(stats -> "DB_001".equals(stats.code())));
+    }
+}
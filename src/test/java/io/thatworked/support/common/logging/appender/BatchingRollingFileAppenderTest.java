@@ -0,0 +1,132 @@
+package io.thatworked.support.common.logging.appender;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingRollingFileAppenderTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private LoggerContext context;
+    private Logger logger;
+    private Path logFile;
+    
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        logger = context.getLogger("batching-test");
+        logFile = tempDir.resolve("app.log");
+    }
+    
+    @Test
+    void testWritesEveryEventOnStop() throws Exception {
+        BatchingRollingFileAppender<ILoggingEvent> appender = createAppender(Duration.buildBySeconds(60));
+        
+        for (int i = 0; i < 5000; i++) {
+            logger.info("event {}", i);
+        }
+        appender.stop();
+        
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(5000, lines.size());
+        assertEquals("event 0", lines.get(0));
+        assertEquals("event 4999", lines.get(4999));
+    }
+    
+    @Test
+    void testFlushesWithinTimeBound() throws Exception {
+        BatchingRollingFileAppender<ILoggingEvent> appender = createAppender(Duration.buildByMilliseconds(50));
+        
+        logger.info("first");
+        assertEquals(0, Files.size(logFile));
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.size(logFile) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("first"), Files.readAllLines(logFile));
+        appender.stop();
+    }
+    
+    @Test
+    void testRecoversAfterFailedWriteWithoutStopping() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        BatchingRollingFileAppender<ILoggingEvent> appender = new BatchingRollingFileAppender<>() {
+            @Override
+            void writeFully(ByteBuffer bytes) throws IOException {
+                if (failing.get()) {
+                    throw new IOException("No space left on device");
+                }
+                super.writeFully(bytes);
+            }
+        };
+        appender.setBatchSize(new FileSize(16));
+        configure(appender, Duration.buildBySeconds(60));
+        
+        // Each line is 7 bytes, so every third event flushes the two before it
+        logger.info("lost 1");
+        logger.info("lost 2");
+        logger.info("lost 3");
+        assertTrue(appender.isStarted());
+        failing.set(false);
+        Thread.sleep(100);
+        logger.info("kept 1");
+        logger.info("kept 2");
+        appender.stop();
+        
+        assertEquals(List.of("lost 3", "kept 1", "kept 2"), Files.readAllLines(logFile));
+        long errors = context.getStatusManager().getCopyOfStatusList().stream()
+            .filter(status -> status.getOrigin() == appender && status.getLevel() == Status.ERROR)
+            .count();
+        assertEquals(1, errors);
+    }
+    
+    private BatchingRollingFileAppender<ILoggingEvent> createAppender(Duration flushInterval) {
+        return configure(new BatchingRollingFileAppender<>(), flushInterval);
+    }
+    
+    private BatchingRollingFileAppender<ILoggingEvent> configure(BatchingRollingFileAppender<ILoggingEvent> appender,
+                                                                 Duration flushInterval) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        
+        appender.setContext(context);
+        appender.setName("file");
+        appender.setFile(logFile.toString());
+        appender.setEncoder(encoder);
+        appender.setFlushInterval(flushInterval);
+        
+        TimeBasedRollingPolicy<ILoggingEvent> policy = new TimeBasedRollingPolicy<>();
+        policy.setContext(context);
+        policy.setParent(appender);
+        policy.setFileNamePattern(tempDir.resolve("app.log.%d{yyyy-MM-dd}.gz").toString());
+        policy.setMaxHistory(30);
+        policy.start();
+        appender.setRollingPolicy(policy);
+        
+        appender.start();
+        logger.addAppender(appender);
+        return appender;
+    }
+}
@@ -0,0 +1,101 @@
+package io.thatworked.support.common.logging.appender;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferAsyncAppenderTest {
+    
+    private LoggerContext context;
+    private Logger logger;
+    
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        logger = context.getLogger("ring-buffer-test");
+    }
+    
+    @Test
+    void testDeliversAllEventsInOrderAndFlushesOnStop() {
+        ListAppender<ILoggingEvent> delegate = new ListAppender<>();
+        delegate.setContext(context);
+        delegate.start();
+        RingBufferAsyncAppender appender = createAppender(delegate, 64);
+        
+        for (int i = 0; i < 1000; i++) {
+            logger.info("event {}", i);
+        }
+        appender.stop();
+        
+        assertEquals(1000, delegate.list.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("event " + i, delegate.list.get(i).getFormattedMessage());
+        }
+        assertEquals(0, appender.getDroppedCount());
+    }
+    
+    @Test
+    void testDropByLevelDiscardsLowLevelEventsWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingAppender delegate = new BlockingAppender(release);
+        delegate.setContext(context);
+        delegate.start();
+        RingBufferAsyncAppender appender = new RingBufferAsyncAppender();
+        appender.setOverflowPolicy(RingBufferAsyncAppender.OverflowPolicy.DROP_BY_LEVEL);
+        appender.setDropThreshold("INFO");
+        appender.setContext(context);
+        appender.setName("async");
+        appender.setBufferSize(2);
+        appender.addAppender(delegate);
+        appender.start();
+        logger.addAppender(appender);
+        
+        for (int i = 0; i < 10; i++) {
+            logger.info("event {}", i);
+        }
+        
+        // One event held by the blocked worker, two in the buffer, the rest dropped
+        assertTrue(appender.getDroppedCount() >= 7, "dropped " + appender.getDroppedCount());
+        release.countDown();
+        appender.stop();
+        assertEquals(10 - appender.getDroppedCount(), delegate.count);
+    }
+    
+    private RingBufferAsyncAppender createAppender(ListAppender<ILoggingEvent> delegate, int bufferSize) {
+        RingBufferAsyncAppender appender = new RingBufferAsyncAppender();
+        appender.setContext(context);
+        appender.setName("async");
+        appender.setBufferSize(bufferSize);
+        appender.addAppender(delegate);
+        appender.start();
+        logger.addAppender(appender);
+        return appender;
+    }
+    
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+        private final CountDownLatch release;
+        private volatile int count;
+        
+        BlockingAppender(CountDownLatch release) {
+            this.release = release;
+        }
+        
+        @Override
+        protected void append(ILoggingEvent event) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            count++;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.thatworked.support.common.logging.audit;
+
+import ch.qos.logback.core.status.Status;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityAuditLogTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void testWrittenLogVerifies() throws Exception {
+        Path file = directory.resolve("audit/audit.log");
+        try (SecurityAuditLog log = new SecurityAuditLog(file, 1024, 16)) {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(log.append(record(i)));
+            }
+        }
+        
+        AuditLogVerifier.Result result = AuditLogVerifier.verify(file);
+        
+        assertTrue(result.intact(), result.problem());
+        assertEquals(100, result.records());
+        assertEquals(0, result.unsealedRecords());
+        assertTrue(result.batches() >= 7, "at most 16 records per batch");
+    }
+    
+    @Test
+    void testEditedRecordIsDetected() throws Exception {
+        Path file = directory.resolve("audit.log");
+        try (SecurityAuditLog log = new SecurityAuditLog(file)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(record(i));
+            }
+        }
+        
+        String content = Files.readString(file);
+        Files.writeString(file, content.replace("\"user-3\"", "\"admin\""));
+        
+        AuditLogVerifier.Result result = AuditLogVerifier.verify(file);
+        assertFalse(result.intact());
+        assertNotNull(result.problem());
+    }
+    
+    @Test
+    void testRemovedRecordIsDetected() throws Exception {
+        Path file = directory.resolve("audit.log");
+        try (SecurityAuditLog log = new SecurityAuditLog(file)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(record(i));
+            }
+        }
+        
+        String content = Files.readString(file);
+        Files.writeString(file, content.replace(new String(record(3), StandardCharsets.UTF_8) + "\n", ""));
+        
+        assertFalse(AuditLogVerifier.verify(file).intact());
+    }
+    
+    @Test
+    void testReopenContinuesChainAndSealsCrashedTail() throws Exception {
+        Path file = directory.resolve("audit.log");
+        try (SecurityAuditLog log = new SecurityAuditLog(file)) {
+            log.append(record(1));
+        }
+        // Records written before a crash, the last one torn
+        Files.writeString(file, "{\"event\":\"unsealed\"}\n{\"event\":\"to", StandardOpenOption.APPEND);
+        assertEquals(2, AuditLogVerifier.verify(file).unsealedRecords());
+        
+        try (SecurityAuditLog log = new SecurityAuditLog(file)) {
+            log.append(record(2));
+        }
+        
+        AuditLogVerifier.Result result = AuditLogVerifier.verify(file);
+        assertTrue(result.intact(), result.problem());
+        assertEquals(4, result.records());
+        assertEquals(0, result.unsealedRecords());
+        assertTrue(Files.readString(file).contains("\"recovered\":true"));
+    }
+    
+    @Test
+    void testRejectsWhenClosedAndMalformedRecords() throws Exception {
+        SecurityAuditLog log = new SecurityAuditLog(directory.resolve("audit.log"));
+        
+        assertThrows(IllegalArgumentException.class, () -> log.append("{\"a\":1}\n{\"b\":2}".getBytes()));
+        assertThrows(IllegalArgumentException.class,
+            () -> log.append("{\"auditBatch\":9,\"records\":0}".getBytes()));
+        
+        log.close();
+        assertFalse(log.append(record(1)));
+        assertEquals(1, log.getRejectedCount());
+    }
+    
+    @Test
+    void testFailingWritesAreReportedOnceAndCountedAtClose() throws Exception {
+        SecurityAuditLog log = new SecurityAuditLog(directory.resolve("audit.log"), 1024, 16) {
+            @Override
+            void writeFully(ByteBuffer buffer) throws IOException {
+                throw new IOException("No space left on device");
+            }
+        };
+        
+        assertTrue(log.append(record(1)));
+        assertTrue(log.append(record(2)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (log.getWriteFailureCount() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(log.getWriteFailureCount() >= 2);
+        log.close();
+        
+        assertEquals(2, log.getUnsealedCount());
+        assertEquals(0, log.getWrittenCount());
+        List<String> errors = log.getContext().getStatusManager().getCopyOfStatusList().stream()
+            .filter(status -> status.getOrigin() == log && status.getLevel() == Status.ERROR)
+            .map(Status::getMessage)
+            .toList();
+        // One report for the run of failures, one for the records lost at close
+        assertEquals(2, errors.size(), errors.toString());
+        assertTrue(errors.get(1).contains("2 records unwritten"), errors.get(1));
+    }
+    
+    private static byte[] record(int i) {
+        return ("{\"event\":\"LOGIN\",\"user\":\"user-" + i + "\",\"success\":true}").getBytes(StandardCharsets.UTF_8);
+    }
+}
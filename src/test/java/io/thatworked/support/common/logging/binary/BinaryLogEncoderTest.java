@@ -0,0 +1,231 @@
+package io.thatworked.support.common.logging.binary;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.thatworked.support.common.logging.config.LoggingConfiguration;
+import io.thatworked.support.common.logging.encoder.StructuredLogEncoder;
+import io.thatworked.support.common.logging.model.LogContext;
+import io.thatworked.support.common.logging.model.LogContextMarker;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryLogEncoderTest {
+
+    private final ObjectMapper objectMapper = LoggingConfiguration.getObjectMapper();
+    private final StructuredLogEncoder jsonEncoder = new StructuredLogEncoder(objectMapper);
+
+    @Test
+    void testRoundTripMatchesJson() throws Exception {
+        List<LogContext> events = List.of(
+            fullEvent(Instant.parse("2024-03-01T10:15:30.123456789Z"), UUID.randomUUID().toString()),
+            fullEvent(Instant.parse("2024-03-01T10:15:29Z"), "not-a-uuid"),
+            LogContext.builder().level("INFO").message("bare").build()
+        );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryLogEncoder encoder = new BinaryLogEncoder(objectMapper);
+        out.write(encoder.header());
+        for (LogContext event : events) {
+            out.write(encoder.encode(event));
+        }
+
+        List<LogContext> decoded = decodeAll(out.toByteArray());
+        assertEquals(events.size(), decoded.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(jsonEncoder.encode(events.get(i)), jsonEncoder.encode(decoded.get(i)));
+        }
+    }
+
+    @Test
+    void testRepeatedEventsAreMuchSmallerThanJson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryLogEncoder encoder = new BinaryLogEncoder(objectMapper);
+        out.write(encoder.header());
+        long jsonSize = 0;
+        Instant timestamp = Instant.parse("2024-03-01T10:15:30Z");
+        for (int i = 0; i < 1000; i++) {
+            LogContext event = fullEvent(timestamp.plusMillis(i * 7L), UUID.randomUUID().toString());
+            jsonSize += jsonEncoder.encode(event).length() + 1;
+            out.write(encoder.encode(event));
+        }
+
+        assertTrue(out.size() * 3 < jsonSize, "binary " + out.size() + " bytes vs JSON " + jsonSize);
+    }
+
+    @Test
+    void testHeaderMidStreamResetsDictionary() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryLogEncoder first = new BinaryLogEncoder(objectMapper);
+        out.write(first.header());
+        out.write(first.encode(fullEvent(Instant.now(), null)));
+        // A second writer appending to the same file starts with its own header
+        BinaryLogEncoder second = new BinaryLogEncoder(objectMapper);
+        out.write(second.header());
+        out.write(second.encode(fullEvent(Instant.now(), null)));
+
+        List<LogContext> decoded = decodeAll(out.toByteArray());
+        assertEquals(2, decoded.size());
+        assertEquals("Order created", decoded.get(1).getMessage());
+    }
+
+    @Test
+    void testTruncatedRecordEndsStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryLogEncoder encoder = new BinaryLogEncoder(objectMapper);
+        out.write(encoder.header());
+        out.write(encoder.encode(fullEvent(Instant.now(), null)));
+        out.write(encoder.encode(fullEvent(Instant.now(), null)));
+        byte[] bytes = out.toByteArray();
+
+        BinaryLogDecoder decoder = new BinaryLogDecoder(
+            new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 5)), objectMapper);
+        assertNotNull(decoder.next());
+        assertNull(decoder.next());
+        assertTrue(decoder.isTruncated());
+    }
+
+    @Test
+    void testFailedEncodeLeavesStreamUsable() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryLogEncoder encoder = new BinaryLogEncoder(objectMapper);
+        out.write(encoder.header());
+
+        Map<String, Object> broken = new LinkedHashMap<>();
+        broken.put("newKey", "newValue");
+        broken.put("bad", new Object() {
+            public String getValue() {
+                throw new IllegalStateException("boom");
+            }
+        });
+        assertThrows(Exception.class, () -> encoder.encode(
+            LogContext.builder().level("INFO").message("never written").context(broken).build()));
+
+        out.write(encoder.encode(LogContext.builder().level("INFO").message("written")
+            .context(Map.of("newKey", "newValue")).build()));
+
+        List<LogContext> decoded = decodeAll(out.toByteArray());
+        assertEquals(1, decoded.size());
+        assertEquals("newValue", decoded.get(0).getContext().get("newKey"));
+    }
+
+    @Test
+    void testLogbackEncoderRestoresStructuredEvents() throws Exception {
+        LogContext event = fullEvent(Instant.parse("2024-03-01T10:15:30.123Z"), UUID.randomUUID().toString());
+        String json = jsonEncoder.encode(event);
+
+        LoggerContext context = new LoggerContext();
+        BinaryLogEventEncoder encoder = new BinaryLogEventEncoder();
+        encoder.setContext(context);
+        encoder.setService("fallback-service");
+        encoder.start();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(encoder.headerBytes());
+        out.write(encoder.encode(new LoggingEvent("test", context.getLogger("test"), Level.INFO, json, null, null)));
+        out.write(encoder.encode(new LoggingEvent("test", context.getLogger("test"), Level.WARN, "plain {}", null,
+            new Object[] {"text"})));
+        encoder.stop();
+
+        StringWriter lines = new StringWriter();
+        assertEquals(2, BinaryLogCli.convert(new ByteArrayInputStream(out.toByteArray()), lines));
+        String[] converted = lines.toString().split("\n");
+        assertEquals(json, converted[0]);
+
+        LogContext plain = objectMapper.readValue(converted[1], LogContext.class);
+        assertEquals("WARN", plain.getLevel());
+        assertEquals("fallback-service", plain.getService());
+        assertEquals("plain text", plain.getMessage());
+    }
+
+    @Test
+    void testLogbackEncoderUsesAttachedLogContext() throws Exception {
+        LogContext event = fullEvent(Instant.parse("2024-03-01T10:15:30.123Z"), UUID.randomUUID().toString());
+
+        LoggerContext context = new LoggerContext();
+        BinaryLogEventEncoder encoder = new BinaryLogEventEncoder();
+        encoder.setContext(context);
+        assertFalse(LogContextMarker.isRequested());
+        encoder.start();
+        assertTrue(LogContextMarker.isRequested());
+
+        LoggingEvent logged = new LoggingEvent("test", context.getLogger("test"), Level.ERROR,
+            "{\"timestamp\" not parsed when the marker is present", null, null);
+        logged.addMarker(new LogContextMarker(event));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(encoder.headerBytes());
+        out.write(encoder.encode(logged));
+        encoder.stop();
+
+        assertFalse(LogContextMarker.isRequested());
+        List<LogContext> decoded = decodeAll(out.toByteArray());
+        assertEquals(1, decoded.size());
+        assertEquals(jsonEncoder.encode(event), jsonEncoder.encode(decoded.get(0)));
+    }
+
+    private LogContext fullEvent(Instant timestamp, String correlationId) {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("orderId", "ord-" + timestamp.toEpochMilli());
+        context.put("count", 42);
+        context.put("bytes", 1L << 40);
+        context.put("ratio", 0.75);
+        context.put("weight", 1.5f);
+        context.put("enabled", true);
+        context.put("missing", null);
+        context.put("tags", List.of("a", "b"));
+        context.put("nested", Map.of("key", "value"));
+        context.put("when", timestamp);
+
+        return LogContext.builder()
+            .timestamp(timestamp)
+            .level("ERROR")
+            .service("order-service")
+            .correlationId(correlationId)
+            .message("Order created")
+            .context(context)
+            .error(LogContext.ErrorInfo.builder()
+                .code("DB_001")
+                .type("SQLException")
+                .message("connection reset")
+                .stackTrace("java.sql.SQLException: connection reset\n\tat Foo.bar(Foo.java:1)")
+                .severity("ERROR")
+                .build())
+            .performance(LogContext.PerformanceInfo.builder()
+                .operation("db.query")
+                .duration(150L)
+                .metrics(Map.of("status", "success"))
+                .build())
+            .security(LogContext.SecurityInfo.builder()
+                .event("LOGIN")
+                .user("user-1")
+                .resource("/orders")
+                .action("CREATE")
+                .success(true)
+                .build())
+            .build();
+    }
+
+    private List<LogContext> decodeAll(byte[] bytes) throws Exception {
+        BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(bytes), objectMapper);
+        List<LogContext> events = new ArrayList<>();
+        LogContext event;
+        while ((event = decoder.next()) != null) {
+            events.add(event);
+        }
+        assertFalse(decoder.isTruncated());
+        return events;
+    }
+}
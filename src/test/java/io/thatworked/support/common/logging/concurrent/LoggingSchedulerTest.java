@@ -0,0 +1,39 @@
+package io.thatworked.support.common.logging.concurrent;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.status.Status;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoggingSchedulerTest {
+    
+    @Test
+    void testFailingTaskIsReportedAndKeepsItsSchedule() throws Exception {
+        Context context = (Context) LoggerFactory.getILoggerFactory();
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = LoggingScheduler.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("housekeeping broke");
+        }, Duration.ofMillis(10));
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (runs.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(runs.get() >= 2);
+        } finally {
+            future.cancel(false);
+        }
+        
+        assertTrue(context.getStatusManager().getCopyOfStatusList().stream()
+            .anyMatch(status -> status.getLevel() == Status.ERROR
+                && status.getThrowable() instanceof IllegalStateException
+                && "housekeeping broke".equals(status.getThrowable().getMessage())));
+    }
+}
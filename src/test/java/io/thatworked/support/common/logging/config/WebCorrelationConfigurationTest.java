@@ -0,0 +1,68 @@
+package io.thatworked.support.common.logging.config;
+
+import io.thatworked.support.common.logging.correlation.CorrelationIdFilter;
+import io.thatworked.support.common.logging.correlation.ReactiveCorrelationIdFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import reactor.core.publisher.Hooks;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebCorrelationConfigurationTest {
+
+    @AfterEach
+    void tearDown() {
+        Hooks.disableAutomaticContextPropagation();
+    }
+
+    @Test
+    void testServletApplicationGetsServletFilter() {
+        new WebApplicationContextRunner()
+            .withUserConfiguration(WebCorrelationConfiguration.class)
+            .run(context -> {
+                assertEquals(1, context.getBeansOfType(CorrelationIdFilter.class).size());
+                assertTrue(context.getBeansOfType(ReactiveCorrelationIdFilter.class).isEmpty());
+                assertTrue(context.getBeansOfType(
+                    WebCorrelationConfiguration.ReactorContextPropagationConfiguration.class).isEmpty());
+            });
+    }
+
+    @Test
+    void testReactiveApplicationGetsWebFilterAndPropagation() {
+        new ReactiveWebApplicationContextRunner()
+            .withUserConfiguration(WebCorrelationConfiguration.class)
+            .run(context -> {
+                assertEquals(1, context.getBeansOfType(ReactiveCorrelationIdFilter.class).size());
+                assertTrue(context.getBeansOfType(CorrelationIdFilter.class).isEmpty());
+                assertEquals(1, context.getBeansOfType(
+                    WebCorrelationConfiguration.ReactorContextPropagationConfiguration.class).size());
+            });
+    }
+
+    @Test
+    void testPropagationCanBeTurnedOffAndFilterReplaced() {
+        ReactiveCorrelationIdFilter custom = new ReactiveCorrelationIdFilter();
+        new ReactiveWebApplicationContextRunner()
+            .withUserConfiguration(WebCorrelationConfiguration.class)
+            .withPropertyValues("support.logging.reactive.context-propagation=false")
+            .withBean(ReactiveCorrelationIdFilter.class, () -> custom)
+            .run(context -> {
+                assertSame(custom, context.getBean(ReactiveCorrelationIdFilter.class));
+                assertTrue(context.getBeansOfType(
+                    WebCorrelationConfiguration.ReactorContextPropagationConfiguration.class).isEmpty());
+            });
+    }
+
+    @Test
+    void testNonWebApplicationGetsNoFilter() {
+        new ApplicationContextRunner()
+            .withUserConfiguration(WebCorrelationConfiguration.class)
+            .run(context -> {
+                assertTrue(context.getBeansOfType(CorrelationIdFilter.class).isEmpty());
+                assertTrue(context.getBeansOfType(ReactiveCorrelationIdFilter.class).isEmpty());
+            });
+    }
+}
@@ -0,0 +1,125 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorrelationContextTest {
+
+    @AfterEach
+    void tearDown() {
+        CorrelationContext.setMdcBridge(true);
+        CorrelationContext.clear();
+        MDC.clear();
+    }
+
+    @Test
+    void testRunBindsAndRestores() {
+        CorrelationContext.run("outer", () -> {
+            assertEquals("outer", CorrelationContext.current());
+            CorrelationContext.run("inner", () -> assertEquals("inner", CorrelationContext.current()));
+            assertEquals("outer", CorrelationContext.current());
+        });
+
+        assertNull(CorrelationContext.current());
+    }
+
+    @Test
+    void testScopesNestWithRun() {
+        try (CorrelationContext.Scope ignored = CorrelationContext.open("request")) {
+            CorrelationContext.run("task", () -> {
+                assertEquals("task", CorrelationContext.current());
+                try (CorrelationContext.Scope nested = CorrelationContext.open("nested")) {
+                    assertEquals("nested", CorrelationContext.current());
+                }
+                assertEquals("task", CorrelationContext.current());
+            });
+            assertEquals("request", CorrelationContext.current());
+        }
+
+        assertNull(CorrelationContext.current());
+    }
+
+    @Test
+    void testCallReturnsValueAndPropagatesExceptions() throws Exception {
+        assertEquals("id-1", CorrelationContext.call("id-1", CorrelationContext::current));
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+            () -> CorrelationContext.call("id-2", () -> {
+                throw new IllegalStateException("failed");
+            }));
+        assertEquals("failed", thrown.getMessage());
+        assertNull(CorrelationContext.current());
+    }
+
+    @Test
+    void testCursorSwitchesAndRestores() {
+        CorrelationContext.run("outer", () -> {
+            try (CorrelationContext.Cursor cursor = CorrelationContext.cursor()) {
+                cursor.switchTo("record-1");
+                assertEquals("record-1", CorrelationContext.current());
+                assertEquals("record-1", MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY));
+                cursor.switchTo("record-2");
+                assertEquals("record-2", CorrelationContext.current());
+            }
+            assertEquals("outer", CorrelationContext.current());
+            assertEquals("outer", MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY));
+        });
+    }
+
+    @Test
+    void testMdcBridge() {
+        MDC.put(CorrelationIdConstants.CORRELATION_ID_MDC_KEY, "legacy");
+        assertEquals("legacy", CorrelationContext.current());
+
+        CorrelationContext.run("bridged", () ->
+            assertEquals("bridged", MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY)));
+        assertEquals("legacy", MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY));
+
+        CorrelationContext.setMdcBridge(false);
+        CorrelationContext.run("unbridged", () -> {
+            assertEquals("unbridged", CorrelationContext.current());
+            assertEquals("legacy", MDC.get(CorrelationIdConstants.CORRELATION_ID_MDC_KEY));
+        });
+    }
+
+    @Test
+    void testExecutorAndCompletableFuturePropagation() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            CorrelationContext.Scope scope = CorrelationContext.open("submitted");
+            Future<String> direct = pool.submit(CorrelationContext.wrap(CorrelationContext::current));
+            CompletableFuture<String> chained = CompletableFuture
+                .supplyAsync(CorrelationContext::current, CorrelationContext.wrap(pool))
+                .thenApplyAsync(id -> id + "/" + CorrelationContext.current(), CorrelationContext.wrap(pool));
+            scope.close();
+
+            assertEquals("submitted", direct.get());
+            assertEquals("submitted/submitted", chained.get());
+            // Nothing leaks onto the pooled thread
+            assertNull(pool.submit(CorrelationContext::current).get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testVirtualThreads() throws Exception {
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            CorrelationContext.run("virtual", () -> {
+                try {
+                    assertEquals("virtual", virtualThreads.submit(CorrelationContext.wrap(CorrelationContext::current)).get());
+                } catch (Exception e) {
+                    fail(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorrelationHeaderCacheTest {
+
+    private static final String CORRELATION_ID = "0190b6c4-3a5e-7d21-8f04-6b1e2c9d7a30";
+
+    @Test
+    void testRepeatedIdsReuseEncodedBytes() {
+        byte[] first = CorrelationHeaderCache.encode(CORRELATION_ID);
+        byte[] second = CorrelationHeaderCache.encode(new String(CORRELATION_ID));
+
+        assertSame(first, second);
+        assertArrayEquals(CORRELATION_ID.getBytes(StandardCharsets.UTF_8), first);
+    }
+
+    @Test
+    void testRepeatedHeadersReuseDecodedString() {
+        String first = CorrelationHeaderCache.decode(CORRELATION_ID.getBytes(StandardCharsets.UTF_8));
+        String second = CorrelationHeaderCache.decode(CORRELATION_ID.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(CORRELATION_ID, first);
+        assertSame(first, second);
+    }
+
+    @Test
+    void testDecodeIsUnaffectedByReusedBuffers() {
+        byte[] buffer = "first-id".getBytes(StandardCharsets.UTF_8);
+        assertEquals("first-id", CorrelationHeaderCache.decode(buffer));
+
+        System.arraycopy("other-id".getBytes(StandardCharsets.UTF_8), 0, buffer, 0, buffer.length);
+
+        assertEquals("other-id", CorrelationHeaderCache.decode(buffer));
+        assertEquals("first-id", CorrelationHeaderCache.decode("first-id".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testDistinctIdsDecodeCorrectly() {
+        for (int i = 0; i < 1000; i++) {
+            String id = "id-" + i;
+            assertEquals(id, CorrelationHeaderCache.decode(id.getBytes(StandardCharsets.UTF_8)));
+            assertArrayEquals(id.getBytes(StandardCharsets.UTF_8), CorrelationHeaderCache.encode(id));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.thatworked.support.common.logging.correlation;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CorrelationIdFilterTest {
+
+    private final CorrelationIdFilter filter = new CorrelationIdFilter();
+
+    @Test
+    void testBindsHeaderIdForTheChainAndEchoesIt() throws Exception {
+        MockHttpServletRequest request = request("corr-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> seen.set(CorrelationContext.current()));
+
+        assertEquals("corr-1", seen.get());
+        assertEquals("corr-1", response.getHeader(CorrelationIdConstants.CORRELATION_ID_HEADER));
+        assertNull(CorrelationContext.current());
+    }
+
+    @Test
+    void testGeneratesIdWhenHeaderMissing() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request(null), response, (req, res) -> seen.set(CorrelationContext.current()));
+
+        assertNotNull(seen.get());
+        assertEquals(seen.get(), response.getHeader(CorrelationIdConstants.CORRELATION_ID_HEADER));
+    }
+
+    @Test
+    void testBindingNestsLikeRun() throws Exception {
+        AtomicReference<String> inner = new AtomicReference<>();
+        AtomicReference<String> after = new AtomicReference<>();
+
+        CorrelationContext.call("outer", () -> {
+            filter.doFilter(request("corr-1"), new MockHttpServletResponse(), (req, res) -> {
+                CorrelationContext.run("nested", () -> inner.set(CorrelationContext.current()));
+                after.set(CorrelationContext.current());
+            });
+            assertEquals("outer", CorrelationContext.current());
+            return null;
+        });
+
+        assertEquals("nested", inner.get());
+        assertEquals("corr-1", after.get());
+    }
+
+    @Test
+    void testBindsScopedValueWhereSupported() throws Exception {
+        // Forks inherit scoped values only; a thread-local binding would be gone after clear()
+        assumeTrue(CorrelationContext.isScopedValueBacked(), "ScopedValue is not available");
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request("corr-scoped"), new MockHttpServletResponse(), (req, res) -> {
+            CorrelationContext.clear();
+            seen.set(CorrelationContext.current());
+        });
+
+        assertEquals("corr-scoped", seen.get());
+    }
+
+    @Test
+    void testChainExceptionsPropagateUnwrapped() {
+        ServletException failure = new ServletException("downstream");
+
+        ServletException thrown = assertThrows(ServletException.class, () ->
+            filter.doFilter(request("corr-1"), new MockHttpServletResponse(), (req, res) -> {
+                throw failure;
+            }));
+
+        assertSame(failure, thrown);
+        assertNull(CorrelationContext.current());
+    }
+
+    private static MockHttpServletRequest request(String correlationId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders");
+        if (correlationId != null) {
+            request.addHeader(CorrelationIdConstants.CORRELATION_ID_HEADER, correlationId);
+        }
+        return request;
+    }
+}
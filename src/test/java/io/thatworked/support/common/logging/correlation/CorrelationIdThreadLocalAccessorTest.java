@@ -0,0 +1,50 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorrelationIdThreadLocalAccessorTest {
+
+    @BeforeEach
+    void setUp() {
+        CorrelationIdThreadLocalAccessor.register();
+        Hooks.enableAutomaticContextPropagation();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Hooks.disableAutomaticContextPropagation();
+    }
+
+    @Test
+    void testRestoresIdAfterPublishOn() {
+        Mono<String> seen = Mono.just("event")
+            .publishOn(Schedulers.boundedElastic())
+            .map(event -> Thread.currentThread().getName() + "|" + CorrelationContext.current())
+            .contextWrite(context -> context.put(CorrelationIdConstants.CORRELATION_ID_CONTEXT_KEY, "corr-1"));
+
+        StepVerifier.create(seen)
+            .assertNext(value -> {
+                assertTrue(value.startsWith("boundedElastic"), value);
+                assertTrue(value.endsWith("|corr-1"), value);
+            })
+            .verifyComplete();
+        assertNull(CorrelationContext.current());
+    }
+
+    @Test
+    void testLeavesNoIdWithoutContextEntry() {
+        StepVerifier.create(Mono.just("event")
+                .publishOn(Schedulers.parallel())
+                .map(event -> String.valueOf(CorrelationContext.current())))
+            .expectNext("null")
+            .verifyComplete();
+    }
+}
@@ -0,0 +1,52 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+class ReactiveCorrelationIdFilterTest {
+
+    // Echoes the ID the handler sees in the Reactor context
+    private final WebTestClient client = WebTestClient
+        .bindToRouterFunction(RouterFunctions.route(GET("/**"), request -> ServerResponse.ok()
+            .body(ReactiveCorrelationIdFilter.currentCorrelationId().defaultIfEmpty("none"), String.class)))
+        .webFilter(new ReactiveCorrelationIdFilter())
+        .build();
+
+    @Test
+    void testPropagatesHeaderToContextAndResponse() {
+        client.get().uri("/orders")
+            .header(CorrelationIdConstants.CORRELATION_ID_HEADER, "corr-1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(CorrelationIdConstants.CORRELATION_ID_HEADER, "corr-1")
+            .expectBody(String.class).isEqualTo("corr-1");
+    }
+
+    @Test
+    void testGeneratesIdWhenHeaderMissing() {
+        EntityExchangeResult<String> result = client.get().uri("/orders")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).returnResult();
+
+        String body = result.getResponseBody();
+        assertNotNull(body);
+        assertNotEquals("none", body);
+        assertEquals(body, result.getResponseHeaders().getFirst(CorrelationIdConstants.CORRELATION_ID_HEADER));
+    }
+
+    @Test
+    void testSkipsActuatorEndpoints() {
+        client.get().uri("/actuator/health")
+            .header(CorrelationIdConstants.CORRELATION_ID_HEADER, "corr-1")
+            .exchange()
+            .expectHeader().doesNotExist(CorrelationIdConstants.CORRELATION_ID_HEADER)
+            .expectBody(String.class).isEqualTo("none");
+    }
+}
@@ -0,0 +1,55 @@
+package io.thatworked.support.common.logging.correlation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void testGeneratesVersion7Uuids() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(CorrelationIdFormat.UUID, 0xBEEF);
+        long before = System.currentTimeMillis();
+
+        String id = generator.generate();
+        UUID uuid = UUID.fromString(id);
+
+        assertEquals(id, uuid.toString());
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+        assertEquals(0xBEEF, (uuid.getLeastSignificantBits() >>> 46) & 0xFFFF);
+    }
+
+    @Test
+    void testGeneratesTraceparent() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(CorrelationIdFormat.TRACEPARENT);
+
+        String id = generator.generate();
+
+        assertTrue(id.matches("00-[0-9a-f]{32}-[0-9a-f]{16}-01"), id);
+        assertNotEquals("0000000000000000", id.substring(36, 52));
+    }
+
+    @Test
+    void testIdsAreUniqueAcrossThreads() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 200_000).parallel().forEach(i -> ids.add(generator.generate()));
+
+        assertEquals(200_000, ids.size());
+    }
+
+    @Test
+    void testRejectsOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new TimeOrderedIdGenerator(CorrelationIdFormat.UUID, 0x10000));
+    }
+}
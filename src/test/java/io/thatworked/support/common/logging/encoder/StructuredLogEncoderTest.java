@@ -0,0 +1,229 @@
+package io.thatworked.support.common.logging.encoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.thatworked.support.common.logging.config.LoggingConfiguration;
+import io.thatworked.support.common.logging.model.LazyValue;
+import io.thatworked.support.common.logging.model.LogContext;
+import io.thatworked.support.common.logging.model.LogFields;
+import io.thatworked.support.common.logging.redaction.Redactor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructuredLogEncoderTest {
+    
+    private final ObjectMapper objectMapper = LoggingConfiguration.getObjectMapper();
+    private final StructuredLogEncoder encoder = new StructuredLogEncoder(objectMapper);
+    
+    @Test
+    void testMatchesObjectMapperOutput() throws Exception {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("userId", "user\"123\n");
+        context.put("count", 42);
+        context.put("bytes", 1024L);
+        context.put("ratio", 0.75);
+        context.put("enabled", true);
+        context.put("missing", null);
+        context.put("tags", List.of("a", "b"));
+        
+        LogContext logContext = LogContext.builder()
+            .timestamp(Instant.parse("2024-03-01T10:15:30.123456Z"))
+            .level("ERROR")
+            .service("test-service")
+            .correlationId("abc-123")
+            .message("Something failed")
+            .context(context)
+            .error(LogContext.ErrorInfo.builder()
+                .type("RuntimeException")
+                .message("boom")
+                .stackTrace("java.lang.RuntimeException: boom\n\tat Foo.bar(Foo.java:1)")
+                .severity("ERROR")
+                .build())
+            .performance(LogContext.PerformanceInfo.builder()
+                .operation("db.query")
+                .duration(150L)
+                .metrics(Map.of("status", "success"))
+                .build())
+            .security(LogContext.SecurityInfo.builder()
+                .event("LOGIN")
+                .user("user123")
+                .resource("/api/login")
+                .action("POST")
+                .success(false)
+                .build())
+            .build();
+        
+        assertEquals(objectMapper.writeValueAsString(logContext), encoder.encode(logContext));
+    }
+    
+    @Test
+    void testMatchesObjectMapperOutputWithNulls() throws Exception {
+        LogContext logContext = LogContext.builder()
+            .timestamp(Instant.parse("2024-03-01T00:00:00Z"))
+            .level("INFO")
+            .service("test-service")
+            .message("Plain message")
+            .build();
+        
+        assertEquals(objectMapper.writeValueAsString(logContext), encoder.encode(logContext));
+    }
+    
+    @Test
+    void testTimestampPrecisionMatchesInstantToString() throws Exception {
+        for (String value : List.of("2024-03-01T10:15:30Z", "2024-03-01T10:15:30.100Z",
+                                    "2024-03-01T10:15:30.000100Z", "2024-03-01T10:15:30.000000001Z")) {
+            Instant timestamp = Instant.parse(value);
+            String json = encoder.encode(timestamp, "INFO", "svc", null, "m", null, null, null, null);
+            assertTrue(json.startsWith("{\"timestamp\":\"" + timestamp + "\""), json);
+        }
+    }
+    
+    @Test
+    void testGeneratorRecoversAfterFailure() throws Exception {
+        Map<String, Object> badContext = new HashMap<>();
+        badContext.put(null, "value");
+        
+        assertThrows(Exception.class, () ->
+            encoder.encode(Instant.now(), "INFO", "svc", null, "bad", badContext, null, null, null));
+        
+        String json = encoder.encode(Instant.parse("2024-03-01T00:00:00Z"), "INFO", "svc", null, "good",
+            Map.of("k", "v"), null, null, null);
+        assertTrue(json.startsWith("{\"timestamp\""), json);
+        assertTrue(json.contains("\"context\":{\"k\":\"v\"}"));
+    }
+    
+    @Test
+    void testTypedFieldsMatchEquivalentMap() throws Exception {
+        LogFields fields = new LogFields()
+            .with("latencyMs", 12L)
+            .with("ratio", 0.25)
+            .with("cached", false)
+            .with("user", new StringBuilder("user\"123"))
+            .with("tags", (Object) List.of("a", "b"))
+            .with("latencyMs", 13L);
+        Map<String, Object> equivalent = new LinkedHashMap<>();
+        equivalent.put("latencyMs", 13L);
+        equivalent.put("ratio", 0.25);
+        equivalent.put("cached", false);
+        equivalent.put("user", "user\"123");
+        equivalent.put("tags", List.of("a", "b"));
+        Instant timestamp = Instant.parse("2024-03-01T00:00:00Z");
+        
+        assertEquals(encoder.encode(timestamp, "INFO", "svc", null, "m", equivalent, null, null, null),
+            encoder.encode(timestamp, "INFO", "svc", null, "m", fields, null, null, null));
+    }
+    
+    @Test
+    void testLazyValuesAreEncodedOnceAndFailuresIsolated() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        LogFields fields = new LogFields()
+            .withLazy("summary", () -> "computed " + calls.incrementAndGet())
+            .withLazy("broken", () -> {
+                throw new IllegalStateException("no summary");
+            })
+            .with("after", 1L);
+        Map<String, Object> map = Map.of("size", LazyValue.of(() -> List.of(1, 2)));
+        Instant timestamp = Instant.parse("2024-03-01T00:00:00Z");
+        
+        assertEquals(0, calls.get());
+        String json = encoder.encode(timestamp, "INFO", "svc", null, "m", fields, null, null, null);
+        encoder.encode(timestamp, "INFO", "svc", null, "m", fields, null, null, null);
+        
+        assertEquals(1, calls.get());
+        assertTrue(json.contains("\"context\":{\"summary\":\"computed 1\","
+            + "\"broken\":\"[unavailable: java.lang.IllegalStateException]\",\"after\":1}"), json);
+        assertTrue(encoder.encode(timestamp, "INFO", "svc", null, "m", map, null, null, null)
+            .contains("\"context\":{\"size\":[1,2]}"));
+        assertEquals("{\"size\":[1,2]}", objectMapper.writeValueAsString(map));
+    }
+    
+    @Test
+    void testLimitsCutDepthCollectionsAndStrings() throws Exception {
+        StructuredLogEncoder limited = new StructuredLogEncoder(objectMapper, new SerializationLimits(10_000, 1_000, 8, 2, 3));
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("nested", Map.of("a", Map.of("b", Map.of("c", 1))));
+        context.put("list", List.of(1, 2, 3, 4, 5));
+        context.put("text", "0123456789");
+        
+        String json = limited.encode(Instant.parse("2024-03-01T00:00:00Z"), "INFO", "svc", null, "message text",
+            context, null, null, null);
+        
+        assertTrue(json.contains("\"message\":\"message ...[truncated]\""), json);
+        assertTrue(json.contains("\"context\":{\"nested\":{\"a\":{\"b\":\"[truncated]\"}},"
+            + "\"list\":[1,2,3,\"[truncated]\"],\"text\":\"01234567...[truncated]\"}"), json);
+    }
+    
+    @Test
+    void testLimitsStopCyclesAndOversizedEvents() throws Exception {
+        StructuredLogEncoder limited = new StructuredLogEncoder(objectMapper, new SerializationLimits(600, 200, 100, 8, 1_000));
+        List<Object> cycle = new ArrayList<>();
+        cycle.add("element");
+        cycle.add(cycle);
+        LogFields fields = new LogFields()
+            .with("cycle", (Object) cycle)
+            .with("after", 1L);
+        for (int i = 0; i < 20; i++) {
+            fields.with("field" + i, "x".repeat(50));
+        }
+        
+        String json = limited.encode(Instant.now(), "INFO", "svc", null, "m", fields, null, null, null);
+        
+        assertTrue(json.length() < 800, json);
+        assertTrue(json.contains("\"after\":1"), json);
+        assertTrue(json.contains("\"[truncated]\":true},\"error\""), json);
+        assertFalse(json.contains("field19"), json);
+        assertNotNull(objectMapper.readTree(json));
+    }
+    
+    @Test
+    void testRedactsSensitiveKeysAndValuesAtAnyDepth() throws Exception {
+        StructuredLogEncoder redacting = new StructuredLogEncoder(objectMapper, null, Redactor.defaults());
+        AtomicInteger calls = new AtomicInteger();
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("email", "bob@example.com");
+        user.put("credentials", Map.of("apiKey", "k-123"));
+        user.put("age", 42);
+        LogFields fields = new LogFields()
+            .with("user", (Object) user)
+            .with("dbPassword", "hunter2")
+            .withLazy("sessionToken", () -> "token-" + calls.incrementAndGet())
+            .with("note", "paid with 4111 1111 1111 1111");
+        
+        String json = redacting.encode(Instant.parse("2024-03-01T00:00:00Z"), "INFO", "svc", null,
+            "Login by bob@example.com", fields, null, null, null);
+        
+        assertTrue(json.contains("\"message\":\"Login by [REDACTED]\""), json);
+        assertTrue(json.contains("\"context\":{\"user\":{\"email\":\"[REDACTED]\",\"credentials\":\"[REDACTED]\","
+            + "\"age\":42},\"dbPassword\":\"[REDACTED]\",\"sessionToken\":\"[REDACTED]\","
+            + "\"note\":\"paid with [REDACTED]\"}"), json);
+        assertEquals(0, calls.get());
+        assertFalse(json.contains("hunter2"), json);
+    }
+    
+    @Test
+    void testEncodesFieldsSeparatelyWithRedaction() throws Exception {
+        StructuredLogEncoder redacting = new StructuredLogEncoder(objectMapper, null, Redactor.defaults());
+        LogFields fields = new LogFields()
+            .with("dbPassword", "hunter2")
+            .with("orderId", "o-1");
+        
+        StructuredLogEncoder.EncodedFields encoded = redacting.encodeFields(fields,
+            LogContext.ErrorInfo.builder().type("AuthException").message("Rejected bob@example.com").build(),
+            null,
+            LogContext.SecurityInfo.builder().event("LOGIN").user("bob@example.com").build());
+        
+        assertEquals("{\"dbPassword\":\"[REDACTED]\",\"orderId\":\"o-1\"}", encoded.context());
+        assertTrue(encoded.error().contains("\"message\":\"Rejected [REDACTED]\""), encoded.error());
+        assertNull(encoded.performance());
+        assertTrue(encoded.security().startsWith("{\"event\":\"LOGIN\",\"user\":\"[REDACTED]\""), encoded.security());
+        assertEquals("Login by [REDACTED]", redacting.encodeMessage("Login by bob@example.com"));
+    }
+}
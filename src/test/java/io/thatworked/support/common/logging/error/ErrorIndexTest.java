@@ -0,0 +1,84 @@
+package io.thatworked.support.common.logging.error;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorIndexTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final ErrorIndex index = new ErrorIndex();
+
+    @Test
+    void testGroupsSameThrowSiteRegardlessOfMessage() {
+        for (int i = 0; i < 3; i++) {
+            index.record("DB_001", "Query failed", fail("row " + i), "corr-" + i, NOW + i);
+        }
+
+        List<ErrorIndex.ErrorStats> top = index.top(10, Duration.ofMinutes(5), NOW + 10);
+
+        assertEquals(1, top.size());
+        ErrorIndex.ErrorStats stats = top.get(0);
+        assertEquals("DB_001", stats.code());
+        assertEquals(IllegalStateException.class.getName(), stats.exceptionType());
+        assertEquals(3, stats.count());
+        assertEquals(NOW, stats.firstSeen().toEpochMilli());
+        assertEquals(NOW + 2, stats.lastSeen().toEpochMilli());
+        assertEquals("corr-2", stats.sampleCorrelationId());
+    }
+
+    @Test
+    void testSeparatesCodesAndOrdersByCount() {
+        RuntimeException error = fail("boom");
+        index.record("DB_001", "Query failed", error, null, NOW);
+        index.record("NET_001", "Call failed", error, null, NOW);
+        index.record("NET_001", "Call failed", error, null, NOW);
+        index.record(null, "No exception", null, null, NOW);
+
+        List<ErrorIndex.ErrorStats> top = index.top(2, Duration.ofMinutes(5), NOW);
+
+        assertEquals(3, index.size());
+        assertEquals(2, top.size());
+        assertEquals("NET_001", top.get(0).code());
+        assertEquals(2, top.get(0).count());
+    }
+
+    @Test
+    void testCountsOnlyWithinWindow() {
+        RuntimeException error = fail("boom");
+        index.record("DB_001", "Query failed", error, null, NOW);
+        index.record("DB_001", "Query failed", error, null, NOW + Duration.ofMinutes(4).toMillis());
+
+        long later = NOW + Duration.ofSeconds(270).toMillis();
+        assertEquals(1, index.top(10, Duration.ofMinutes(1), later).get(0).count());
+        assertEquals(2, index.top(10, Duration.ofMinutes(10), later).get(0).count());
+        assertEquals(2, index.top(10, Duration.ofMinutes(1), later).get(0).totalCount());
+        // Slots older than the longest window are reused, not counted
+        assertTrue(index.top(10, Duration.ofMinutes(15), later + Duration.ofMinutes(20).toMillis()).isEmpty());
+    }
+
+    @Test
+    void testOverflowsIntoOneOtherEntry() {
+        ErrorIndex small = new ErrorIndex(2);
+        small.record("VAL_001", "first", null, null, NOW);
+        small.record("VAL_001", "second", null, null, NOW);
+        small.record("VAL_001", "third", null, null, NOW);
+        small.record("VAL_002", "fourth", null, null, NOW);
+        small.record("DB_001", "fifth", null, null, NOW);
+
+        List<ErrorIndex.ErrorStats> top = small.top(10, Duration.ofMinutes(1), NOW);
+
+        assertEquals(3, small.size());
+        assertEquals(ErrorIndex.OVERFLOW_FINGERPRINT, top.get(0).fingerprint());
+        assertNull(top.get(0).code());
+        assertEquals(3, top.get(0).count());
+    }
+
+    private static RuntimeException fail(String message) {
+        return new IllegalStateException(message);
+    }
+}
@@ -0,0 +1,67 @@
+package io.thatworked.support.common.logging.error;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StackTraceCacheTest {
+
+    private final StackTraceCache cache = new StackTraceCache();
+
+    @Test
+    void testRendersTypeMessageAndTopFrames() {
+        RuntimeException exception = new RuntimeException("boom");
+        StackTraceElement[] stackTrace = exception.getStackTrace();
+
+        String rendered = cache.render(exception);
+
+        StringBuilder expected = new StringBuilder("java.lang.RuntimeException: boom");
+        for (int i = 0; i < 5; i++) {
+            expected.append("\n\tat ").append(stackTrace[i]);
+        }
+        expected.append("\n\t... ").append(stackTrace.length - 5).append(" more");
+        assertEquals(expected.toString(), rendered);
+    }
+
+    @Test
+    void testReusesFramesForSameThrowSite() {
+        List<String> rendered = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rendered.add(cache.render(new IllegalStateException("attempt " + i)));
+        }
+
+        assertEquals(1, cache.size());
+        // The message line is still per exception
+        assertTrue(rendered.get(3).startsWith("java.lang.IllegalStateException: attempt 3\n\tat "));
+    }
+
+    @Test
+    void testDifferentTypesAreCachedSeparately() {
+        cache.render(new IllegalStateException("a"));
+        cache.render(new IllegalArgumentException("a"));
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testEmptyStackTrace() {
+        RuntimeException exception = new RuntimeException("no frames");
+        exception.setStackTrace(new StackTraceElement[0]);
+
+        assertEquals("java.lang.RuntimeException: no frames", cache.render(exception));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        StackTraceCache small = new StackTraceCache(2, 5);
+        small.render(new IllegalStateException());
+        small.render(new IllegalArgumentException());
+        small.render(new UnsupportedOperationException());
+
+        assertTrue(small.size() <= 2);
+    }
+}
@@ -0,0 +1,119 @@
+package io.thatworked.support.common.logging.level;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.thatworked.support.common.logging.correlation.CorrelationContext;
+import io.thatworked.support.common.logging.level.LogLevelOverrides.Target;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogLevelOverridesTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final LogLevelOverrides overrides = new LogLevelOverrides(Duration.ofMinutes(10), Duration.ofHours(1), 2);
+
+    @Test
+    void testMatchesCorrelationIdsAndLoggerPrefixes() {
+        assertFalse(overrides.isActive());
+
+        overrides.enable(Target.CORRELATION_ID, "corr-1", null, NOW);
+        overrides.enable(Target.LOGGER, "com.example.orders", null, NOW);
+
+        assertTrue(overrides.isActive());
+        assertTrue(overrides.isDebugEnabled("com.example.billing", "corr-1", NOW));
+        assertTrue(overrides.isDebugEnabled("com.example.orders.OrderService", "corr-2", NOW));
+        assertTrue(overrides.isDebugEnabled("com.example.orders", "corr-2", NOW));
+        assertFalse(overrides.isDebugEnabled("com.example.ordersarchive.Archiver", "corr-2", NOW));
+        assertFalse(overrides.isDebugEnabled("com.example.billing", "corr-2", NOW));
+        assertFalse(overrides.isDebugEnabled("com.example.billing", null, NOW));
+    }
+
+    @Test
+    void testOverridesExpireAfterTheirTtl() {
+        overrides.enable(Target.CORRELATION_ID, "corr-1", Duration.ofMinutes(1), NOW);
+        // Capped at the maximum TTL
+        LogLevelOverrides.LevelOverride capped = overrides.enable(Target.LOGGER, "com.example", Duration.ofDays(1), NOW);
+
+        assertEquals(NOW + Duration.ofHours(1).toMillis(), capped.expiresAt().toEpochMilli());
+        assertTrue(overrides.isDebugEnabled("other", "corr-1", NOW + 59_999));
+        assertFalse(overrides.isDebugEnabled("other", "corr-1", NOW + 60_000));
+        assertEquals(List.of(Target.LOGGER), overrides.active(NOW + 60_000).stream()
+            .map(LogLevelOverrides.LevelOverride::target).toList());
+
+        assertFalse(overrides.isDebugEnabled("com.example.Service", null, NOW + Duration.ofHours(1).toMillis()));
+        assertFalse(overrides.isActive());
+    }
+
+    @Test
+    void testErrorCodePrefixTracesTheFailingRequest() {
+        overrides.enable(Target.ERROR_CODE, "DB_", Duration.ofMinutes(5), NOW);
+
+        overrides.errorLogged("NET_001", "corr-1", NOW);
+        overrides.errorLogged("DB_002", "corr-2", NOW);
+
+        assertFalse(overrides.isDebugEnabled("any", "corr-1", NOW));
+        assertTrue(overrides.isDebugEnabled("any", "corr-2", NOW + 1));
+        assertFalse(overrides.isDebugEnabled("any", "corr-2", NOW + Duration.ofMinutes(5).toMillis()));
+    }
+
+    @Test
+    void testTracedRequestsAreListedAndCanBeDisabled() {
+        overrides.enable(Target.ERROR_CODE, "DB_", Duration.ofMinutes(5), NOW);
+        overrides.errorLogged("DB_001", "corr-1", NOW);
+
+        List<LogLevelOverrides.LevelOverride> active = overrides.active(NOW);
+        assertEquals(2, active.size());
+        assertTrue(active.contains(new LogLevelOverrides.LevelOverride(Target.CORRELATION_ID, "corr-1",
+            Instant.ofEpochMilli(NOW + Duration.ofMinutes(5).toMillis()))));
+
+        assertTrue(overrides.disable(Target.CORRELATION_ID, "corr-1"));
+        assertFalse(overrides.isDebugEnabled("any", "corr-1", NOW));
+        assertFalse(overrides.disable(Target.CORRELATION_ID, "corr-1"));
+    }
+
+    @Test
+    void testBoundsCorrelationIdsAndClearsEverything() {
+        overrides.enable(Target.ERROR_CODE, "DB_", null, NOW);
+        overrides.errorLogged("DB_001", "corr-1", NOW);
+        overrides.errorLogged("DB_001", "corr-2", NOW);
+        overrides.errorLogged("DB_001", "corr-3", NOW);
+
+        assertFalse(overrides.isDebugEnabled("any", "corr-3", NOW));
+        assertThrows(IllegalStateException.class, () -> overrides.enable(Target.CORRELATION_ID, "corr-4", null, NOW));
+        assertThrows(IllegalArgumentException.class, () -> overrides.enable(Target.LOGGER, " ", null, NOW));
+        assertTrue(overrides.disable(Target.CORRELATION_ID, "corr-1"));
+
+        assertEquals(2, overrides.clear());
+        assertFalse(overrides.isActive());
+        assertFalse(overrides.isDebugEnabled("any", "corr-2", NOW));
+    }
+
+    @Test
+    void testTurboFilterEnablesDebugForTracedRequestOnly() {
+        LoggerContext context = new LoggerContext();
+        Logger logger = context.getLogger("com.example.orders.OrderService");
+        logger.setLevel(Level.INFO);
+        DebugOverrideTurboFilter filter = new DebugOverrideTurboFilter(overrides);
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+        overrides.enable(Target.CORRELATION_ID, "corr-1", null);
+
+        assertFalse(logger.isDebugEnabled());
+        CorrelationContext.run("corr-1", () -> {
+            assertTrue(logger.isDebugEnabled());
+            assertFalse(logger.isTraceEnabled());
+        });
+        CorrelationContext.run("corr-2", () -> assertFalse(logger.isDebugEnabled()));
+
+        filter.close();
+        CorrelationContext.run("corr-1", () -> assertFalse(logger.isDebugEnabled()));
+    }
+}
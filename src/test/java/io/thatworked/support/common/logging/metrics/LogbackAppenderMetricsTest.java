@@ -0,0 +1,110 @@
+package io.thatworked.support.common.logging.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.thatworked.support.common.logging.appender.RingBufferAsyncAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogbackAppenderMetricsTest {
+
+    private static final String APPENDER = "metrics-test-async";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Logger logger;
+    private RingBufferAsyncAppender appender;
+
+    // The binder reads the global logback configuration, so the appender is attached there
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = context.getLogger("metrics-test");
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        BlockingAppender delegate = new BlockingAppender();
+        delegate.setContext(context);
+        delegate.start();
+        appender = new RingBufferAsyncAppender();
+        appender.setContext(context);
+        appender.setName(APPENDER);
+        appender.setBufferSize(2);
+        appender.setOverflowPolicy(RingBufferAsyncAppender.OverflowPolicy.DROP_BY_LEVEL);
+        appender.setDropThreshold("INFO");
+        appender.addAppender(delegate);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        logger.detachAppender(appender);
+        appender.stop();
+    }
+
+    @Test
+    void testMetersFollowTheAppendersCounters() throws Exception {
+        new LogbackAppenderMetrics().bindTo(registry);
+        assertEquals(2, meter("logging.async.queue.capacity").gauge().value());
+        assertEquals(0, meter("logging.async.queue.depth").gauge().value());
+
+        // The worker takes the first event and blocks in the delegate; the next two fill the buffer
+        logger.info("held");
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        logger.info("queued 1");
+        logger.info("queued 2");
+        assertEquals(2, meter("logging.async.queue.depth").gauge().value());
+
+        logger.info("dropped 1");
+        logger.info("dropped 2");
+        assertEquals(2, meter("logging.async.discarded").functionCounter().count());
+        assertEquals(0, meter("logging.async.blocked").functionCounter().count());
+
+        // WARN is above the drop threshold, so it waits for space until the delegate is released
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+        logger.warn("waited");
+        releaser.join();
+
+        assertTrue(meter("logging.async.blocked").functionCounter().count() >= 0.04);
+        assertEquals(2, meter("logging.async.discarded").functionCounter().count());
+    }
+
+    private RequiredSearch meter(String name) {
+        return registry.get(name).tag("appender", APPENDER);
+    }
+
+    private class BlockingAppender extends AppenderBase<ILoggingEvent> {
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
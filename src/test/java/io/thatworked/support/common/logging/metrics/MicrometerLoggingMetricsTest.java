@@ -0,0 +1,71 @@
+package io.thatworked.support.common.logging.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.thatworked.support.common.logging.StructuredLogger;
+import io.thatworked.support.common.logging.config.LogOutputMode;
+import io.thatworked.support.common.logging.config.StructuredLoggerOptions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicrometerLoggingMetricsTest {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MicrometerLoggingMetrics metrics = new MicrometerLoggingMetrics();
+    
+    @Test
+    void testLoggerReportsEventsAndEncoding() {
+        metrics.bindTo(registry);
+        StructuredLogger log = StructuredLogger.getLogger(MicrometerLoggingMetricsTest.class, "metrics-test",
+            StructuredLoggerOptions.builder().metrics(metrics).build());
+        
+        log.info("first");
+        log.with("attempt", 2L).warn("second");
+        log.info("third");
+        
+        assertEquals(2, registry.get("logging.events").tag("service", "metrics-test").tag("level", "INFO")
+            .counter().count());
+        assertEquals(1, registry.get("logging.events").tag("service", "metrics-test").tag("level", "WARN")
+            .counter().count());
+        assertEquals(3, registry.get("logging.encoded.size").summary().count());
+        assertTrue(registry.get("logging.encoded.size").summary().totalAmount() > 0);
+        assertEquals(3, registry.get("logging.serialization").timer().count());
+    }
+    
+    @Test
+    void testStructuredArgumentsAreMeasuredInBytes() {
+        metrics.bindTo(registry);
+        StructuredLogger log = StructuredLogger.getLogger(MicrometerLoggingMetricsTest.class, "metrics-test",
+            StructuredLoggerOptions.builder()
+                .outputMode(LogOutputMode.STRUCTURED_ARGUMENTS)
+                .metrics(metrics)
+                .build());
+        
+        // No fields, so only the message is encoded: one byte, then two for the accented letter
+        log.info("e");
+        log.info("\u00e9");
+        
+        assertEquals(2, registry.get("logging.encoded.size").summary().count());
+        assertEquals(3, registry.get("logging.encoded.size").summary().totalAmount());
+        assertEquals(2, registry.get("logging.serialization").timer().count());
+    }
+    
+    @Test
+    void testSerializationFailuresByService() {
+        metrics.bindTo(registry);
+        
+        metrics.serializationFailed("orders");
+        metrics.serializationFailed("orders");
+        
+        assertEquals(2, registry.get("logging.serialization.failures").tag("service", "orders").counter().count());
+    }
+    
+    @Test
+    void testNothingRecordedBeforeBinding() {
+        metrics.eventLogged("metrics-test", "INFO");
+        metrics.eventEncoded(100, 1_000);
+        metrics.serializationFailed("metrics-test");
+        
+        assertTrue(registry.getMeters().isEmpty());
+    }
+}
@@ -0,0 +1,196 @@
+package io.thatworked.support.common.logging.mmap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSegmentLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testConcurrentAppendsRoundTripAcrossSegments() throws Exception {
+        int threads = 4;
+        int perThread = 2000;
+        try (MappedSegmentLog log = new MappedSegmentLog(tempDir, "test", 8192, 0)) {
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                Thread writer = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue(log.append(bytes("{\"thread\":" + id + ",\"seq\":" + i + "}")));
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+
+        ConcurrentHashMap<Integer, Integer> lastSeq = new ConcurrentHashMap<>();
+        MappedSegmentReader.Result result = MappedSegmentReader.read(tempDir, "test", payload -> {
+            String json = new String(payload, StandardCharsets.UTF_8);
+            int thread = Integer.parseInt(json.substring(json.indexOf(':') + 1, json.indexOf(',')));
+            int seq = Integer.parseInt(json.substring(json.lastIndexOf(':') + 1, json.length() - 1));
+            Integer previous = lastSeq.put(thread, seq);
+            // Records from one thread come back in the order that thread wrote them
+            assertEquals(previous == null ? 0 : previous + 1, seq);
+        });
+
+        assertEquals(threads * perThread, result.records());
+        assertEquals(0, result.skipped());
+        assertTrue(result.segments() > 1);
+    }
+
+    @Test
+    void testTornRecordIsSkipped() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(tempDir, "test", 4096, 0)) {
+            log.append(bytes("first"));
+            log.append(bytes("second"));
+            log.append(bytes("third"));
+        }
+
+        // Simulate a crash mid-write: the second record's payload never fully landed
+        Path segment = MappedSegmentLog.existingSegments(tempDir, "test").get(0);
+        int secondPayload = MappedSegmentFormat.HEADER_SIZE + MappedSegmentFormat.recordSize(5)
+            + MappedSegmentFormat.RECORD_HEADER_SIZE;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0}), secondPayload + 3);
+        }
+
+        List<String> records = new ArrayList<>();
+        MappedSegmentReader.Result result = MappedSegmentReader.read(tempDir, "test",
+            payload -> records.add(new String(payload, StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("first", "third"), records);
+        assertEquals(1, result.skipped());
+    }
+
+    @Test
+    void testUncommittedRecordAtEndIsSkipped() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(tempDir, "test", 4096, 0)) {
+            log.append(bytes("complete"));
+        }
+
+        // Length written, commit word never published
+        Path segment = MappedSegmentLog.existingSegments(tempDir, "test").get(0);
+        int next = MappedSegmentFormat.HEADER_SIZE + MappedSegmentFormat.recordSize(8);
+        ByteBuffer torn = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN).putInt(4).putInt(0).put(bytes("torn"));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(torn.flip(), next);
+        }
+
+        List<String> records = new ArrayList<>();
+        MappedSegmentReader.Result result = MappedSegmentReader.read(tempDir, "test",
+            payload -> records.add(new String(payload, StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("complete"), records);
+        assertEquals(1, result.skipped());
+    }
+
+    @Test
+    void testRetentionKeepsNewestSegments() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(tempDir, "test", 1024, 3)) {
+            for (int i = 0; i < 500; i++) {
+                log.append(bytes("record-" + i));
+            }
+        }
+
+        List<Path> segments = MappedSegmentLog.existingSegments(tempDir, "test");
+        assertTrue(segments.size() <= 3);
+
+        List<String> records = new ArrayList<>();
+        MappedSegmentReader.read(tempDir, "test", payload -> records.add(new String(payload, StandardCharsets.UTF_8)));
+        assertEquals("record-499", records.get(records.size() - 1));
+    }
+
+    @Test
+    void testExporterWritesJsonLines() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(tempDir, "test", 4096, 0)) {
+            log.append(bytes("{\"message\":\"a\"}\n"));
+            log.append(bytes("{\"message\":\"b\"}"));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MappedSegmentExporter.export(tempDir, "test", out);
+
+        assertEquals("{\"message\":\"a\"}\n{\"message\":\"b\"}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testReopenStartsNewSegment() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(tempDir, "test", 4096, 0)) {
+            log.append(bytes("before restart"));
+        }
+        try (MappedSegmentLog log = new MappedSegmentLog(tempDir, "test", 4096, 0)) {
+            log.append(bytes("after restart"));
+        }
+
+        List<String> records = new ArrayList<>();
+        MappedSegmentReader.read(tempDir, "test", payload -> records.add(new String(payload, StandardCharsets.UTF_8)));
+        assertEquals(List.of("before restart", "after restart"), records);
+    }
+
+    @Test
+    void testFailedRollDropsRecordsAndRecovers() throws Exception {
+        AtomicBoolean diskFull = new AtomicBoolean();
+        try (MappedSegmentLog log = new MappedSegmentLog(tempDir, "test", 1024, 0) {
+            @Override
+            FileChannel openSegment(Path file) throws IOException {
+                if (diskFull.get()) {
+                    throw new IOException("No space left on device");
+                }
+                return super.openSegment(file);
+            }
+        }) {
+            diskFull.set(true);
+            int dropped = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                int failed = 0;
+                for (int i = 0; i < 500; i++) {
+                    if (!log.append(bytes("record-" + i))) {
+                        failed++;
+                    }
+                }
+                return failed;
+            });
+            assertTrue(dropped > 0);
+            assertEquals(dropped, log.getDroppedRecords());
+
+            // The roller creates the next segment once the disk has room again
+            diskFull.set(false);
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            boolean appended = false;
+            while (!appended && System.nanoTime() < deadline) {
+                appended = log.append(bytes("recovered"));
+                Thread.sleep(10);
+            }
+            assertTrue(appended);
+        }
+
+        List<String> records = new ArrayList<>();
+        MappedSegmentReader.read(tempDir, "test", payload -> records.add(new String(payload, StandardCharsets.UTF_8)));
+        assertEquals("recovered", records.get(records.size() - 1));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
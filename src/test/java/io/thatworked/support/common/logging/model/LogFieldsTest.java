@@ -0,0 +1,73 @@
+package io.thatworked.support.common.logging.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogFieldsTest {
+
+    @Test
+    void testKeepsInsertionOrderAndOverwritesInPlace() {
+        LogFields fields = new LogFields()
+            .with("b", 1L)
+            .with("a", "text")
+            .with("b", 2.5);
+
+        assertEquals(List.of("b", "a"), List.copyOf(fields.keySet()));
+        assertEquals(LogFields.DOUBLE, fields.type(0));
+        assertEquals(2.5, fields.get("b"));
+    }
+
+    @Test
+    void testBoxedValuesAreStoredUnboxed() {
+        LogFields fields = new LogFields()
+            .with("count", (Object) 42)
+            .with("enabled", (Object) Boolean.TRUE)
+            .with("name", (Object) "svc")
+            .with("tags", (Object) List.of("x"));
+
+        assertEquals(LogFields.LONG, fields.type(0));
+        assertEquals(42, fields.longAt(0));
+        assertEquals(LogFields.BOOLEAN, fields.type(1));
+        assertEquals(LogFields.STRING, fields.type(2));
+        assertEquals(LogFields.OBJECT, fields.type(3));
+        assertEquals(Map.of("count", 42L, "enabled", true, "name", "svc", "tags", List.of("x")), fields);
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        LogFields fields = new LogFields();
+        for (int i = 0; i < 100; i++) {
+            fields.with("key" + i, i);
+        }
+
+        assertEquals(100, fields.size());
+        assertEquals(99L, fields.get("key99"));
+    }
+
+    @Test
+    void testPooledInstancesAreRecycled() {
+        LogFields fields = LogFields.obtain().with("a", 1L);
+        fields.recycle();
+        fields.recycle();
+
+        LogFields reused = LogFields.obtain();
+        assertSame(fields, reused);
+        assertTrue(reused.isEmpty());
+        assertNotSame(reused, LogFields.obtain());
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        LogFields pooled = LogFields.obtain().with("a", 1L);
+        LogFields copy = pooled.copy();
+        pooled.recycle();
+
+        assertEquals(Map.of("a", 1L), copy);
+        copy.recycle();
+        assertEquals(1, copy.size());
+    }
+}
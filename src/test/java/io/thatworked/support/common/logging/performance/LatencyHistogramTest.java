@@ -0,0 +1,93 @@
+package io.thatworked.support.common.logging.performance;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsAreContiguousAndBounded() {
+        for (long value = 0; value < 1_000_000; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value <= LatencyHistogram.highestValueIn(bucket), "value " + value);
+            if (bucket > 0) {
+                assertTrue(value > LatencyHistogram.highestValueIn(bucket - 1), "value " + value);
+            }
+        }
+    }
+
+    @Test
+    void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshotAndReset();
+
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000_000, snapshot.getMaxNanos());
+        assertWithinError(5_000_000, snapshot.valueAtPercentile(50));
+        assertWithinError(9_900_000, snapshot.valueAtPercentile(99));
+        assertWithinError(9_990_000, snapshot.valueAtPercentile(99.9));
+        assertEquals(10_000_000, snapshot.valueAtPercentile(100));
+    }
+
+    @Test
+    void testSnapshotResets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        histogram.snapshotAndReset();
+
+        LatencyHistogram.Snapshot empty = histogram.snapshotAndReset();
+
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getMaxNanos());
+        assertEquals(0, empty.valueAtPercentile(99));
+    }
+
+    @Test
+    void testOutOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(TimeUnit.DAYS.toNanos(1));
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshotAndReset();
+
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.valueAtPercentile(50));
+        assertEquals(TimeUnit.HOURS.toNanos(1), snapshot.getMaxNanos());
+    }
+
+    @Test
+    void testConcurrentRecordingsAreNotLost() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        long[] drained = new long[1];
+        try {
+            for (int t = 0; t < 4; t++) {
+                pool.execute(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        histogram.record(i);
+                    }
+                });
+            }
+            while (drained[0] < 400_000) {
+                drained[0] += histogram.snapshotAndReset().getCount();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(400_000, drained[0]);
+        assertEquals(0, histogram.snapshotAndReset().getCount());
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertEquals(expected, actual, expected / 64.0, "percentile value");
+    }
+}
@@ -0,0 +1,59 @@
+package io.thatworked.support.common.logging.performance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerformanceAggregatorTest {
+
+    // Flushed by hand; the scheduled flush never fires during the test
+    private final PerformanceAggregator aggregator = new PerformanceAggregator(Duration.ofHours(1), 2);
+    private final List<PerformanceAggregator.Summary> summaries = new ArrayList<>();
+
+    @Test
+    void testOneSummaryPerKeyAndInterval() {
+        for (long micros = 1; micros <= 100; micros++) {
+            assertTrue(aggregator.record("db.query", micros * 1_000, summaries::add));
+        }
+
+        aggregator.flush();
+
+        assertEquals(1, summaries.size());
+        PerformanceAggregator.Summary summary = summaries.get(0);
+        assertEquals(100, summary.count());
+        assertEquals(1_000, summary.minNanos());
+        assertEquals(50_500, summary.meanNanos());
+        assertEquals(100_000, summary.latencies().getMaxNanos());
+
+        aggregator.flush();
+        assertEquals(1, summaries.size(), "nothing measured, nothing reported");
+    }
+
+    @Test
+    void testRefusesKeysBeyondLimit() {
+        assertTrue(aggregator.record("a", 1, summaries::add));
+        assertTrue(aggregator.record("b", 1, summaries::add));
+
+        assertFalse(aggregator.record("c", 1, summaries::add));
+        assertTrue(aggregator.record("a", 1, summaries::add));
+    }
+
+    @Test
+    void testEvictsIdleKeys() {
+        aggregator.record("a", 1_000, summaries::add);
+        aggregator.record("b", 1_000, summaries::add);
+        aggregator.flush();
+
+        for (int i = 0; i < PerformanceAggregator.MAX_IDLE_INTERVALS; i++) {
+            aggregator.record("a", 1_000, summaries::add);
+            aggregator.flush();
+        }
+
+        assertEquals(1, aggregator.trackedKeys());
+        assertTrue(aggregator.record("c", 1_000, summaries::add));
+    }
+}
@@ -0,0 +1,88 @@
+package io.thatworked.support.common.logging.sampling;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.thatworked.support.common.logging.error.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingPolicyTest {
+
+    @Test
+    void testTokenBucketAllowsBurstThenLimits() {
+        TokenBucket bucket = new TokenBucket(1, 5);
+
+        assertEquals(5, count(bucket::tryAcquire));
+    }
+
+    @Test
+    void testFirstMatchingRuleDecides() {
+        SamplingPolicy policy = new SamplingPolicy(List.of(
+            SamplingRule.builder().errorCode("SYS_001").build(),
+            SamplingRule.builder().errorCode("DB_002").ratePerSecond(1).burst(10).build(),
+            SamplingRule.builder().level("ERROR").sampleRate(0).build()
+        ), Duration.ofHours(1), "test-service");
+        LogSampler sampler = policy.forLogger("com.example.Orders");
+
+        assertEquals(100, count(() -> sampler.allow("ERROR", ErrorCode.SYS_001, "Out of memory")));
+        assertEquals(10, count(() -> sampler.allow("ERROR", "DB_002", "Query failed")));
+        assertEquals(0, count(() -> sampler.allow("ERROR", null, "Anything else")));
+        assertEquals(100, count(() -> sampler.allow("INFO", null, "Unmatched")));
+    }
+
+    @Test
+    void testLoggerAndMessageTemplateMatching() {
+        SamplingPolicy policy = new SamplingPolicy(List.of(
+            SamplingRule.builder().logger("com.example.noisy").message("Cache miss*").sampleRate(0).build()
+        ), Duration.ofHours(1), "test-service");
+
+        assertNull(policy.forLogger("com.example.quiet.Service"));
+        assertNull(policy.forLogger("com.example.noisybutrare.Service"));
+        assertNotNull(policy.forLogger("com.example.noisy"));
+        LogSampler sampler = policy.forLogger("com.example.noisy.Cache");
+        assertFalse(sampler.allow("DEBUG", null, "Cache miss for key"));
+        assertTrue(sampler.allow("DEBUG", null, "Cache hit"));
+    }
+
+    @Test
+    void testSuppressedEventsAreSummarized() {
+        Logger summaryLogger = (Logger) LoggerFactory.getLogger(SamplingPolicy.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        summaryLogger.addAppender(appender);
+        try {
+            SamplingPolicy policy = new SamplingPolicy(List.of(
+                SamplingRule.builder().level("INFO").ratePerSecond(1).burst(1).build()
+            ), Duration.ofHours(1), "test-service");
+            LogSampler sampler = policy.forLogger("com.example.Orders");
+            count(() -> sampler.allow("INFO", null, "Order created"));
+
+            policy.reportSuppressed();
+            policy.reportSuppressed();
+
+            assertEquals(1, appender.list.size());
+            String summary = appender.list.get(0).getFormattedMessage();
+            assertTrue(summary.contains("\"suppressed\":99"));
+            assertTrue(summary.contains("level=INFO"));
+        } finally {
+            summaryLogger.detachAppender(appender);
+        }
+    }
+
+    private static int count(BooleanSupplier decision) {
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (decision.getAsBoolean()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}